@@ -17,9 +17,9 @@
 package com.igormaznitsa.mvnjlink.jdkproviders;
 
 import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
-import static com.igormaznitsa.mvnjlink.utils.HttpUtils.doGetRequest;
 import static java.lang.String.format;
 import static java.nio.file.Files.isDirectory;
+import static java.nio.file.Files.isRegularFile;
 import static java.nio.file.Files.newInputStream;
 import static java.nio.file.Files.newOutputStream;
 import static java.util.stream.Stream.of;
@@ -27,31 +27,76 @@ import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
 
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.meta.common.utils.Assertions;
+import com.igormaznitsa.mvnjlink.exceptions.FailureException;
 import com.igormaznitsa.mvnjlink.exceptions.IORuntimeWrapperException;
 import com.igormaznitsa.mvnjlink.mojos.AbstractJdkToolMojo;
+import com.igormaznitsa.mvnjlink.utils.ArchUtils;
+import com.igormaznitsa.mvnjlink.utils.ArchiveIndex;
+import com.igormaznitsa.mvnjlink.utils.CacheLock;
+import com.igormaznitsa.mvnjlink.utils.DedupObjectStore;
+import com.igormaznitsa.mvnjlink.utils.DownloadJournal;
+import com.igormaznitsa.mvnjlink.utils.GithubReleaseParser;
 import com.igormaznitsa.mvnjlink.utils.HostOs;
+import com.igormaznitsa.mvnjlink.utils.HttpClientRegistry;
+import com.igormaznitsa.mvnjlink.utils.HttpResponseException;
+import com.igormaznitsa.mvnjlink.utils.HttpTransport;
 import com.igormaznitsa.mvnjlink.utils.HttpUtils;
+import com.igormaznitsa.mvnjlink.utils.MetadataCache;
+import com.igormaznitsa.mvnjlink.utils.ProxySettings;
+import com.igormaznitsa.mvnjlink.utils.ReleaseIndex;
+import com.igormaznitsa.mvnjlink.utils.RetryPolicy;
 import com.igormaznitsa.mvnjlink.utils.StringUtils;
-import java.io.File;
+import com.igormaznitsa.mvnjlink.utils.SystemUtils;
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Locale;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
 import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.impl.client.HttpClientBuilder;
@@ -60,6 +105,15 @@ import org.apache.maven.plugin.logging.Log;
 
 public abstract class AbstractJdkProvider {
 
+  private static final long MIN_DOWNLOAD_SEGMENT_SIZE = 1024L * 1024L;
+  private static final String PART_FILE_EXTENSION = ".part";
+  private static final String JOURNAL_FILE_EXTENSION = ".part.journal";
+  protected static final String CONFIG_UNPACK_THREADS = "unpackThreads";
+  protected static final String CONFIG_PREFETCH_PAGES = "prefetchPages";
+  protected static final String CONFIG_MIRRORS = "mirrors";
+  protected static final String CONFIG_MIRROR_MODE = "mirrorMode";
+  private static final Pattern LINK_LAST_PAGE =
+      Pattern.compile("<[^>]*[?&]page=(\\d+)[^>]*>\\s*;\\s*rel=\"last\"");
   protected static final String[] MIME_TEXT =
       new String[] {"text/plain", "application/octet-stream"};
   protected final AbstractJdkToolMojo mojo;
@@ -115,6 +169,127 @@ public abstract class AbstractJdkProvider {
     }
   }
 
+  /**
+   * Find number of threads to unpack archive, defined by 'unpackThreads' provider config
+   * parameter, number of available processors by default.
+   *
+   * @param config provider configuration
+   * @return number of threads, greater than zero
+   * @since 1.2.7
+   */
+  protected int findUnpackThreads(@Nonnull final Map<String, String> config) {
+    final String value = config.get(CONFIG_UNPACK_THREADS);
+    if (value == null) {
+      return Runtime.getRuntime().availableProcessors();
+    }
+    try {
+      final int threads = Integer.parseInt(value.trim());
+      if (threads <= 0) {
+        throw new IllegalArgumentException("Unpack threads can't be zero or negative: " + value);
+      }
+      return threads;
+    } catch (final NumberFormatException ex) {
+      throw new IllegalArgumentException("Unpack threads must be numeric value: " + value);
+    }
+  }
+
+  /**
+   * Find number of release list pages to be loaded speculatively ahead of the currently
+   * processed page, defined by 'prefetchPages' provider config parameter, zero by default.
+   *
+   * @param config provider configuration
+   * @return number of pages, zero means sequential loading
+   * @since 1.2.7
+   */
+  protected int findPrefetchPages(@Nonnull final Map<String, String> config) {
+    final String value = config.get(CONFIG_PREFETCH_PAGES);
+    if (value == null) {
+      return 0;
+    }
+    try {
+      final int pages = Integer.parseInt(value.trim());
+      if (pages < 0) {
+        throw new IllegalArgumentException("Prefetch pages can't be negative: " + value);
+      }
+      return Math.min(pages, HttpUtils.MAX_CONNECTIONS_PER_ROUTE - 1);
+    } catch (final NumberFormatException ex) {
+      throw new IllegalArgumentException("Prefetch pages must be numeric value: " + value);
+    }
+  }
+
+  /**
+   * Find ordered list of archive links, the main link is the first one and it is followed by
+   * links defined in 'mirrors' provider config parameter (separated by commas, spaces or new
+   * lines).
+   *
+   * @param config   provider configuration
+   * @param mainLink main link of archive
+   * @return list of unique links
+   * @since 1.2.7
+   */
+  @Nonnull
+  @MustNotContainNull
+  protected static List<String> findMirrorLinks(@Nonnull final Map<String, String> config,
+                                                @Nonnull final String mainLink) {
+    final Set<String> result = new LinkedHashSet<>();
+    result.add(mainLink.trim());
+    final String mirrors = config.get(CONFIG_MIRRORS);
+    if (mirrors != null) {
+      for (final String link : mirrors.split("[,\\s]+")) {
+        if (!link.isEmpty()) {
+          result.add(link);
+        }
+      }
+    }
+    return new ArrayList<>(result);
+  }
+
+  /**
+   * Find mode of mirror use, defined by 'mirrorMode' provider config parameter.
+   *
+   * @param config provider configuration
+   * @return mode, FAILOVER by default
+   * @since 1.2.7
+   */
+  @Nonnull
+  protected static MirrorMode findMirrorMode(@Nonnull final Map<String, String> config) {
+    final String value = config.get(CONFIG_MIRROR_MODE);
+    if (value == null) {
+      return MirrorMode.FAILOVER;
+    }
+    try {
+      return MirrorMode.valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+    } catch (IllegalArgumentException ex) {
+      throw new IllegalArgumentException("Unsupported mirror mode (allowed "
+          + Arrays.toString(MirrorMode.values()) + "): " + value);
+    }
+  }
+
+  /**
+   * Find number of the last page from value of Link header. Missing header or header without
+   * 'last' and 'next' relations means that the current page is the last one.
+   *
+   * @param link        value of Link header, can be null
+   * @param currentPage number of page which response contains the header
+   * @return number of the last page, current page if there is no next page or Integer.MAX_VALUE
+   * if there is next page but number of the last page is unknown
+   * @since 1.2.7
+   */
+  protected static int findLastPage(@Nullable final String link, final int currentPage) {
+    if (link == null) {
+      return currentPage;
+    }
+    final Matcher matcher = LINK_LAST_PAGE.matcher(link);
+    if (matcher.find()) {
+      try {
+        return Integer.parseInt(matcher.group(1));
+      } catch (NumberFormatException ex) {
+        return Integer.MAX_VALUE;
+      }
+    }
+    return link.contains("rel=\"next\"") ? Integer.MAX_VALUE : currentPage;
+  }
+
   protected static void assertChecksum(
       @Nonnull final String expected,
       @Nonnull @MustNotContainNull final List<MessageDigest> calculated,
@@ -141,16 +316,38 @@ public abstract class AbstractJdkProvider {
     }
   }
 
+  /**
+   * Get pooled HTTP client shared through the current Maven session, the client must not be
+   * closed.
+   *
+   * @param authorization authorization, can be null
+   * @return shared client
+   * @throws IOException if client can't be created
+   * @see HttpClientRegistry
+   */
   @Nonnull
   protected HttpClient createHttpClient(@Nullable final String authorization) throws IOException {
-    return HttpUtils.makeHttpClient(
+    return HttpClientRegistry.forSession(this.mojo.getSession()).getClient(
         this.mojo.getLog(),
         this.mojo.getProxy(),
-        this.tuneClient(authorization),
-        this.mojo.isDisableSSLcheck()
+        this.mojo.isDisableSSLcheck(),
+        authorization,
+        this.tuneClient(authorization)
     );
   }
 
+  /**
+   * Get bounded executor of asynchronous HTTP requests shared through the current Maven session.
+   *
+   * @return shared executor
+   * @throws IOException if the session registry is closed
+   * @see HttpClientRegistry#getAsyncExecutor()
+   */
+  @Nonnull
+  private Executor findHttpAsyncExecutor() throws IOException {
+    return HttpClientRegistry.forSession(this.mojo.getSession()).getAsyncExecutor();
+  }
+
   @Nonnull
   protected Function<HttpRequestBase, HttpRequestBase> tuneRequestBase(
       @Nullable final String authorization) {
@@ -169,36 +366,22 @@ public abstract class AbstractJdkProvider {
     return x -> x;
   }
 
+  /**
+   * Lock record of JDK cache. Lock is based on OS file lock so that it is released even if the
+   * process is killed.
+   *
+   * @param cacheFolder cache folder
+   * @param jdkId       identifier of JDK record
+   * @param shared      true if shared lock for reading, false if exclusive lock for installing
+   * @return acquired lock, must be closed
+   * @throws IOException if timeout or any error
+   */
   @Nonnull
-  protected File lockCache(@Nonnull final Path cacheFolder, @Nonnull final String jdkId)
+  protected CacheLock lockCache(@Nonnull final Path cacheFolder, @Nonnull final String jdkId,
+                                final boolean shared)
       throws IOException {
-    final Log log = this.mojo.getLog();
-
-    final File lockFile = cacheFolder.resolve(".#" + jdkId).toFile();
-    lockFile.deleteOnExit();
-
-    if (!lockFile.createNewFile()) {
-      boolean locked = false;
-      log.info("Detected existing lock, waiting for unlocking");
-      while (!Thread.currentThread().isInterrupted()) {
-        locked = lockFile.createNewFile();
-        if (locked) {
-          break;
-        } else {
-          try {
-            Thread.sleep(500L);
-          } catch (InterruptedException ex) {
-            log.warn("Process interrupted");
-            Thread.currentThread().interrupt();
-          }
-        }
-      }
-      if (!locked) {
-        throw new IOException("Can't lock folder");
-      }
-    }
-
-    return lockFile;
+    return CacheLock.acquire(this.mojo.getLog(), cacheFolder.resolve("." + jdkId + ".lock"),
+        shared, this.mojo.getCacheLockTimeout());
   }
 
   protected boolean isOfflineMode() {
@@ -232,6 +415,448 @@ public abstract class AbstractJdkProvider {
     return result.get();
   }
 
+  /**
+   * Make GET request with retry policy and proxy of the mojo.
+   *
+   * @see HttpUtils#doGetRequest(HttpTransport, RetryPolicy, Log, Function, String, ProxySettings,
+   * Consumer, Consumer, int, boolean, String...)
+   */
+  @Nonnull
+  @MustNotContainNull
+  private Header[] doGetRequest(
+      @Nonnull final HttpClient client,
+      @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+      @Nonnull final String url,
+      @Nullable final ProxySettings proxySettings,
+      @Nullable final Consumer<HttpResponse> responseConsumer,
+      @Nonnull final Consumer<HttpEntity> consumer,
+      final int timeout,
+      final boolean expectedBinaryFile,
+      @Nonnull @MustNotContainNull final String... acceptedContent
+  ) throws IOException {
+    return this.doGetRequest(client, this.mojo.getRetryPolicy(), customizer, url, proxySettings,
+        responseConsumer, consumer, timeout, expectedBinaryFile, acceptedContent);
+  }
+
+  @Nonnull
+  @MustNotContainNull
+  private Header[] doGetRequest(
+      @Nonnull final HttpClient client,
+      @Nonnull final RetryPolicy retryPolicy,
+      @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+      @Nonnull final String url,
+      @Nullable final ProxySettings proxySettings,
+      @Nullable final Consumer<HttpResponse> responseConsumer,
+      @Nonnull final Consumer<HttpEntity> consumer,
+      final int timeout,
+      final boolean expectedBinaryFile,
+      @Nonnull @MustNotContainNull final String... acceptedContent
+  ) throws IOException {
+    return HttpUtils.doGetRequest(HttpTransport.of(client), retryPolicy, this.mojo.getLog(),
+        customizer, url, proxySettings, responseConsumer, consumer, timeout, expectedBinaryFile,
+        acceptedContent);
+  }
+
+  /**
+   * Start asynchronous loading of text document (like checksum file) so that it can be loaded in
+   * parallel with other work through the same pooled client.
+   *
+   * @param client                   http client
+   * @param customizer               request customizer
+   * @param url                      url of the document
+   * @param connectionRequestTimeout timeout for connection request
+   * @param acceptedContent          mime types of accepted content
+   * @return future of loaded text, cancellation aborts request
+   * @see #joinHttpResult(CompletableFuture)
+   * @since 1.2.7
+   */
+  @Nonnull
+  protected CompletableFuture<String> doHttpGetTextAsync(
+      @Nonnull final HttpClient client,
+      @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+      @Nonnull final String url,
+      final int connectionRequestTimeout,
+      @Nonnull @MustNotContainNull final String... acceptedContent
+  ) {
+    final Executor executor;
+    try {
+      executor = this.findHttpAsyncExecutor();
+    } catch (IOException ex) {
+      final CompletableFuture<String> failed = new CompletableFuture<>();
+      failed.completeExceptionally(ex);
+      return failed;
+    }
+    final AtomicReference<String> result = new AtomicReference<>();
+    return HttpUtils.doGetRequestAsync(HttpTransport.of(client), this.mojo.getRetryPolicy(),
+        this.mojo.getLog(), executor, customizer, url, this.mojo.getProxy(),
+        x -> this.logRateLimitIfPresented(url, x),
+        x -> {
+          try {
+            result.set(EntityUtils.toString(x));
+          } catch (IOException ex) {
+            throw new IORuntimeWrapperException(ex);
+          }
+        }, connectionRequestTimeout, false, acceptedContent).thenApply(x -> result.get());
+  }
+
+  /**
+   * Wait for result of asynchronous HTTP request.
+   *
+   * @param future future of request
+   * @param <T>    type of result
+   * @return result of request
+   * @throws IOException if request error or interruption
+   * @since 1.2.7
+   */
+  @Nullable
+  protected static <T> T joinHttpResult(@Nonnull final CompletableFuture<T> future)
+      throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException ex) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IOException("HTTP request interrupted", ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof IOException) {
+        throw (IOException) ex.getCause();
+      }
+      throw new IOException("Error during HTTP request", ex.getCause());
+    }
+  }
+
+  /**
+   * Load text metadata document (like page of release list) through the metadata cache. Fresh
+   * cached document is returned without request, outdated one is revalidated by conditional
+   * request and 304 response doesn't need any content loading.
+   *
+   * @param client                   http client
+   * @param customizer               request customizer
+   * @param url                      url of the document
+   * @param connectionRequestTimeout timeout for connection request
+   * @param acceptedContent          mime types of accepted content
+   * @return loaded or cached document
+   * @throws IOException if any transport error
+   * @since 1.2.7
+   */
+  @Nonnull
+  protected MetadataCache.Record doHttpGetMetadata(
+      @Nonnull final HttpClient client,
+      @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+      @Nonnull final String url,
+      final int connectionRequestTimeout,
+      @Nonnull @MustNotContainNull final String... acceptedContent
+  ) throws IOException {
+    final Log log = this.mojo.getLog();
+    final long ttl = this.mojo.getMetadataCacheTtl();
+    final MetadataCache cache =
+        ttl < 0L ? null : new MetadataCache(this.mojo.findJdkCacheFolder());
+    final MetadataCache.Record cached = cache == null ? null : cache.load(url);
+
+    if (cached != null && cached.isFresh(ttl * 1000L, System.currentTimeMillis())) {
+      log.debug("Using cached metadata: " + url);
+      return cached;
+    }
+
+    final AtomicReference<HttpResponse> response = new AtomicReference<>();
+    final AtomicReference<String> body = new AtomicReference<>();
+    try {
+      doGetRequest(client, x -> {
+            final HttpRequestBase result = customizer == null ? x : customizer.apply(x);
+            if (cached != null && cached.getEtag() != null) {
+              result.setHeader(HttpHeaders.IF_NONE_MATCH, cached.getEtag());
+            }
+            if (cached != null && cached.getLastModified() != null) {
+              result.setHeader(HttpHeaders.IF_MODIFIED_SINCE, cached.getLastModified());
+            }
+            return result;
+          }, url, this.mojo.getProxy(),
+          x -> {
+            response.set(x);
+            this.logRateLimitIfPresented(url, x);
+          },
+          x -> {
+            try {
+              body.set(EntityUtils.toString(x));
+            } catch (IOException ex) {
+              throw new IORuntimeWrapperException(ex);
+            }
+          }, connectionRequestTimeout, false, acceptedContent);
+    } catch (IORuntimeWrapperException ex) {
+      throw ex.getWrapped();
+    } catch (HttpResponseException ex) {
+      final HttpResponse causeResponse = ex.getCauseResponse();
+      if (cached != null && causeResponse != null
+          && causeResponse.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+        log.debug("Cached metadata is not modified: " + url);
+        final MetadataCache.Record result = cached.withTimestamp(System.currentTimeMillis());
+        this.saveMetadataQuietly(cache, url, result);
+        return result;
+      }
+      throw ex;
+    }
+
+    final HttpResponse loadedResponse = assertNotNull(response.get());
+    final MetadataCache.Record result = new MetadataCache.Record(
+        assertNotNull(body.get()),
+        findHeaderValue(loadedResponse, HttpHeaders.ETAG),
+        findHeaderValue(loadedResponse, HttpHeaders.LAST_MODIFIED),
+        findHeaderValue(loadedResponse, "Link"),
+        System.currentTimeMillis());
+    if (cache != null) {
+      this.saveMetadataQuietly(cache, url, result);
+    }
+    return result;
+  }
+
+  private void saveMetadataQuietly(
+      @Nonnull final MetadataCache cache,
+      @Nonnull final String url,
+      @Nonnull final MetadataCache.Record record
+  ) {
+    try {
+      cache.save(url, record);
+    } catch (IOException ex) {
+      this.mojo.getLog().warn("Can't save metadata into cache: " + ex.getMessage());
+    }
+  }
+
+  @Nullable
+  private static String findHeaderValue(@Nonnull final HttpResponse response,
+                                        @Nonnull final String name) {
+    final Header header = response.getFirstHeader(name);
+    return header == null ? null : header.getValue();
+  }
+
+  /**
+   * Load pages of release list one by one and pass their bodies to visitor till visitor stops
+   * processing. If prefetch is enabled then next pages are loaded concurrently while current
+   * page is processed, number of the last page from Link header limits loading and requests of
+   * not needed pages are aborted when visitor stops processing.
+   *
+   * @param client          http client
+   * @param customizer      request customizer
+   * @param pageUrlMaker    function makes url for page number, pages start from 1
+   * @param prefetchPages   number of pages to be loaded ahead, 0 for sequential loading
+   * @param visitor         visitor of page bodies
+   * @param acceptedContent mime types of accepted content
+   * @throws IOException if any transport error
+   * @since 1.2.7
+   */
+  protected void visitReleasePages(
+      @Nonnull final HttpClient client,
+      @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+      @Nonnull final IntFunction<String> pageUrlMaker,
+      final int prefetchPages,
+      @Nonnull final ReleasePageVisitor visitor,
+      @Nonnull @MustNotContainNull final String... acceptedContent
+  ) throws IOException {
+    final Log log = this.mojo.getLog();
+    if (prefetchPages <= 0) {
+      int page = 1;
+      while (!Thread.currentThread().isInterrupted()) {
+        log.debug("Loading releases page: " + page);
+        final String body = this.doHttpGetMetadata(client, customizer, pageUrlMaker.apply(page),
+            this.mojo.getConnectionTimeout(), acceptedContent).getBody();
+        if (visitor.visit(page, body)) {
+          break;
+        }
+        page++;
+      }
+      return;
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool(prefetchPages + 1,
+        runnable -> {
+          final Thread thread = new Thread(runnable, "mvn-jlink-page-prefetcher");
+          thread.setDaemon(true);
+          return thread;
+        });
+    final Map<Integer, PageRequest> requests = new TreeMap<>();
+    try {
+      int lastPage = Integer.MAX_VALUE;
+      int page = 1;
+      while (!Thread.currentThread().isInterrupted()) {
+        final int lastToRequest = (int) Math.min(lastPage, (long) page + prefetchPages);
+        for (int i = page; i <= lastToRequest; i++) {
+          if (!requests.containsKey(i)) {
+            log.debug("Requesting releases page: " + i);
+            requests.put(i, new PageRequest(executor, client, customizer,
+                pageUrlMaker.apply(i), acceptedContent));
+          }
+        }
+
+        final MetadataCache.Record record = assertNotNull(requests.remove(page)).get();
+        lastPage = Math.min(lastPage, findLastPage(record.getLink(), page));
+        final int knownLastPage = lastPage;
+        requests.entrySet().removeIf(x -> {
+          if (x.getKey() > knownLastPage) {
+            log.debug("Canceling request of page out of range: " + x.getKey());
+            x.getValue().cancel();
+            return true;
+          }
+          return false;
+        });
+
+        if (visitor.visit(page, record.getBody()) || page >= lastPage) {
+          break;
+        }
+        page++;
+      }
+    } finally {
+      if (!requests.isEmpty()) {
+        log.debug("Canceling requests of not needed pages: " + requests.keySet());
+        requests.values().forEach(PageRequest::cancel);
+      }
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Extract archive assets from GitHub release list page. Assets of draft releases are ignored.
+   * The page is parsed by streaming parser without building of JSON tree.
+   *
+   * @param log  maven log
+   * @param json body of release list page
+   * @return list of found archive assets, can be empty
+   * @throws IOException if wrong page format
+   * @since 1.2.7
+   */
+  @Nonnull
+  @MustNotContainNull
+  protected static List<ReleaseIndex.Asset> parseGithubReleaseAssets(
+      @Nonnull final Log log,
+      @Nonnull final String json
+  ) throws IOException {
+    final List<ReleaseIndex.Asset> result = new ArrayList<>();
+    GithubReleaseParser.parse(new StringReader(json), asset -> {
+      if (isArchiveAsset(asset)) {
+        result.add(asset);
+      } else {
+        log.debug("Ignoring because non-archive: " + asset.getFileName());
+      }
+    });
+    return result;
+  }
+
+  private static boolean isArchiveAsset(@Nonnull final ReleaseIndex.Asset asset) {
+    final String fileName = asset.getFileName();
+    return fileName.endsWith(".zip") || fileName.endsWith(".tar.gz");
+  }
+
+  /**
+   * Load local release index from the cache folder.
+   *
+   * @param indexName name of index
+   * @return loaded index or null if not found or can't be read
+   * @throws IOException if cache folder can't be found
+   * @since 1.2.7
+   */
+  @Nullable
+  protected ReleaseIndex loadReleaseIndex(@Nonnull final String indexName) throws IOException {
+    final Log log = this.mojo.getLog();
+    final Path indexFile = ReleaseIndex.findIndexFile(this.mojo.findJdkCacheFolder(), indexName);
+    try {
+      final ReleaseIndex result = ReleaseIndex.load(indexFile);
+      if (result == null) {
+        log.debug("Release index not found: " + indexFile);
+      } else {
+        log.info(String.format("Loaded release index '%s' (%d assets, created %s)", indexName,
+            result.getAssets().size(), new Date(result.getTimestamp())));
+      }
+      return result;
+    } catch (IOException ex) {
+      log.warn("Can't read release index, it will be ignored: " + indexFile + " ("
+          + ex.getMessage() + ')');
+      return null;
+    }
+  }
+
+  /**
+   * Load all pages of GitHub release list and save found archive assets as local release index.
+   *
+   * @param authorization authorization, can be null
+   * @param config        provider configuration, 'perPage' and 'prefetchPages' are used
+   * @param indexName     name of index
+   * @param releasesUrl   URL of release list without query
+   * @return saved index
+   * @throws IOException if any error
+   * @since 1.2.7
+   */
+  @Nonnull
+  protected ReleaseIndex refreshGithubReleaseIndex(
+      @Nullable final String authorization,
+      @Nonnull final Map<String, String> config,
+      @Nonnull final String indexName,
+      @Nonnull final String releasesUrl
+  ) throws IOException {
+    final Log log = this.mojo.getLog();
+    final int perPage = ensurePageSizeValue(config.getOrDefault("perPage", "100"));
+    final long timestamp = System.currentTimeMillis();
+    final List<ReleaseIndex.Asset> assets = new ArrayList<>();
+    this.visitReleasePages(createHttpClient(authorization), this.tuneRequestBase(authorization),
+        page -> releasesUrl + "?per_page=" + perPage + "&page=" + page,
+        this.findPrefetchPages(config),
+        (page, body) -> GithubReleaseParser.parse(new StringReader(body), asset -> {
+          if (isArchiveAsset(asset)) {
+            assets.add(asset);
+          }
+        }) == 0, "application/vnd.github.v3+json");
+
+    final ReleaseIndex result = new ReleaseIndex(releasesUrl, timestamp, assets);
+    final Path indexFile = ReleaseIndex.findIndexFile(this.mojo.findJdkCacheFolder(), indexName);
+    result.save(indexFile);
+    log.info(String.format("Release index '%s' saved, %d assets: %s", indexName, assets.size(),
+        indexFile));
+    return result;
+  }
+
+  /**
+   * Refresh local release index of provider, so that JDK can be resolved without loading of
+   * release lists and in offline mode.
+   *
+   * @param authorization authorization, can be null
+   * @param config        provider configuration
+   * @return true if index has been refreshed, false if provider doesn't support release index
+   * @throws IOException if any error
+   * @since 1.2.7
+   */
+  public boolean refreshReleaseIndex(
+      @Nullable final String authorization,
+      @Nonnull final Map<String, String> config
+  ) throws IOException {
+    return false;
+  }
+
+  /**
+   * Check that archive found through release index can be used in offline mode. The archive
+   * must be presented in the cache folder and it is checked by digest if known.
+   *
+   * @param archiveFile path to archive file in the cache folder
+   * @param digest      digest from release index like 'sha256:...', can be null
+   * @throws IOException if archive is not found or has wrong digest
+   * @since 1.2.7
+   */
+  protected void assertArchiveForOfflineMode(
+      @Nonnull final Path archiveFile,
+      @Nullable final String digest
+  ) throws IOException {
+    if (!isRegularFile(archiveFile)) {
+      throw new FailureException("Archive '" + archiveFile.getFileName()
+          + "' is found in release index but not in the cache folder, stopping process because"
+          + " offline mode is active");
+    }
+    if (digest != null && digest.toLowerCase(Locale.ENGLISH).startsWith("sha256:")) {
+      final String expected = normalizeChecksum(digest.substring("sha256:".length()));
+      final String calculated = normalizeChecksum(calcSha256ForFile(archiveFile));
+      if (!expected.equals(calculated)) {
+        throw new IOException("Digest of archive '" + archiveFile.getFileName()
+            + "' is not correct, expected '" + expected + "' but calculated '" + calculated + "'");
+      }
+      this.mojo.getLog().info("SHA256 of archive is OK");
+    }
+  }
+
   protected void logRateLimitIfPresented(@Nonnull final String resourceUrl,
                                          @Nonnull final HttpResponse response) {
     final Log logger = this.mojo.getLog();
@@ -334,90 +959,923 @@ public abstract class AbstractJdkProvider {
     log.debug(format("Loading %s into file %s, request timeout %d ms", url, targetFile.toString(),
         connectionRequestTimeout));
 
-    Header[] responseHeaders;
-
-    try {
-      responseHeaders = doGetRequest(client, customizer, url, this.mojo.getProxy(),
-          x -> this.logRateLimitIfPresented(url, x),
-          httpEntity -> {
-            boolean showProgress = false;
-            try {
-              try (final OutputStream fileOutStream = newOutputStream(targetFile)) {
-                final byte[] buffer = new byte[1024 * 1024];
-
-                final long contentSize = httpEntity.getContentLength();
-                final InputStream inStream = httpEntity.getContent();
+    final int segments = this.mojo.getDownloadSegments();
 
-                log.debug("Reported content size: " + contentSize + " bytes");
-
-                final int PROGRESSBAR_WIDTH = 10;
-                final String LOADING_TITLE =
-                    format("Loading %d Mb ", (contentSize / (1024L * 1024L)));
+    final Header[] responseHeaders;
+    if (segments > 1) {
+      try {
+        responseHeaders =
+            this.doSegmentedHttpGetIntoFile(client, customizer, url, targetFile, digests, segments,
+                connectionRequestTimeout, acceptedContent);
+      } catch (IORuntimeWrapperException ex) {
+        throw ex.getWrapped();
+      }
+    } else {
+      responseHeaders = this.doRetryingHttpGetIntoFile(client, customizer, url, targetFile,
+          digests, connectionRequestTimeout, acceptedContent);
+    }
+    return Assertions.assertNotNull(responseHeaders);
+  }
 
-                showProgress = contentSize > 0L && !this.mojo.getSession().isParallel();
+  /**
+   * Find delay before the next attempt of file loading. Loading of files has the only retry
+   * layer, so that its requests are made with single attempt and their errors are checked here.
+   *
+   * @param retryPolicy retry policy
+   * @param attempt     number of failed attempt, starting from 1
+   * @param error       error of the attempt
+   * @return delay in milliseconds or negative number if loading can't be retried
+   */
+  private static long findLoadingRetryDelay(
+      @Nonnull final RetryPolicy retryPolicy,
+      final int attempt,
+      @Nonnull final IOException error
+  ) {
+    if (!retryPolicy.hasNextAttempt(attempt) || Thread.currentThread().isInterrupted()) {
+      return -1L;
+    }
+    if (error instanceof HttpResponseException) {
+      final HttpResponse response = ((HttpResponseException) error).getCauseResponse();
+      if (response == null || !retryPolicy.isRetryable(response)) {
+        return -1L;
+      }
+      return retryPolicy.findDelay(attempt, response);
+    }
+    return HttpUtils.isRetryableError(error) ? retryPolicy.findDelay(attempt, null) : -1L;
+  }
 
-                if (!showProgress) {
-                  log.info(
-                      format("Loading file %s, size %d bytes", targetFile.getFileName().toString(),
-                          contentSize));
-                }
+  /**
+   * Load content through single stream with retries by the mojo retry policy, every retry
+   * continues loading of partial file if the server allows it.
+   */
+  @MustNotContainNull
+  @Nonnull
+  private Header[] doRetryingHttpGetIntoFile(
+      @Nonnull final HttpClient client,
+      @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+      @Nonnull final String url,
+      @Nonnull final Path targetFile,
+      @Nonnull @MustNotContainNull final List<MessageDigest> digests,
+      final int connectionRequestTimeout,
+      @Nonnull @MustNotContainNull final String... acceptedContent
+  ) throws IOException {
+    final Log log = this.mojo.getLog();
+    final RetryPolicy retryPolicy = this.mojo.getRetryPolicy();
+    for (int attempt = 1; ; attempt++) {
+      IOException error;
+      try {
+        return this.doResumableHttpGetIntoFile(client, customizer, url, targetFile, digests,
+            connectionRequestTimeout, acceptedContent);
+      } catch (IORuntimeWrapperException ex) {
+        error = ex.getWrapped();
+      } catch (IOException ex) {
+        error = ex;
+      }
+      final long delay = findLoadingRetryDelay(retryPolicy, attempt, error);
+      if (delay < 0L) {
+        throw error;
+      }
+      log.warn(format("Loading of %s failed on attempt %d/%d (%s), continue in %d ms", url,
+          attempt, retryPolicy.getMaxAttempts(), error.getMessage(), delay));
+      RetryPolicy.sleep(delay);
+    }
+  }
 
-                long downloadByteCounter = 0L;
+  /**
+   * Load archive into file or, if stream unpack mode is active, load it with unpacking during
+   * loading.
+   *
+   * @param client                   http client
+   * @param customizer               request customizer
+   * @param url                      url of the archive
+   * @param archiveFile              file to save the archive
+   * @param keepArchiveFile          if true then the archive file should be kept
+   * @param destinationFolder        folder to unpack the archive
+   * @param unpackThreads            number of threads to inflate archive during loading
+   * @param digests                  list of calculators of needed digest
+   * @param unpacked                 flag to be set if archive has been unpacked during loading
+   * @param connectionRequestTimeout timeout for connection request
+   * @param acceptedContent          mime types of accepted content
+   * @return response headers
+   * @throws IOException it any transport or unpack error
+   * @since 1.2.7
+   */
+  @MustNotContainNull
+  @Nonnull
+  protected Header[] doHttpGetArchive(
+      @Nonnull final HttpClient client,
+      @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+      @Nonnull final String url,
+      @Nonnull final Path archiveFile,
+      final boolean keepArchiveFile,
+      @Nonnull final Path destinationFolder,
+      final int unpackThreads,
+      @Nonnull @MustNotContainNull final List<MessageDigest> digests,
+      @Nonnull final AtomicBoolean unpacked,
+      final int connectionRequestTimeout,
+      @Nonnull @MustNotContainNull final String... acceptedContent
+  ) throws IOException {
+    unpacked.set(false);
+    if (this.mojo.isStreamUnpack()) {
+      return this.doHttpGetAndUnpack(client, customizer, url, archiveFile, keepArchiveFile,
+          destinationFolder, unpackThreads, digests, unpacked, connectionRequestTimeout,
+          acceptedContent);
+    } else {
+      return this.doHttpGetIntoFile(client, customizer, url, archiveFile, digests,
+          connectionRequestTimeout, acceptedContent);
+    }
+  }
 
-                int lastShownProgress = -1;
+  /**
+   * Load archive from one of mirror links. In FAILOVER mode links are tried in their order until
+   * successful loading. In RACE mode the first two links are requested for the first byte of
+   * the archive at the same time and loading starts from the link which answers first, other
+   * links are kept as fallback. Digests are reset before every link so that checksum of loaded
+   * archive is checked by caller in the same way for any link.
+   *
+   * @param client                   http client
+   * @param customizer               request customizer
+   * @param links                    archive links, must not be empty
+   * @param mode                     mode of mirror use
+   * @param archiveFile              file to save the archive
+   * @param keepArchiveFile          if true then the archive file should be kept
+   * @param destinationFolder        folder to unpack the archive
+   * @param unpackThreads            number of threads to inflate archive during loading
+   * @param digests                  list of calculators of needed digest
+   * @param unpacked                 flag to be set if archive has been unpacked during loading
+   * @param connectionRequestTimeout timeout for connection request
+   * @param acceptedContent          mime types of accepted content
+   * @return response headers
+   * @throws IOException error of the last tried link
+   * @since 1.2.7
+   */
+  @MustNotContainNull
+  @Nonnull
+  protected Header[] doHttpGetArchiveFromMirrors(
+      @Nonnull final HttpClient client,
+      @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+      @Nonnull @MustNotContainNull final List<String> links,
+      @Nonnull final MirrorMode mode,
+      @Nonnull final Path archiveFile,
+      final boolean keepArchiveFile,
+      @Nonnull final Path destinationFolder,
+      final int unpackThreads,
+      @Nonnull @MustNotContainNull final List<MessageDigest> digests,
+      @Nonnull final AtomicBoolean unpacked,
+      final int connectionRequestTimeout,
+      @Nonnull @MustNotContainNull final String... acceptedContent
+  ) throws IOException {
+    if (links.isEmpty()) {
+      throw new IllegalArgumentException("Links must not be empty");
+    }
+    final Log log = this.mojo.getLog();
 
-                if (showProgress) {
-                  lastShownProgress =
-                      StringUtils.printTextProgress(LOADING_TITLE, downloadByteCounter, contentSize,
-                          PROGRESSBAR_WIDTH, lastShownProgress);
-                }
+    final List<String> orderedLinks = mode == MirrorMode.RACE && links.size() > 1
+        ? this.orderByFirstByteRace(client, customizer, links, connectionRequestTimeout,
+        acceptedContent)
+        : links;
 
-                for (final MessageDigest digest : digests) {
-                  digest.reset();
-                }
+    IOException lastError = null;
+    for (final String link : orderedLinks) {
+      for (final MessageDigest digest : digests) {
+        digest.reset();
+      }
+      try {
+        if (links.size() > 1) {
+          log.info("Loading archive from mirror: " + link);
+        }
+        return this.doHttpGetArchive(client, customizer, link, archiveFile, keepArchiveFile,
+            destinationFolder, unpackThreads, digests, unpacked, connectionRequestTimeout,
+            acceptedContent);
+      } catch (IOException ex) {
+        if (Thread.currentThread().isInterrupted()) {
+          throw ex;
+        }
+        if (lastError != null) {
+          ex.addSuppressed(lastError);
+        }
+        lastError = ex;
+        log.warn(format("Can't load archive from %s: %s", link, ex.getMessage()));
+      }
+    }
+    throw assertNotNull(lastError);
+  }
 
-                while (!Thread.currentThread().isInterrupted()) {
-                  final int length = inStream.read(buffer);
-                  if (length < 0) {
-                    break;
-                  }
+  @Nonnull
+  @MustNotContainNull
+  private List<String> orderByFirstByteRace(
+      @Nonnull final HttpClient client,
+      @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+      @Nonnull @MustNotContainNull final List<String> links,
+      final int connectionRequestTimeout,
+      @Nonnull @MustNotContainNull final String... acceptedContent
+  ) throws IOException {
+    final Log log = this.mojo.getLog();
+    final List<String> racers = links.subList(0, 2);
+    final CompletableFuture<String> winner = new CompletableFuture<>();
+    final AtomicInteger failed = new AtomicInteger();
+    final List<CompletableFuture<Header[]>> probes = new ArrayList<>();
+    final long start = System.currentTimeMillis();
+    final Executor executor = this.findHttpAsyncExecutor();
 
-                  fileOutStream.write(buffer, 0, length);
-                  for (final MessageDigest d : digests) {
-                    d.update(buffer, 0, length);
-                  }
+    for (final String link : racers) {
+      final AtomicReference<HttpRequestBase> request = new AtomicReference<>();
+      final CompletableFuture<Header[]> probe = HttpUtils.doGetRequestAsync(
+          HttpTransport.of(client), RetryPolicy.NONE, log, executor, x -> {
+            final HttpRequestBase result = withRange(customizer, 0L, 0L).apply(x);
+            request.set(result);
+            return result;
+          }, link, this.mojo.getProxy(), null, x -> {
+            // only the first byte is needed, connection is not reused if server ignored range
+            final HttpRequestBase started = request.get();
+            if (started != null && x.getContentLength() != 1L) {
+              started.abort();
+            } else {
+              EntityUtils.consumeQuietly(x);
+            }
+          }, connectionRequestTimeout, true, acceptedContent);
+      probe.whenComplete((headers, error) -> {
+        if (error == null) {
+          winner.complete(link);
+        } else {
+          log.debug(format("Mirror %s failed in race: %s", link, error.getMessage()));
+          if (failed.incrementAndGet() == racers.size()) {
+            winner.completeExceptionally(error);
+          }
+        }
+      });
+      probes.add(probe);
+    }
 
-                  downloadByteCounter += length;
+    try {
+      final String fastest = assertNotNull(joinHttpResult(winner));
+      log.info(format("Mirror %s answered first in %d ms", fastest,
+          System.currentTimeMillis() - start));
+      final List<String> result = new ArrayList<>(links);
+      result.remove(fastest);
+      result.add(0, fastest);
+      return result;
+    } catch (IOException ex) {
+      log.warn("No mirror answered in race, trying mirrors in their order: " + ex.getMessage());
+      return links;
+    } finally {
+      for (final CompletableFuture<Header[]> probe : probes) {
+        probe.cancel(true);
+      }
+    }
+  }
 
-                  if (showProgress) {
-                    lastShownProgress =
-                        StringUtils.printTextProgress(LOADING_TITLE, downloadByteCounter,
-                            contentSize, PROGRESSBAR_WIDTH, lastShownProgress);
-                  }
-                }
-                fileOutStream.flush();
+  /**
+   * Load archive and unpack it during loading if it is a GZIP stream. Content is passed through
+   * the digests, saved into the archive file if it should be kept and unpacked into the
+   * destination folder at the same time. If content is not GZIP then it is just saved into the
+   * archive file.
+   *
+   * @param client                   http client
+   * @param customizer               request customizer
+   * @param url                      url of the archive
+   * @param archiveFile              file to save the archive
+   * @param keepArchiveFile          if true then the archive file is saved for GZIP content
+   * @param destinationFolder        folder to unpack the archive
+   * @param unpackThreads            number of threads to inflate archive
+   * @param digests                  list of calculators of needed digest
+   * @param unpacked                 flag to be set if archive has been unpacked
+   * @param connectionRequestTimeout timeout for connection request
+   * @param acceptedContent          mime types of accepted content
+   * @return response headers
+   * @throws IOException it any transport or unpack error
+   */
+  @MustNotContainNull
+  @Nonnull
+  private Header[] doHttpGetAndUnpack(
+      @Nonnull final HttpClient client,
+      @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+      @Nonnull final String url,
+      @Nonnull final Path archiveFile,
+      final boolean keepArchiveFile,
+      @Nonnull final Path destinationFolder,
+      final int unpackThreads,
+      @Nonnull @MustNotContainNull final List<MessageDigest> digests,
+      @Nonnull final AtomicBoolean unpacked,
+      final int connectionRequestTimeout,
+      @Nonnull @MustNotContainNull final String... acceptedContent
+  ) throws IOException {
+    final Log log = this.mojo.getLog();
+    log.debug(format("Loading and unpacking %s into %s, request timeout %d ms", url,
+        destinationFolder, connectionRequestTimeout));
+
+    unpacked.set(false);
+    if (isDirectory(destinationFolder)) {
+      log.info("Detected existing target folder, deleting it: " + destinationFolder.getFileName());
+      FileUtils.deleteDirectory(destinationFolder.toFile());
+    }
+
+    try {
+      return doGetRequest(client, customizer, url, this.mojo.getProxy(),
+          x -> this.logRateLimitIfPresented(url, x),
+          httpEntity -> {
+            final long contentSize = httpEntity.getContentLength();
+            final DownloadProgress progress = new DownloadProgress(log, archiveFile, contentSize,
+                contentSize > 0L && this.mojo.isDownloadProgressVisible());
+            boolean gzip = false;
+            OutputStream archiveOutStream = null;
+            try {
+              for (final MessageDigest digest : digests) {
+                digest.reset();
               }
-            } catch (IOException ex) {
-              log.error(format("Can't download %s into %s: %s", url, targetFile, ex.getMessage()));
-              if (Files.exists(targetFile)) {
-                log.debug(format("Deleting file %s", targetFile));
-                try {
-                  Files.delete(targetFile);
-                } catch (IOException exx) {
-                  log.error(format("Can't delete file %s: %s", targetFile, exx.getMessage()));
+              final InputStream entityStream = new BufferedInputStream(httpEntity.getContent());
+              entityStream.mark(2);
+              gzip = entityStream.read() == 0x1F && entityStream.read() == 0x8B;
+              entityStream.reset();
+
+              archiveOutStream = gzip && !keepArchiveFile ? null : newOutputStream(archiveFile);
+              final InputStream loadingStream =
+                  new LoadingInputStream(entityStream, digests, archiveOutStream, progress);
+              if (gzip) {
+                log.info("Unpacking GZIP stream during loading");
+                final int unpackedFiles =
+                    ArchUtils.unpackTarGzStream(log, true,
+                        CloseShieldInputStream.wrap(loadingStream), destinationFolder,
+                        unpackThreads);
+                if (unpackedFiles == 0) {
+                  throw new IOException("Extracted 0 files from archive: " + url);
                 }
+                // unpacking can stop before end of body, the rest is needed for digests and archive
+                IOUtils.consume(loadingStream);
+                log.info("Extracted " + unpackedFiles + " files during loading");
+              } else {
+                log.info("Loaded content is not GZIP, it will be unpacked after loading");
+                IOUtils.consume(loadingStream);
+              }
+              if (archiveOutStream != null) {
+                archiveOutStream.close();
+                archiveOutStream = null;
               }
+              if (Thread.currentThread().isInterrupted()) {
+                throw new IOException("Loading interrupted");
+              }
+              unpacked.set(gzip);
+            } catch (IOException ex) {
+              log.error(format("Can't load %s: %s", url, ex.getMessage()));
+              SystemUtils.closeCloseable(archiveOutStream, log);
+              deleteQuietly(log, archiveFile);
+              deleteFolderQuietly(log, destinationFolder);
               throw new IORuntimeWrapperException(ex);
             } finally {
-              if (showProgress) {
-                System.out.println();
-              }
+              progress.finish();
             }
           }, connectionRequestTimeout, true, acceptedContent);
     } catch (IORuntimeWrapperException ex) {
       throw ex.getWrapped();
     }
-    return Assertions.assertNotNull(responseHeaders);
+  }
+
+  /**
+   * Load content through several parallel range requests written directly into positions of
+   * preallocated file. If server doesn't support ranges then response of the probe request is
+   * saved as the whole content. Every segment is retried separately by the mojo retry policy.
+   */
+  @MustNotContainNull
+  @Nonnull
+  private Header[] doSegmentedHttpGetIntoFile(
+      @Nonnull final HttpClient client,
+      @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+      @Nonnull final String url,
+      @Nonnull final Path targetFile,
+      @Nonnull @MustNotContainNull final List<MessageDigest> digests,
+      final int segments,
+      final int connectionRequestTimeout,
+      @Nonnull @MustNotContainNull final String... acceptedContent
+  ) throws IOException {
+    final Log log = this.mojo.getLog();
+
+    final AtomicInteger probeStatus = new AtomicInteger();
+    final AtomicLong contentSize = new AtomicLong(-1L);
+
+    final Header[] probeHeaders =
+        doGetRequest(client, withRange(customizer, 0L, 0L), url, this.mojo.getProxy(),
+            response -> {
+              this.logRateLimitIfPresented(url, response);
+              probeStatus.set(response.getStatusLine().getStatusCode());
+              final Header contentRange = response.getFirstHeader(HttpHeaders.CONTENT_RANGE);
+              final long[] range =
+                  HttpUtils.parseContentRange(contentRange == null ? null : contentRange.getValue());
+              contentSize.set(range == null ? -1L : range[2]);
+            },
+            httpEntity -> {
+              if (probeStatus.get() == HttpStatus.SC_PARTIAL_CONTENT) {
+                try {
+                  EntityUtils.consume(httpEntity);
+                } catch (IOException ex) {
+                  throw new IORuntimeWrapperException(ex);
+                }
+              } else {
+                log.info("Server doesn't support byte ranges, loading through single stream");
+                this.writeEntityIntoFile(url, httpEntity, targetFile, digests, 0L, null, null);
+              }
+            }, connectionRequestTimeout, true, acceptedContent);
+
+    if (probeStatus.get() != HttpStatus.SC_PARTIAL_CONTENT) {
+      return probeHeaders;
+    }
+
+    final long size = contentSize.get();
+    final int effectiveSegments =
+        (int) Math.min(segments, Math.max(1L, size / MIN_DOWNLOAD_SEGMENT_SIZE));
+
+    if (size <= 0L || effectiveSegments < 2) {
+      log.debug(format("Content size %d bytes is not enough for segmented loading", size));
+      return this.doRetryingHttpGetIntoFile(client, customizer, url, targetFile, digests,
+          connectionRequestTimeout, acceptedContent);
+    }
+
+    final long segmentSize = (size + effectiveSegments - 1) / effectiveSegments;
+    log.info(format("Loading file %s, size %d bytes, through %d segments",
+        targetFile.getFileName(), size, effectiveSegments));
+
+    final DownloadProgress progress = new DownloadProgress(log, targetFile, size,
+        this.mojo.isDownloadProgressVisible());
+    final ExecutorService executor =
+        Executors.newFixedThreadPool(effectiveSegments, runnable -> {
+          final Thread thread = new Thread(runnable, "mvn-jlink-segment-loader");
+          thread.setDaemon(true);
+          return thread;
+        });
+
+    boolean completed = false;
+    try (final RandomAccessFile file = new RandomAccessFile(targetFile.toFile(), "rw")) {
+      file.setLength(size);
+      final FileChannel channel = file.getChannel();
+
+      final List<Future<?>> futures = new ArrayList<>();
+      for (long start = 0L; start < size; start += segmentSize) {
+        final long first = start;
+        final long last = Math.min(size, start + segmentSize) - 1L;
+        futures.add(executor.submit(() -> {
+          this.loadSegment(client, customizer, url, channel, first, last, progress,
+              connectionRequestTimeout, acceptedContent);
+          return null;
+        }));
+      }
+
+      for (final Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Segmented loading interrupted", ex);
+        } catch (ExecutionException ex) {
+          final Throwable cause = ex.getCause() instanceof IORuntimeWrapperException
+              ? ((IORuntimeWrapperException) ex.getCause()).getWrapped() : ex.getCause();
+          if (cause instanceof IOException) {
+            throw (IOException) cause;
+          }
+          throw new IOException("Error during segment loading: " + url, cause);
+        }
+      }
+      channel.force(false);
+      completed = true;
+    } catch (IOException ex) {
+      log.error(format("Can't download %s into %s: %s", url, targetFile, ex.getMessage()));
+      throw ex;
+    } finally {
+      executor.shutdownNow();
+      progress.finish();
+      if (!completed) {
+        deleteQuietly(log, targetFile);
+      }
+    }
+
+    log.debug("All segments loaded, calculating digests");
+    calcDigestsForFile(targetFile, digests);
+    return probeHeaders;
+  }
+
+  /**
+   * Load segment of content with retries by the mojo retry policy, every retry requests only the
+   * rest of the segment which has not been loaded yet.
+   */
+  private void loadSegment(
+      @Nonnull final HttpClient client,
+      @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+      @Nonnull final String url,
+      @Nonnull final FileChannel channel,
+      final long first,
+      final long last,
+      @Nonnull final DownloadProgress progress,
+      final int connectionRequestTimeout,
+      @Nonnull @MustNotContainNull final String... acceptedContent
+  ) throws IOException {
+    final Log log = this.mojo.getLog();
+    final RetryPolicy retryPolicy = this.mojo.getRetryPolicy();
+    final AtomicLong position = new AtomicLong(first);
+    for (int attempt = 1; ; attempt++) {
+      IOException error;
+      try {
+        this.loadSegmentRange(client, customizer, url, channel, position, last, progress,
+            connectionRequestTimeout, acceptedContent);
+        return;
+      } catch (IORuntimeWrapperException ex) {
+        error = ex.getWrapped();
+      } catch (IOException ex) {
+        error = ex;
+      }
+      final long delay = findLoadingRetryDelay(retryPolicy, attempt, error);
+      if (delay < 0L) {
+        throw error;
+      }
+      log.warn(format("Loading of segment %d-%d failed on attempt %d/%d at %d (%s),"
+              + " continue in %d ms", first, last, attempt, retryPolicy.getMaxAttempts(),
+          position.get(), error.getMessage(), delay));
+      RetryPolicy.sleep(delay);
+    }
+  }
+
+  /**
+   * Load range of content from the current position till the last byte position through single
+   * request, the position is moved forward by every written chunk.
+   */
+  private void loadSegmentRange(
+      @Nonnull final HttpClient client,
+      @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+      @Nonnull final String url,
+      @Nonnull final FileChannel channel,
+      @Nonnull final AtomicLong position,
+      final long last,
+      @Nonnull final DownloadProgress progress,
+      final int connectionRequestTimeout,
+      @Nonnull @MustNotContainNull final String... acceptedContent
+  ) throws IOException {
+    final Log log = this.mojo.getLog();
+    final long first = position.get();
+    log.debug(format("Loading segment %d-%d of %s", first, last, url));
+
+    this.doGetRequest(client, RetryPolicy.NONE, withRange(customizer, first, last), url,
+        this.mojo.getProxy(),
+        response -> {
+          final Header contentRange = response.getFirstHeader(HttpHeaders.CONTENT_RANGE);
+          final long[] range =
+              HttpUtils.parseContentRange(contentRange == null ? null : contentRange.getValue());
+          if (response.getStatusLine().getStatusCode() != HttpStatus.SC_PARTIAL_CONTENT
+              || range == null || range[0] != first || range[1] != last) {
+            throw new IORuntimeWrapperException(new IOException(
+                format("Unexpected response for range %d-%d: %s (%s)", first, last,
+                    response.getStatusLine(), contentRange)));
+          }
+        },
+        httpEntity -> {
+          final byte[] buffer = new byte[256 * 1024];
+          try (final InputStream inStream = httpEntity.getContent()) {
+            while (position.get() <= last && !Thread.currentThread().isInterrupted()) {
+              final int length = inStream.read(buffer, 0,
+                  (int) Math.min(buffer.length, last - position.get() + 1L));
+              if (length < 0) {
+                break;
+              }
+              final ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, length);
+              while (byteBuffer.hasRemaining()) {
+                position.addAndGet(channel.write(byteBuffer, position.get()));
+              }
+              progress.update(length);
+            }
+          } catch (IOException ex) {
+            throw new IORuntimeWrapperException(ex);
+          }
+          if (position.get() != last + 1L) {
+            throw new IORuntimeWrapperException(new IOException(
+                format("Segment %d-%d is incomplete, loaded %d bytes", first, last,
+                    position.get() - first)));
+          }
+        }, connectionRequestTimeout, true, acceptedContent);
+  }
+
+  @Nonnull
+  private static Function<HttpRequestBase, HttpRequestBase> withRange(
+      @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+      final long first,
+      final long last
+  ) {
+    return x -> {
+      final HttpRequestBase result = customizer == null ? x : customizer.apply(x);
+      result.setHeader(HttpHeaders.RANGE, "bytes=" + first + '-' + last);
+      return result;
+    };
+  }
+
+  private static void calcDigestsForFile(
+      @Nonnull final Path file,
+      @Nonnull @MustNotContainNull final List<MessageDigest> digests
+  ) throws IOException {
+    for (final MessageDigest digest : digests) {
+      digest.reset();
+    }
+    if (digests.isEmpty()) {
+      return;
+    }
+    final byte[] buffer = new byte[1024 * 1024];
+    try (final InputStream inStream = newInputStream(file)) {
+      while (!Thread.currentThread().isInterrupted()) {
+        final int length = inStream.read(buffer);
+        if (length < 0) {
+          break;
+        }
+        for (final MessageDigest d : digests) {
+          d.update(buffer, 0, length);
+        }
+      }
+    }
+  }
+
+  private static void deleteQuietly(@Nonnull final Log log, @Nonnull final Path file) {
+    if (Files.exists(file)) {
+      log.debug(format("Deleting file %s", file));
+      try {
+        Files.delete(file);
+      } catch (IOException ex) {
+        log.error(format("Can't delete file %s: %s", file, ex.getMessage()));
+      }
+    }
+  }
+
+  private static void deleteFolderQuietly(@Nonnull final Log log, @Nonnull final Path folder) {
+    if (isDirectory(folder)) {
+      log.debug(format("Deleting folder %s", folder));
+      try {
+        FileUtils.deleteDirectory(folder.toFile());
+      } catch (IOException ex) {
+        log.error(format("Can't delete folder %s: %s", folder, ex.getMessage()));
+      }
+    }
+  }
+
+  /**
+   * Load content through single stream into partial file placed near the target file. If
+   * there is a journal of previously interrupted loading of the same url then loading is
+   * continued through range request, the partial file and the journal are kept in the case of
+   * error to be continued by retry or in the next session. Request is made with single attempt,
+   * retries are made by caller.
+   */
+  @MustNotContainNull
+  @Nonnull
+  private Header[] doResumableHttpGetIntoFile(
+      @Nonnull final HttpClient client,
+      @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+      @Nonnull final String url,
+      @Nonnull final Path targetFile,
+      @Nonnull @MustNotContainNull final List<MessageDigest> digests,
+      final int connectionRequestTimeout,
+      @Nonnull @MustNotContainNull final String... acceptedContent
+  ) throws IOException {
+    final Log log = this.mojo.getLog();
+
+    final String fileName = assertNotNull(targetFile.getFileName()).toString();
+    final Path partFile = targetFile.resolveSibling(fileName + PART_FILE_EXTENSION);
+    final Path journalFile = targetFile.resolveSibling(fileName + JOURNAL_FILE_EXTENSION);
+
+    final DownloadJournal foundJournal = DownloadJournal.load(journalFile);
+    long resumeOffset = 0L;
+    String validator = null;
+    if (foundJournal != null && url.equals(foundJournal.getUrl()) && isRegularFile(partFile)) {
+      validator = foundJournal.findRangeValidator();
+      resumeOffset = Files.size(partFile);
+      if (validator == null || resumeOffset == 0L
+          || (foundJournal.getSize() > 0L && resumeOffset >= foundJournal.getSize())) {
+        log.debug("Found partial file can't be continued: " + foundJournal);
+        resumeOffset = 0L;
+      }
+    }
+
+    if (resumeOffset == 0L) {
+      deleteQuietly(log, partFile);
+      deleteQuietly(log, journalFile);
+    } else {
+      log.info(format("Detected partially loaded file %s (%d bytes), trying to continue",
+          partFile.getFileName(), resumeOffset));
+    }
+
+    final long requestedOffset = resumeOffset;
+    final String requestedValidator = validator;
+    final AtomicLong startOffset = new AtomicLong();
+    final DownloadJournal journal = new DownloadJournal(url);
+
+    final Function<HttpRequestBase, HttpRequestBase> requestCustomizer =
+        requestedOffset == 0L ? customizer : x -> {
+          final HttpRequestBase result = customizer == null ? x : customizer.apply(x);
+          result.setHeader(HttpHeaders.RANGE, "bytes=" + requestedOffset + '-');
+          result.setHeader(HttpHeaders.IF_RANGE, requestedValidator);
+          return result;
+        };
+
+    final Header[] result;
+    try {
+      result = this.doGetRequest(client, RetryPolicy.NONE, requestCustomizer, url,
+          this.mojo.getProxy(),
+          response -> {
+            this.logRateLimitIfPresented(url, response);
+            final Header contentRange = response.getFirstHeader(HttpHeaders.CONTENT_RANGE);
+            final long[] range =
+                HttpUtils.parseContentRange(contentRange == null ? null : contentRange.getValue());
+            final long contentLength = response.getEntity() == null ? -1L
+                : response.getEntity().getContentLength();
+            if (requestedOffset > 0L
+                && response.getStatusLine().getStatusCode() == HttpStatus.SC_PARTIAL_CONTENT
+                && range != null && range[0] == requestedOffset) {
+              startOffset.set(requestedOffset);
+              journal.setSize(range[2]);
+            } else {
+              if (requestedOffset > 0L) {
+                log.info("Server doesn't allow to continue loading, loading from start");
+              }
+              startOffset.set(0L);
+              journal.setSize(contentLength);
+            }
+            final Header etag = response.getFirstHeader(HttpHeaders.ETAG);
+            final Header lastModified = response.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+            journal.setEtag(etag == null ? null : etag.getValue());
+            journal.setLastModified(lastModified == null ? null : lastModified.getValue());
+          },
+          httpEntity -> this.writeEntityIntoFile(url, httpEntity, partFile, digests,
+              startOffset.get(), journal, journalFile),
+          connectionRequestTimeout, true, acceptedContent);
+    } catch (HttpResponseException ex) {
+      final HttpResponse response = ex.getCauseResponse();
+      if (requestedOffset > 0L && response != null
+          && response.getStatusLine().getStatusCode()
+          == HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE) {
+        log.info("Server rejected range of partially loaded file, loading from start");
+        deleteQuietly(log, partFile);
+        deleteQuietly(log, journalFile);
+        return this.doResumableHttpGetIntoFile(client, customizer, url, targetFile, digests,
+            connectionRequestTimeout, acceptedContent);
+      }
+      throw ex;
+    }
+
+    Files.move(partFile, targetFile, StandardCopyOption.REPLACE_EXISTING);
+    deleteQuietly(log, journalFile);
+    return result;
+  }
+
+  /**
+   * Write entity content into file.
+   *
+   * @param url         source url, for logging
+   * @param httpEntity  entity to be saved
+   * @param targetFile  target file
+   * @param digests     digests to be updated by content
+   * @param startOffset if greater than zero then content is appended to the file and the
+   *                    digests are prepared by already existing file content
+   * @param journal     journal to be saved for partially loaded file in case of error, if null
+   *                    then the file is deleted in case of error
+   * @param journalFile file to save the journal, must not be null if journal provided
+   */
+  private void writeEntityIntoFile(
+      @Nonnull final String url,
+      @Nonnull final HttpEntity httpEntity,
+      @Nonnull final Path targetFile,
+      @Nonnull @MustNotContainNull final List<MessageDigest> digests,
+      final long startOffset,
+      @Nullable final DownloadJournal journal,
+      @Nullable final Path journalFile
+  ) {
+    final Log log = this.mojo.getLog();
+    DownloadProgress progress = null;
+    long position = startOffset;
+    try {
+      if (startOffset > 0L) {
+        log.debug(format("Calculating digests for %d already loaded bytes", startOffset));
+        calcDigestsForFile(targetFile, digests);
+      } else {
+        for (final MessageDigest digest : digests) {
+          digest.reset();
+        }
+      }
+
+      if (journal != null && journalFile != null) {
+        journal.setBytes(startOffset);
+        journal.save(journalFile);
+      }
+
+      try (final OutputStream fileOutStream = startOffset > 0L
+          ? newOutputStream(targetFile, StandardOpenOption.APPEND)
+          : newOutputStream(targetFile)) {
+        final byte[] buffer = new byte[1024 * 1024];
+
+        final long contentSize = httpEntity.getContentLength();
+        final InputStream inStream = httpEntity.getContent();
+
+        log.debug("Reported content size: " + contentSize + " bytes");
+
+        final long totalSize = contentSize < 0L ? -1L : contentSize + startOffset;
+        progress = new DownloadProgress(log, targetFile, totalSize,
+            totalSize > 0L && this.mojo.isDownloadProgressVisible());
+        progress.update(startOffset);
+
+        while (!Thread.currentThread().isInterrupted()) {
+          final int length = inStream.read(buffer);
+          if (length < 0) {
+            break;
+          }
+
+          fileOutStream.write(buffer, 0, length);
+          for (final MessageDigest d : digests) {
+            d.update(buffer, 0, length);
+          }
+          position += length;
+
+          progress.update(length);
+        }
+        fileOutStream.flush();
+      }
+      if (Thread.currentThread().isInterrupted()) {
+        throw new IOException("Loading interrupted");
+      }
+    } catch (IOException ex) {
+      log.error(format("Can't download %s into %s: %s", url, targetFile, ex.getMessage()));
+      if (journal == null || journalFile == null || position == 0L) {
+        deleteQuietly(log, targetFile);
+        if (journalFile != null) {
+          deleteQuietly(log, journalFile);
+        }
+      } else {
+        journal.setBytes(position);
+        try {
+          journal.save(journalFile);
+          log.info(format("Partially loaded %d bytes kept in %s to be continued", position,
+              targetFile.getFileName()));
+        } catch (IOException exx) {
+          log.error("Can't save download journal: " + exx.getMessage());
+          deleteQuietly(log, targetFile);
+          deleteQuietly(log, journalFile);
+        }
+      }
+      throw new IORuntimeWrapperException(ex);
+    } finally {
+      if (progress != null) {
+        progress.finish();
+      }
+    }
+  }
+
+  /**
+   * Unpack loaded archive into folder in single pass, existing folder is deleted before
+   * unpacking.
+   *
+   * @param archiveFile       archive file
+   * @param destinationFolder destination folder
+   * @param threads           number of threads to unpack ZIP archive
+   * @throws IOException if any error or there are no extracted files
+   * @since 1.2.7
+   */
+  protected void unpackArchive(
+      @Nonnull final Path archiveFile,
+      @Nonnull final Path destinationFolder,
+      final int threads
+  ) throws IOException {
+    final Log log = this.mojo.getLog();
+    if (isDirectory(destinationFolder)) {
+      log.info("Detected existing target folder, deleting it: " + destinationFolder.getFileName());
+      FileUtils.deleteDirectory(destinationFolder.toFile());
+    }
+
+    log.info("Unpacking archive...");
+    final ArchiveIndex index =
+        ArchUtils.unpackArchive(log, true, archiveFile, destinationFolder, threads);
+    log.debug("Root archive folder: " + index.getRootFolder());
+    final int numberOfUnpackedFiles = index.getFileCount();
+    if (numberOfUnpackedFiles == 0) {
+      throw new IOException("Extracted 0 files from archive: " + archiveFile);
+    }
+    log.info(
+        "Archive has been unpacked successfully, extracted " + numberOfUnpackedFiles + " files");
+  }
+
+  /**
+   * Replace files of loaded JDK folder by hard links to objects of the cache object store and
+   * remove objects which are not referenced anymore. Errors are only logged because the folder
+   * stays valid even if it has been processed partly.
+   *
+   * @param cacheFolder cache folder
+   * @param jdkFolder   loaded JDK folder
+   */
+  private void deduplicateCachedJdk(@Nonnull final Path cacheFolder,
+                                    @Nonnull final Path jdkFolder) {
+    final Log log = this.mojo.getLog();
+    final DedupObjectStore store = new DedupObjectStore(log, cacheFolder);
+    try {
+      final long start = System.currentTimeMillis();
+      final DedupObjectStore.Stats stats = store.deduplicate(jdkFolder);
+      log.info(format("Cache deduplication: %d file(s) linked to existing objects, %d stored, "
+              + "%d kept as copies, saved %d byte(s) in %d ms", stats.getLinked(),
+          stats.getStored(), stats.getCopied(), stats.getSavedBytes(),
+          System.currentTimeMillis() - start));
+      final int pruned = store.prune();
+      if (pruned > 0) {
+        log.info("Removed " + pruned + " unreferenced object(s) from cache object store");
+      }
+    } catch (IOException ex) {
+      log.warn("Can't deduplicate cached JDK folder " + jdkFolder + ": " + ex.getMessage());
+    }
   }
 
   @Nonnull
@@ -431,15 +1889,29 @@ public abstract class AbstractJdkProvider {
     final Path tempFolder = cacheFolder.resolve(".TMP" + targetFolderName);
     final Path resultFolder = cacheFolder.resolve(targetFolderName);
 
-    File lockingFile = null;
-    try {
-      lockingFile = this.lockCache(cacheFolder, targetFolderName);
+    try (final CacheLock ignored = this.lockCache(cacheFolder, targetFolderName, true)) {
+      if (isDirectory(resultFolder)) {
+        log.debug("Already cached JDK folder detected, skip loading: " + resultFolder);
+        return resultFolder;
+      }
+    }
+
+    try (final CacheLock cacheLock = this.lockCache(cacheFolder, targetFolderName, false)) {
       if (isDirectory(resultFolder)) {
         log.debug("Already cached JDK folder detected, skip loading: " + resultFolder);
       } else {
-        log.debug("JDK cache has been locking, the locking file: " + lockingFile);
+        log.debug("JDK cache has been locked, the owner: " + cacheLock.getOwner());
+
+        try {
+          loader.doLoad(tempFolder);
+        } catch (IOException | RuntimeException ex) {
+          deleteFolderQuietly(log, tempFolder);
+          throw ex;
+        }
 
-        loader.doLoad(tempFolder);
+        if (this.mojo.isDedupCache()) {
+          this.deduplicateCachedJdk(cacheFolder, tempFolder);
+        }
 
         if (tempFolder.toFile().renameTo(resultFolder.toFile())) {
           log.debug("Renamed " + tempFolder.getFileName() + " to " + resultFolder.getFileName());
@@ -449,12 +1921,6 @@ public abstract class AbstractJdkProvider {
           throw new IOException("Can't rename temp folder " + tempFolder + " to " + resultFolder);
         }
       }
-    } finally {
-      if (lockingFile != null) {
-        log.debug("Locker delete status is " + lockingFile.delete());
-      } else {
-        log.debug("Locker is null");
-      }
     }
     return resultFolder;
   }
@@ -465,6 +1931,194 @@ public abstract class AbstractJdkProvider {
                                     @Nonnull @MustNotContainNull
                                     Consumer<Path>... loadedArchiveConsumers) throws IOException;
 
+  /**
+   * Visitor of release list pages.
+   *
+   * @since 1.2.7
+   */
+  @FunctionalInterface
+  protected interface ReleasePageVisitor {
+    /**
+     * Process loaded page.
+     *
+     * @param page number of page, starts from 1
+     * @param body body of page
+     * @return true if page processing should be stopped, false to process next page
+     * @throws IOException if any error
+     */
+    boolean visit(int page, @Nonnull String body) throws IOException;
+  }
+
+  /**
+   * Mode of use of archive mirror links.
+   *
+   * @since 1.2.7
+   */
+  public enum MirrorMode {
+    /**
+     * Links are tried one by one in their order.
+     */
+    FAILOVER,
+    /**
+     * The first two links are raced for the first byte, loading continues from the fastest one.
+     */
+    RACE
+  }
+
+  private final class PageRequest {
+    private final AtomicReference<HttpRequestBase> request = new AtomicReference<>();
+    private final Future<MetadataCache.Record> future;
+
+    private PageRequest(
+        @Nonnull final ExecutorService executor,
+        @Nonnull final HttpClient client,
+        @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+        @Nonnull final String url,
+        @Nonnull @MustNotContainNull final String... acceptedContent
+    ) {
+      this.future = executor.submit(() -> doHttpGetMetadata(client, x -> {
+        final HttpRequestBase result = customizer == null ? x : customizer.apply(x);
+        this.request.set(result);
+        return result;
+      }, url, mojo.getConnectionTimeout(), acceptedContent));
+    }
+
+    @Nonnull
+    private MetadataCache.Record get() throws IOException {
+      try {
+        return this.future.get();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Page loading interrupted", ex);
+      } catch (ExecutionException ex) {
+        if (ex.getCause() instanceof IOException) {
+          throw (IOException) ex.getCause();
+        }
+        throw new IOException("Error during page loading", ex.getCause());
+      }
+    }
+
+    private void cancel() {
+      this.future.cancel(true);
+      final HttpRequestBase started = this.request.get();
+      if (started != null) {
+        started.abort();
+      }
+    }
+  }
+
+  private static final class LoadingInputStream extends FilterInputStream {
+    private final List<MessageDigest> digests;
+    private final OutputStream copyStream;
+    private final DownloadProgress progress;
+
+    private LoadingInputStream(
+        @Nonnull final InputStream in,
+        @Nonnull @MustNotContainNull final List<MessageDigest> digests,
+        @Nullable final OutputStream copyStream,
+        @Nonnull final DownloadProgress progress
+    ) {
+      super(in);
+      this.digests = digests;
+      this.copyStream = copyStream;
+      this.progress = progress;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int result = super.read();
+      if (result >= 0) {
+        for (final MessageDigest d : this.digests) {
+          d.update((byte) result);
+        }
+        if (this.copyStream != null) {
+          this.copyStream.write(result);
+        }
+        this.progress.update(1L);
+      }
+      return result;
+    }
+
+    @Override
+    public int read(@Nonnull final byte[] buffer, final int offset, final int length)
+        throws IOException {
+      final int result = super.read(buffer, offset, length);
+      if (result > 0) {
+        for (final MessageDigest d : this.digests) {
+          d.update(buffer, offset, result);
+        }
+        if (this.copyStream != null) {
+          this.copyStream.write(buffer, offset, result);
+        }
+        this.progress.update(result);
+      }
+      return result;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+      final byte[] buffer = new byte[(int) Math.min(n, 64 * 1024)];
+      long skipped = 0L;
+      while (skipped < n) {
+        final int read = this.read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+        if (read < 0) {
+          break;
+        }
+        skipped += read;
+      }
+      return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+  }
+
+  private static final class DownloadProgress {
+    private static final int PROGRESSBAR_WIDTH = 10;
+
+    private final boolean showProgress;
+    private final long contentSize;
+    private final String title;
+    private long loadedBytes;
+    private int lastShownProgress = -1;
+
+    private DownloadProgress(
+        @Nonnull final Log log,
+        @Nonnull final Path targetFile,
+        final long contentSize,
+        final boolean showProgress
+    ) {
+      this.contentSize = contentSize;
+      this.showProgress = showProgress && contentSize > 0L;
+      this.title = format("Loading %d Mb ", (contentSize / (1024L * 1024L)));
+      if (this.showProgress) {
+        this.lastShownProgress =
+            StringUtils.printTextProgress(this.title, 0L, contentSize, PROGRESSBAR_WIDTH,
+                this.lastShownProgress);
+      } else {
+        log.info(format("Loading file %s, size %d bytes", targetFile.getFileName().toString(),
+            contentSize));
+      }
+    }
+
+    private synchronized void update(final long delta) {
+      this.loadedBytes += delta;
+      if (this.showProgress) {
+        this.lastShownProgress =
+            StringUtils.printTextProgress(this.title, this.loadedBytes, this.contentSize,
+                PROGRESSBAR_WIDTH, this.lastShownProgress);
+      }
+    }
+
+    private synchronized void finish() {
+      if (this.showProgress) {
+        System.out.println();
+      }
+    }
+  }
+
   @FunctionalInterface
   public interface IoLoader {
 
@@ -1,23 +1,19 @@
 package com.igormaznitsa.mvnjlink.jdkproviders.providers;
 
 import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
-import static com.igormaznitsa.mvnjlink.utils.ArchUtils.unpackArchiveFile;
 import static com.igormaznitsa.mvnjlink.utils.StringUtils.escapeFileName;
 import static com.igormaznitsa.mvnjlink.utils.StringUtils.longHash;
 import static java.nio.file.Files.delete;
 import static java.nio.file.Files.isDirectory;
 import static java.nio.file.Files.isRegularFile;
 import static java.util.Locale.ENGLISH;
-import static org.apache.commons.io.FileUtils.deleteDirectory;
 
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.meta.common.utils.GetUtils;
 import com.igormaznitsa.mvnjlink.exceptions.FailureException;
 import com.igormaznitsa.mvnjlink.jdkproviders.AbstractJdkProvider;
 import com.igormaznitsa.mvnjlink.mojos.AbstractJdkToolMojo;
-import com.igormaznitsa.mvnjlink.utils.ArchUtils;
 import com.igormaznitsa.mvnjlink.utils.HostOs;
-import com.igormaznitsa.mvnjlink.utils.HttpUtils;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -25,7 +21,7 @@ import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -159,6 +155,7 @@ public class AdoptiumApiOpenJdkProvider extends AbstractJdkProvider {
 
     final boolean keepArchiveFile =
         Boolean.parseBoolean(config.getOrDefault("keepArchive", "false"));
+    final int unpackThreads = this.findUnpackThreads(config);
 
     final String cacheJdkFolder = makeCachePath(
         apiUrl,
@@ -213,25 +210,17 @@ public class AdoptiumApiOpenJdkProvider extends AbstractJdkProvider {
         assertNotNull(cachedJdkPath.getFileName()).toString(), tempFolder ->
             downloadAndUnpack(
                 requestUrl,
-                makeHttpClient(authorization),
+                createHttpClient(authorization),
                 authorization,
                 cacheFolder,
                 tempFolder,
                 keepArchiveFile,
+                unpackThreads,
                 loadedArchiveConsumers));
 
     return cachedJdkPath;
   }
 
-
-  @Nonnull
-  private HttpClient makeHttpClient(@Nullable final String authorization) throws IOException {
-    return HttpUtils.makeHttpClient(this.mojo.getLog(), this.mojo.getProxy(),
-        this.tuneClient(authorization),
-        this.mojo.isDisableSSLcheck());
-
-  }
-
   @SafeVarargs
   private final void downloadAndUnpack(
       @Nonnull final String url,
@@ -240,10 +229,12 @@ public class AdoptiumApiOpenJdkProvider extends AbstractJdkProvider {
       @Nonnull final Path tempFolder,
       @Nonnull final Path destinationUnpackedFolder,
       final boolean keepArchiveFile,
+      final int unpackThreads,
       @Nonnull @MustNotContainNull final Consumer<Path>... loadedArchiveConsumers
   ) throws IOException {
     final Log log = this.mojo.getLog();
-    final String tempFileName = ".tempAdopt" + UUID.randomUUID();
+    final String tempFileName =
+        ".tempAdopt" + assertNotNull(destinationUnpackedFolder.getFileName());
 
     final Path pathToArchiveFile = tempFolder.resolve(tempFileName);
 
@@ -253,41 +244,40 @@ public class AdoptiumApiOpenJdkProvider extends AbstractJdkProvider {
     }
 
     final MessageDigest digest = DigestUtils.getSha256Digest();
-    final Header[] responseHeaders = this.doHttpGetIntoFile(
+    final AtomicBoolean unpacked = new AtomicBoolean();
+    final Header[] responseHeaders = this.doHttpGetArchive(
         client,
         this.tuneRequestBase(authorization),
         url,
         pathToArchiveFile,
+        keepArchiveFile,
+        destinationUnpackedFolder,
+        unpackThreads,
         Collections.singletonList(digest),
+        unpacked,
         this.mojo.getConnectionTimeout(),
         "*/*"
     );
 
     log.debug("Response headers: " + Arrays.toString(responseHeaders));
 
+    if (unpacked.get()) {
+      log.info("Archive has been unpacked during loading");
+      if (keepArchiveFile) {
+        log.info("Keep downloaded archive file in cache: " + pathToArchiveFile);
+        for (final Consumer<Path> c : loadedArchiveConsumers) {
+          c.accept(pathToArchiveFile);
+        }
+      }
+      return;
+    }
+
 
     for (final Consumer<Path> c : loadedArchiveConsumers) {
       c.accept(pathToArchiveFile);
     }
 
-    if (isDirectory(destinationUnpackedFolder)) {
-      log.info("Detected existing target folder, deleting it: " +
-          destinationUnpackedFolder.getFileName());
-      deleteDirectory(destinationUnpackedFolder.toFile());
-    }
-
-    final String archiveRootName = ArchUtils.findShortestDirectory(pathToArchiveFile);
-    log.debug("Root archive folder: " + archiveRootName);
-    log.info("Unpacking archive...");
-    final int numberOfUnpackedFiles =
-        unpackArchiveFile(this.mojo.getLog(), true, pathToArchiveFile, destinationUnpackedFolder,
-            archiveRootName);
-    if (numberOfUnpackedFiles == 0) {
-      throw new IOException(
-          "Extracted 0 files from archive! May be wrong root folder name: " + archiveRootName);
-    }
-    log.info(
-        "Archive has been unpacked successfully, extracted " + numberOfUnpackedFiles + " files");
+    this.unpackArchive(pathToArchiveFile, destinationUnpackedFolder, unpackThreads);
 
     if (keepArchiveFile) {
       log.info("Keep downloaded archive file in cache: " + pathToArchiveFile);
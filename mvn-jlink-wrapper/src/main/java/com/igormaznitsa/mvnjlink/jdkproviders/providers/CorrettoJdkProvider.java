@@ -127,6 +127,7 @@ public class CorrettoJdkProvider extends UrlLinkJdkProvider {
     newConfig.put("id", baseArchiveName);
     newConfig.put("url", urlArchive);
     newConfig.put("sha256", sha256);
+    copyCommonParameters(config, newConfig);
 
     return super.getPathToJdk(authorization, newConfig, loadedArchiveConsumers);
   }
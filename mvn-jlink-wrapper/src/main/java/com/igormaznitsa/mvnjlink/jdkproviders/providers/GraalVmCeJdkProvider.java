@@ -17,25 +17,21 @@
 package com.igormaznitsa.mvnjlink.jdkproviders.providers;
 
 import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
-import static com.igormaznitsa.mvnjlink.utils.ArchUtils.unpackArchiveFile;
 import static java.nio.file.Files.delete;
 import static java.nio.file.Files.isDirectory;
 import static java.nio.file.Files.isRegularFile;
 import static java.util.stream.Collectors.joining;
-import static java.util.stream.Collectors.toList;
 import static java.util.stream.Stream.of;
-import static org.apache.commons.io.FileUtils.deleteDirectory;
 
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.meta.common.utils.GetUtils;
 import com.igormaznitsa.mvnjlink.exceptions.FailureException;
 import com.igormaznitsa.mvnjlink.jdkproviders.AbstractJdkProvider;
 import com.igormaznitsa.mvnjlink.mojos.AbstractJdkToolMojo;
-import com.igormaznitsa.mvnjlink.utils.ArchUtils;
 import com.igormaznitsa.mvnjlink.utils.HostOs;
-import com.igormaznitsa.mvnjlink.utils.HttpUtils;
+import com.igormaznitsa.mvnjlink.utils.ReleaseCatalog;
+import com.igormaznitsa.mvnjlink.utils.ReleaseIndex;
 import com.igormaznitsa.mvnjlink.utils.StringUtils;
-import com.igormaznitsa.mvnjlink.utils.WildCardMatcher;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.security.MessageDigest;
@@ -46,6 +42,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -56,8 +54,6 @@ import org.apache.commons.codec.digest.MessageDigestAlgorithms;
 import org.apache.http.Header;
 import org.apache.http.client.HttpClient;
 import org.apache.maven.plugin.logging.Log;
-import org.json.JSONArray;
-import org.json.JSONObject;
 
 /**
  * Provider of prebuilt OpenJDK archives from GraalVM CE prebuilt GIT repository
@@ -66,10 +62,21 @@ public class GraalVmCeJdkProvider extends AbstractJdkProvider {
 
   static final String RELEASES_LIST =
       "https://api.github.com/repos/graalvm/graalvm-ce-builds/releases";
+  static final String RELEASE_INDEX = "GRAALVMCE";
+
   public GraalVmCeJdkProvider(@Nonnull final AbstractJdkToolMojo mojo) {
     super(mojo);
   }
 
+  @Override
+  public boolean refreshReleaseIndex(
+      @Nullable final String authorization,
+      @Nonnull final Map<String, String> config
+  ) throws IOException {
+    this.refreshGithubReleaseIndex(authorization, config, RELEASE_INDEX, RELEASES_LIST);
+    return true;
+  }
+
   @Nonnull
   @Override
   public Path getPathToJdk(
@@ -95,6 +102,8 @@ public class GraalVmCeJdkProvider extends AbstractJdkProvider {
     final int perPage = ensurePageSizeValue(config.getOrDefault("perPage", "40"));
     final boolean keepArchiveFile =
         Boolean.parseBoolean(config.getOrDefault("keepArchive", "false"));
+    final int unpackThreads = this.findUnpackThreads(config);
+    final int prefetchPages = this.findPrefetchPages(config);
 
     final Path cacheFolder = this.mojo.findJdkCacheFolder();
     final Path cachedJdkPath = cacheFolder.resolve(String.format("GRAALVMCE_%s_%s_%s_%s",
@@ -110,38 +119,41 @@ public class GraalVmCeJdkProvider extends AbstractJdkProvider {
       log.info("Found cached JDK: " + cachedJdkPath.getFileName());
       result = cachedJdkPath;
     } else {
-      if (isOfflineMode()) {
-        throw new FailureException("Unpacked '" + cachedJdkPath.getFileName() +
-            "' is not found, stopping process because offline mode is active");
+      final ReleaseList releaseList = new ReleaseList();
+      final boolean offline = isOfflineMode();
+      // index can miss releases published after its refresh, so it is used only in offline mode
+      final ReleaseIndex releaseIndex = offline ? this.loadReleaseIndex(RELEASE_INDEX) : null;
+      if (releaseIndex != null) {
+        releaseList.add(new ReleaseList(log, releaseIndex.getAssets()));
+      }
+      if (offline) {
+        if (releaseList.find(jdkType, jdkVersion, jdkOs, jdkArch).isEmpty()) {
+          throw new FailureException("Unpacked '" + cachedJdkPath.getFileName() +
+              "' is not found and release index doesn't contain matching release, stopping"
+              + " process because offline mode is active");
+        }
+        log.info("Offline mode is active, JDK is resolved through release index: "
+            + cachedJdkPath.getFileName());
       } else {
         log.info("Can't find cached: " + cachedJdkPath.getFileName());
       }
 
-      final HttpClient httpClient =
-          HttpUtils.makeHttpClient(log, this.mojo.getProxy(), this.tuneClient(authorization),
-              this.mojo.isDisableSSLcheck());
-
-      final ReleaseList releaseList = new ReleaseList();
-      List<ReleaseList.Release> releases = Collections.emptyList();
-
-      int page = 1;
-      while (!Thread.currentThread().isInterrupted()) {
-        log.debug("Loading releases page: " + page);
-
-        final ReleaseList pageReleases = new ReleaseList(log,
-            doHttpGetText(httpClient, this.tuneRequestBase(authorization),
-                RELEASES_LIST + "?per_page=" + perPage + "&page=" + page,
-                this.mojo.getConnectionTimeout(),
-                "application/vnd.github.v3+json"));
-        releaseList.add(pageReleases);
-        releases = releaseList.find(jdkType, jdkVersion, jdkOs, jdkArch);
-
-        if (!releases.isEmpty() || pageReleases.isEmpty()) {
-          break;
-        }
-
-        page++;
+      final HttpClient httpClient = this.createHttpClient(authorization);
+
+      if (!offline) {
+        this.visitReleasePages(httpClient, this.tuneRequestBase(authorization),
+            page -> RELEASES_LIST + "?per_page=" + perPage + "&page=" + page,
+            prefetchPages,
+            (page, body) -> {
+              final ReleaseList pageReleases =
+                  new ReleaseList(log, parseGithubReleaseAssets(log, body));
+              releaseList.add(pageReleases);
+              return pageReleases.isEmpty()
+                  || !releaseList.find(jdkType, jdkVersion, jdkOs, jdkArch).isEmpty();
+            }, "application/vnd.github.v3+json");
       }
+      final List<ReleaseList.Release> releases =
+          releaseList.find(jdkType, jdkVersion, jdkOs, jdkArch);
 
       if (releases.isEmpty()) {
         log.warn("Found releases\n" + releaseList.makeReport());
@@ -158,10 +170,15 @@ public class GraalVmCeJdkProvider extends AbstractJdkProvider {
 
         final ReleaseList.Release releaseToLoad =
             of(tarRelease, zipRelease).filter(Optional::isPresent).findFirst().get().get();
+        if (offline) {
+          this.assertArchiveForOfflineMode(cacheFolder.resolve(releaseToLoad.fileName),
+              releaseToLoad.digest);
+        }
         result = loadJdkIntoCacheIfNotExist(cacheFolder,
             assertNotNull(cachedJdkPath.getFileName()).toString(), tempFolder ->
                 downloadAndUnpack(httpClient, authorization, cacheFolder, tempFolder, releaseToLoad,
-                    checkArchive, keepArchiveFile, loadedArchiveConsumers)
+                    checkArchive, keepArchiveFile, unpackThreads,
+                    loadedArchiveConsumers)
         );
       }
     }
@@ -177,6 +194,7 @@ public class GraalVmCeJdkProvider extends AbstractJdkProvider {
       @Nonnull final ReleaseList.Release release,
       final boolean check,
       final boolean keepArchiveFile,
+      final int unpackThreads,
       @Nonnull @MustNotContainNull Consumer<Path>... loadedArchiveConsumers
   ) throws IOException {
 
@@ -191,38 +209,57 @@ public class GraalVmCeJdkProvider extends AbstractJdkProvider {
       doLoadArchive = false;
     }
 
+    final AtomicBoolean unpacked = new AtomicBoolean();
     if (doLoadArchive) {
       final MessageDigest digest = DigestUtils.getSha256Digest();
-      final Header[] responseHeaders = this.doHttpGetIntoFile(
-          client,
-          this.tuneRequestBase(authorization),
-          release.link,
-          pathToArchiveFile,
-          Collections.singletonList(digest),
-          this.mojo.getConnectionTimeout(),
-          release.mime
-      );
-
-      log.debug("Response headers: " + Arrays.toString(responseHeaders));
+      final String sha256link = release.link + ".sha256";
+      final CompletableFuture<String> sha256text;
       if (check) {
-        final String sha256link = release.link + ".sha256";
+        log.debug("Loading SHA256 text in parallel with archive: " + sha256link);
+        sha256text = this.doHttpGetTextAsync(
+            client,
+            this.tuneRequestBase(authorization),
+            sha256link,
+            this.mojo.getConnectionTimeout(),
+            MIME_TEXT
+        );
+      } else {
+        sha256text = null;
+      }
+
+      final Header[] responseHeaders;
+      try {
+        responseHeaders = this.doHttpGetArchive(
+            client,
+            this.tuneRequestBase(authorization),
+            release.link,
+            pathToArchiveFile,
+            keepArchiveFile,
+            destUnpackFolder,
+            unpackThreads,
+            Collections.singletonList(digest),
+            unpacked,
+            this.mojo.getConnectionTimeout(),
+            release.mime
+        );
+      } catch (IOException | RuntimeException ex) {
+        if (sha256text != null) {
+          sha256text.cancel(true);
+        }
+        throw ex;
+      }
 
-        final String sha256text;
+      log.debug("Response headers: " + Arrays.toString(responseHeaders));
+      if (sha256text != null) {
+        final String sha256;
         try {
-          log.debug("Loading SHA256 text: " + sha256link);
-          sha256text = this.doHttpGetText(
-              createHttpClient(authorization),
-              this.tuneRequestBase(authorization),
-              sha256link,
-              mojo.getConnectionTimeout(),
-              MIME_TEXT
-          ).trim();
+          sha256 = joinHttpResult(sha256text).trim();
         } catch (Exception ex) {
           log.error("Can't find SHA256 for distributive: " + sha256link, ex);
           throw ex;
         }
         final StringBuilder buffer = new StringBuilder();
-        for (final char c : sha256text.toCharArray()) {
+        for (final char c : sha256.toCharArray()) {
           if (Character.isDigit(c) || Character.isAlphabetic(c)) {
             buffer.append(c);
           } else {
@@ -240,27 +277,22 @@ public class GraalVmCeJdkProvider extends AbstractJdkProvider {
       log.info("Archive loading is skipped");
     }
 
-    if (isDirectory(destUnpackFolder)) {
-      log.info("Detected existing target folder, deleting it: " + destUnpackFolder.getFileName());
-      deleteDirectory(destUnpackFolder.toFile());
+    if (unpacked.get()) {
+      log.info("Archive has been unpacked during loading");
+      if (keepArchiveFile) {
+        log.info("Keep downloaded archive file in cache: " + pathToArchiveFile);
+        for (final Consumer<Path> c : loadedArchiveConsumers) {
+          c.accept(pathToArchiveFile);
+        }
+      }
+      return;
     }
 
     for (final Consumer<Path> c : loadedArchiveConsumers) {
       c.accept(pathToArchiveFile);
     }
 
-    final String archiveRootName = ArchUtils.findShortestDirectory(pathToArchiveFile);
-    log.debug("Root archive folder: " + archiveRootName);
-    log.info("Unpacking archive...");
-    final int numberOfUnpackedFiles =
-        unpackArchiveFile(this.mojo.getLog(), true, pathToArchiveFile, destUnpackFolder,
-            archiveRootName);
-    if (numberOfUnpackedFiles == 0) {
-      throw new IOException(
-          "Extracted 0 files from archive! May be wrong root folder name: " + archiveRootName);
-    }
-    log.info(
-        "Archive has been unpacked successfully, extracted " + numberOfUnpackedFiles + " files");
+    this.unpackArchive(pathToArchiveFile, destUnpackFolder, unpackThreads);
 
     if (keepArchiveFile) {
       log.info("Keep downloaded archive file in cache: " + pathToArchiveFile);
@@ -272,48 +304,33 @@ public class GraalVmCeJdkProvider extends AbstractJdkProvider {
 
   static class ReleaseList {
     private final List<Release> releases = new ArrayList<>();
+    private final ReleaseCatalog<Release> catalog = new ReleaseCatalog<>();
 
     private ReleaseList() {
     }
 
-    private ReleaseList(@Nonnull final Log log, @Nonnull final String json) {
-      final JSONArray array = new JSONArray(json);
-      for (int i = 0; i < array.length(); i++) {
-        final JSONObject release = array.getJSONObject(i);
-        if (!release.has("tag_name")) {
+    private ReleaseList(@Nonnull final Log log,
+                        @Nonnull @MustNotContainNull final List<ReleaseIndex.Asset> assets) {
+      for (final ReleaseIndex.Asset asset : assets) {
+        if (asset.isPrerelease()) {
           continue;
         }
-
-        final boolean draft = release.getBoolean("draft");
-        final boolean prerelease = release.getBoolean("prerelease");
-        if (draft || prerelease) {
-          continue;
-        }
-        if (release.has("assets")) {
-          final JSONArray assets = release.getJSONArray("assets");
-          for (int a = 0; a < assets.length(); a++) {
-            final JSONObject asset = assets.getJSONObject(a);
-            final String fileName = asset.getString("name");
-            final String mime = asset.getString("content_type");
-            final long size = asset.getLong("size");
-
-            if (fileName.endsWith(".zip") || fileName.endsWith(".tar.gz")) {
-              final String link = asset.getString("browser_download_url");
-              try {
-                this.releases.add(new Release(fileName, link, mime, size));
-              } catch (IllegalArgumentException ex) {
-                log.debug("File with incompatible name: " + fileName);
-              }
-            } else {
-              log.debug("Ignoring because non-unpackable file: " + asset);
-            }
-          }
+        try {
+          this.addRelease(new Release(asset));
+        } catch (IllegalArgumentException ex) {
+          log.debug("File with incompatible name: " + asset.getFileName());
         }
       }
     }
 
+    private void addRelease(@Nonnull final Release release) {
+      this.releases.add(release);
+      this.catalog.add(ReleaseCatalog.makeKey(release.type, release.os, release.arch),
+          release.version, release);
+    }
+
     public void add(@Nonnull final ReleaseList list) {
-      this.releases.addAll(list.releases);
+      list.releases.forEach(this::addRelease);
     }
 
     public boolean isEmpty() {
@@ -324,12 +341,7 @@ public class GraalVmCeJdkProvider extends AbstractJdkProvider {
     @MustNotContainNull
     public List<Release> find(@Nonnull final String type, @Nonnull final String version,
                               @Nonnull final String os, @Nonnull final String arch) {
-      final WildCardMatcher matcher = new WildCardMatcher(version, true);
-      return this.releases.stream()
-          .filter(x -> x.type.equalsIgnoreCase(type))
-          .filter(x -> x.os.equalsIgnoreCase(os))
-          .filter(x -> x.arch.equalsIgnoreCase(arch))
-          .filter(x -> matcher.match(x.version)).collect(toList());
+      return this.catalog.find(ReleaseCatalog.makeKey(type, os, arch), version);
     }
 
     @Nonnull
@@ -352,18 +364,15 @@ public class GraalVmCeJdkProvider extends AbstractJdkProvider {
       private final String mime;
       private final String extension;
       private final long size;
-
-      private Release(
-          @Nonnull final String fileName,
-          @Nonnull final String link,
-          @Nonnull final String mime,
-          final long size
-      ) {
-        this.fileName = fileName;
-        this.link = link;
-        this.mime = mime;
-        this.size = size;
-        final Matcher matcher = GRAALVMCE_FILENAME_PATTERN.matcher(fileName);
+      private final String digest;
+
+      private Release(@Nonnull final ReleaseIndex.Asset asset) {
+        this.fileName = asset.getFileName();
+        this.link = asset.getLink();
+        this.mime = asset.getMime();
+        this.size = asset.getSize();
+        this.digest = asset.getDigest();
+        final Matcher matcher = GRAALVMCE_FILENAME_PATTERN.matcher(this.fileName);
         if (matcher.find()) {
           this.type = matcher.group(1);
           this.os = matcher.group(2);
@@ -371,7 +380,7 @@ public class GraalVmCeJdkProvider extends AbstractJdkProvider {
           this.version = matcher.group(4);
           this.extension = matcher.group(5);
         } else {
-          throw new IllegalArgumentException("Can't parse file name: " + fileName);
+          throw new IllegalArgumentException("Can't parse file name: " + this.fileName);
         }
       }
 
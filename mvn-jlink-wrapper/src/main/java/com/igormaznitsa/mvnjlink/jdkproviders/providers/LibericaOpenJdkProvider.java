@@ -17,25 +17,21 @@
 package com.igormaznitsa.mvnjlink.jdkproviders.providers;
 
 import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
-import static com.igormaznitsa.mvnjlink.utils.ArchUtils.unpackArchiveFile;
 import static java.nio.file.Files.delete;
 import static java.nio.file.Files.isDirectory;
 import static java.nio.file.Files.isRegularFile;
 import static java.util.stream.Collectors.joining;
-import static java.util.stream.Collectors.toList;
 import static java.util.stream.Stream.of;
-import static org.apache.commons.io.FileUtils.deleteDirectory;
 
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.meta.common.utils.GetUtils;
 import com.igormaznitsa.mvnjlink.exceptions.FailureException;
 import com.igormaznitsa.mvnjlink.jdkproviders.AbstractJdkProvider;
 import com.igormaznitsa.mvnjlink.mojos.AbstractJdkToolMojo;
-import com.igormaznitsa.mvnjlink.utils.ArchUtils;
 import com.igormaznitsa.mvnjlink.utils.HostOs;
-import com.igormaznitsa.mvnjlink.utils.HttpUtils;
+import com.igormaznitsa.mvnjlink.utils.ReleaseCatalog;
+import com.igormaznitsa.mvnjlink.utils.ReleaseIndex;
 import com.igormaznitsa.mvnjlink.utils.StringUtils;
-import com.igormaznitsa.mvnjlink.utils.WildCardMatcher;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.security.MessageDigest;
@@ -46,6 +42,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -56,8 +53,6 @@ import org.apache.commons.codec.digest.MessageDigestAlgorithms;
 import org.apache.http.Header;
 import org.apache.http.client.HttpClient;
 import org.apache.maven.plugin.logging.Log;
-import org.json.JSONArray;
-import org.json.JSONObject;
 
 /**
  * Provider of prebuilt OpenJDK archives from <a href="https://www.bell-sw.com/java.html">LibericaOpenJDK</a>
@@ -65,12 +60,22 @@ import org.json.JSONObject;
 public class LibericaOpenJdkProvider extends AbstractJdkProvider {
 
   static final String RELEASES_LIST = "https://api.github.com/repos/bell-sw/Liberica/releases";
+  static final String RELEASE_INDEX = "BELLSOFT";
   private final Pattern PATTERN_SHA1 = Pattern.compile("\\s*(\\S+)\\s+(\\S+)\\s*");
 
   public LibericaOpenJdkProvider(@Nonnull final AbstractJdkToolMojo mojo) {
     super(mojo);
   }
 
+  @Override
+  public boolean refreshReleaseIndex(
+      @Nullable final String authorization,
+      @Nonnull final Map<String, String> config
+  ) throws IOException {
+    this.refreshGithubReleaseIndex(authorization, config, RELEASE_INDEX, RELEASES_LIST);
+    return true;
+  }
+
   @Nonnull
   private static String replaceFileInUrl(@Nonnull final String url,
                                          @Nonnull final String fileName) {
@@ -106,6 +111,8 @@ public class LibericaOpenJdkProvider extends AbstractJdkProvider {
     final boolean checkArchive = Boolean.parseBoolean(config.getOrDefault("check", "true"));
     final boolean keepArchiveFile =
         Boolean.parseBoolean(config.getOrDefault("keepArchive", "false"));
+    final int unpackThreads = this.findUnpackThreads(config);
+    final int prefetchPages = this.findPrefetchPages(config);
 
     final Path cacheFolder = this.mojo.findJdkCacheFolder();
     final Path cachedJdkPath = cacheFolder.resolve(String.format("LIBERICA_%s%s_%s_%s",
@@ -121,40 +128,41 @@ public class LibericaOpenJdkProvider extends AbstractJdkProvider {
       log.info("Found cached JDK: " + cachedJdkPath.getFileName());
       result = cachedJdkPath;
     } else {
-      if (isOfflineMode()) {
-        throw new FailureException("Unpacked '" + cachedJdkPath.getFileName() +
-            "' is not found, stopping process because offline mode is active");
+      final ReleaseList releaseList = new ReleaseList();
+      final boolean offline = isOfflineMode();
+      // index can miss releases published after its refresh, so it is used only in offline mode
+      final ReleaseIndex releaseIndex = offline ? this.loadReleaseIndex(RELEASE_INDEX) : null;
+      if (releaseIndex != null) {
+        releaseList.add(new ReleaseList(log, releaseIndex.getAssets()));
+      }
+      if (offline) {
+        if (releaseList.find(jdkType, jdkVersion, jdkOs, jdkArch).isEmpty()) {
+          throw new FailureException("Unpacked '" + cachedJdkPath.getFileName() +
+              "' is not found and release index doesn't contain matching release, stopping"
+              + " process because offline mode is active");
+        }
+        log.info("Offline mode is active, JDK is resolved through release index: "
+            + cachedJdkPath.getFileName());
       } else {
         log.info("Can't find cached: " + cachedJdkPath.getFileName());
       }
 
-      final HttpClient httpClient =
-          HttpUtils.makeHttpClient(log, this.mojo.getProxy(), this.tuneClient(authorization),
-              this.mojo.isDisableSSLcheck());
-
-      final ReleaseList releaseList = new ReleaseList();
-      List<ReleaseList.Release> releases = Collections.emptyList();
-
-      int page = 1;
-      while (!Thread.currentThread().isInterrupted()) {
-        log.debug("Loading releases page: " + page);
-
-        final ReleaseList pageReleases = new ReleaseList(
-            log,
-            doHttpGetText(httpClient, this.tuneRequestBase(authorization),
-                RELEASES_LIST + "?per_page=" + perPage + "&page=" + page,
-                this.mojo.getConnectionTimeout(),
-                "application/vnd.github.v3+json")
-        );
-        releaseList.add(pageReleases);
-        releases = releaseList.find(jdkType, jdkVersion, jdkOs, jdkArch);
-
-        if (!releases.isEmpty() || pageReleases.isEmpty()) {
-          break;
-        }
-
-        page++;
+      final HttpClient httpClient = this.createHttpClient(authorization);
+
+      if (!offline) {
+        this.visitReleasePages(httpClient, this.tuneRequestBase(authorization),
+            page -> RELEASES_LIST + "?per_page=" + perPage + "&page=" + page,
+            prefetchPages,
+            (page, body) -> {
+              final ReleaseList pageReleases =
+                  new ReleaseList(log, parseGithubReleaseAssets(log, body));
+              releaseList.add(pageReleases);
+              return pageReleases.isEmpty()
+                  || !releaseList.find(jdkType, jdkVersion, jdkOs, jdkArch).isEmpty();
+            }, "application/vnd.github.v3+json");
       }
+      final List<ReleaseList.Release> releases =
+          releaseList.find(jdkType, jdkVersion, jdkOs, jdkArch);
 
       if (releases.isEmpty()) {
         log.warn("Found releases\n" + releaseList.makeReport());
@@ -171,10 +179,15 @@ public class LibericaOpenJdkProvider extends AbstractJdkProvider {
 
         final ReleaseList.Release releaseToLoad =
             of(tarRelease, zipRelease).filter(Optional::isPresent).findFirst().get().get();
+        if (offline) {
+          this.assertArchiveForOfflineMode(cacheFolder.resolve(releaseToLoad.fileName),
+              releaseToLoad.digest);
+        }
         result = loadJdkIntoCacheIfNotExist(cacheFolder,
             assertNotNull(cachedJdkPath.getFileName()).toString(), tempFolder ->
                 downloadAndUnpack(httpClient, authorization, cacheFolder, tempFolder, releaseToLoad,
-                    checkArchive, keepArchiveFile, loadedArchiveConsumers)
+                    checkArchive, keepArchiveFile, unpackThreads,
+                    loadedArchiveConsumers)
         );
       }
     }
@@ -189,6 +202,7 @@ public class LibericaOpenJdkProvider extends AbstractJdkProvider {
       @Nonnull final ReleaseList.Release release,
       final boolean check,
       final boolean keepArchiveFile,
+      final int unpackThreads,
       @Nonnull @MustNotContainNull Consumer<Path>... loadedArchiveConsumers
   ) throws IOException {
 
@@ -203,14 +217,19 @@ public class LibericaOpenJdkProvider extends AbstractJdkProvider {
       doLoadArchive = false;
     }
 
+    final AtomicBoolean unpacked = new AtomicBoolean();
     if (doLoadArchive) {
       final MessageDigest digest = DigestUtils.getSha1Digest();
-      final Header[] responseHeaders = this.doHttpGetIntoFile(
+      final Header[] responseHeaders = this.doHttpGetArchive(
           client,
           this.tuneRequestBase(authorization),
           release.link,
           pathToArchiveFile,
+          keepArchiveFile,
+          destinationUnpackFolder,
+          unpackThreads,
           Collections.singletonList(digest),
+          unpacked,
           this.mojo.getConnectionTimeout(),
           release.mime
       );
@@ -257,28 +276,22 @@ public class LibericaOpenJdkProvider extends AbstractJdkProvider {
       log.info("Archive loading is skipped");
     }
 
-    if (isDirectory(destinationUnpackFolder)) {
-      log.info(
-          "Detected existing target folder, deleting it: " + destinationUnpackFolder.getFileName());
-      deleteDirectory(destinationUnpackFolder.toFile());
+    if (unpacked.get()) {
+      log.info("Archive has been unpacked during loading");
+      if (keepArchiveFile) {
+        log.info("Keep downloaded archive file in cache: " + pathToArchiveFile);
+        for (final Consumer<Path> c : loadedArchiveConsumers) {
+          c.accept(pathToArchiveFile);
+        }
+      }
+      return;
     }
 
     for (final Consumer<Path> c : loadedArchiveConsumers) {
       c.accept(pathToArchiveFile);
     }
 
-    final String archiveRootName = ArchUtils.findShortestDirectory(pathToArchiveFile);
-    log.debug("Root archive folder: " + archiveRootName);
-    log.info("Unpacking archive...");
-    final int numberOfUnpackedFiles =
-        unpackArchiveFile(this.mojo.getLog(), true, pathToArchiveFile, destinationUnpackFolder,
-            archiveRootName);
-    if (numberOfUnpackedFiles == 0) {
-      throw new IOException(
-          "Extracted 0 files from archive! May be wrong root folder name: " + archiveRootName);
-    }
-    log.info(
-        "Archive has been unpacked successfully, extracted " + numberOfUnpackedFiles + " files");
+    this.unpackArchive(pathToArchiveFile, destinationUnpackFolder, unpackThreads);
 
     if (keepArchiveFile) {
       log.info("Keep downloaded archive file in cache: " + pathToArchiveFile);
@@ -290,48 +303,33 @@ public class LibericaOpenJdkProvider extends AbstractJdkProvider {
 
   static class ReleaseList {
     private final List<Release> releases = new ArrayList<>();
+    private final ReleaseCatalog<Release> catalog = new ReleaseCatalog<>();
 
     private ReleaseList() {
     }
 
-    private ReleaseList(@Nonnull final Log log, @Nonnull final String json) {
-      final JSONArray array = new JSONArray(json);
-      for (int i = 0; i < array.length(); i++) {
-        final JSONObject release = array.getJSONObject(i);
-        if (!release.has("tag_name")) {
+    private ReleaseList(@Nonnull final Log log,
+                        @Nonnull @MustNotContainNull final List<ReleaseIndex.Asset> assets) {
+      for (final ReleaseIndex.Asset asset : assets) {
+        if (asset.isPrerelease()) {
           continue;
         }
-
-        final boolean draft = release.getBoolean("draft");
-        final boolean prerelease = release.getBoolean("prerelease");
-        if (draft || prerelease) {
-          continue;
-        }
-        if (release.has("assets")) {
-          final JSONArray assets = release.getJSONArray("assets");
-          for (int a = 0; a < assets.length(); a++) {
-            final JSONObject asset = assets.getJSONObject(a);
-            final String fileName = asset.getString("name");
-            final String mime = asset.getString("content_type");
-            final long size = asset.getLong("size");
-
-            if (fileName.endsWith(".zip") || fileName.endsWith(".tar.gz")) {
-              final String link = asset.getString("browser_download_url");
-              try {
-                this.releases.add(new Release(fileName, link, mime, size));
-              } catch (IllegalArgumentException ex) {
-                log.debug("Detected non-standard named archive: " + fileName);
-              }
-            } else {
-              log.debug("Ignoring because unknown package type: " + asset);
-            }
-          }
+        try {
+          this.addRelease(new Release(asset));
+        } catch (IllegalArgumentException ex) {
+          log.debug("Detected non-standard named archive: " + asset.getFileName());
         }
       }
     }
 
+    private void addRelease(@Nonnull final Release release) {
+      this.releases.add(release);
+      this.catalog.add(ReleaseCatalog.makeKey(release.type, release.os, release.arch),
+          release.version, release);
+    }
+
     public void add(@Nonnull final ReleaseList list) {
-      this.releases.addAll(list.releases);
+      list.releases.forEach(this::addRelease);
     }
 
     public boolean isEmpty() {
@@ -342,12 +340,7 @@ public class LibericaOpenJdkProvider extends AbstractJdkProvider {
     @MustNotContainNull
     public List<Release> find(@Nonnull final String type, @Nonnull final String version,
                               @Nonnull final String os, @Nonnull final String arch) {
-      final WildCardMatcher matcher = new WildCardMatcher(version, true);
-      return this.releases.stream()
-          .filter(x -> x.type.equalsIgnoreCase(type))
-          .filter(x -> x.os.equalsIgnoreCase(os))
-          .filter(x -> x.arch.equalsIgnoreCase(arch))
-          .filter(x -> matcher.match(x.version)).collect(toList());
+      return this.catalog.find(ReleaseCatalog.makeKey(type, os, arch), version);
     }
 
     @Nonnull
@@ -370,18 +363,15 @@ public class LibericaOpenJdkProvider extends AbstractJdkProvider {
       private final String mime;
       private final String extension;
       private final long size;
-
-      private Release(
-          @Nonnull final String fileName,
-          @Nonnull final String link,
-          @Nonnull final String mime,
-          final long size
-      ) {
-        this.fileName = fileName;
-        this.link = link;
-        this.mime = mime;
-        this.size = size;
-        final Matcher matcher = BELLSOFT_FILENAME_PATTERN.matcher(fileName);
+      private final String digest;
+
+      private Release(@Nonnull final ReleaseIndex.Asset asset) {
+        this.fileName = asset.getFileName();
+        this.link = asset.getLink();
+        this.mime = asset.getMime();
+        this.size = asset.getSize();
+        this.digest = asset.getDigest();
+        final Matcher matcher = BELLSOFT_FILENAME_PATTERN.matcher(this.fileName);
         if (matcher.find()) {
           this.type = matcher.group(1);
           this.version = matcher.group(2);
@@ -389,7 +379,7 @@ public class LibericaOpenJdkProvider extends AbstractJdkProvider {
           this.arch = matcher.group(4);
           this.extension = matcher.group(5);
         } else {
-          throw new IllegalArgumentException("Can't parse file name: " + fileName);
+          throw new IllegalArgumentException("Can't parse file name: " + this.fileName);
         }
       }
 
@@ -98,6 +98,7 @@ public class MicrosoftJdkProvider extends UrlLinkJdkProvider {
     newConfig.put("id", baseArchiveName);
     newConfig.put("url", urlArchive);
     newConfig.put("sha256", sha256signature);
+    copyCommonParameters(config, newConfig);
 
     return super.getPathToJdk(authorization, newConfig);
   }
@@ -1,8 +1,6 @@
 package com.igormaznitsa.mvnjlink.jdkproviders.providers;
 
 import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
-import static com.igormaznitsa.mvnjlink.utils.ArchUtils.unpackArchiveFile;
-import static com.igormaznitsa.mvnjlink.utils.HttpUtils.makeHttpClient;
 import static java.lang.Boolean.parseBoolean;
 import static java.lang.Integer.toHexString;
 import static java.lang.String.format;
@@ -10,21 +8,21 @@ import static java.nio.file.Files.delete;
 import static java.nio.file.Files.isDirectory;
 import static java.nio.file.Files.isRegularFile;
 import static java.util.Locale.ENGLISH;
-import static org.apache.commons.io.FileUtils.deleteDirectory;
 
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.meta.annotation.ReturnsOriginal;
 import com.igormaznitsa.mvnjlink.exceptions.FailureException;
 import com.igormaznitsa.mvnjlink.jdkproviders.AbstractJdkProvider;
 import com.igormaznitsa.mvnjlink.mojos.AbstractJdkToolMojo;
-import com.igormaznitsa.mvnjlink.utils.ArchUtils;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -51,10 +49,31 @@ public class UrlLinkJdkProvider extends AbstractJdkProvider {
       "application/tar+gzip"
   };
 
+  private static final String[] COMMON_PARAMETERS = new String[] {
+      CONFIG_UNPACK_THREADS
+  };
+
   public UrlLinkJdkProvider(@Nonnull final AbstractJdkToolMojo mojo) {
     super(mojo);
   }
 
+  /**
+   * Copy configuration parameters processed by the provider for any archive, to be used by
+   * providers which make configuration for this provider.
+   *
+   * @param source source provider configuration
+   * @param target target provider configuration
+   */
+  protected static void copyCommonParameters(@Nonnull final Map<String, String> source,
+                                             @Nonnull final Map<String, String> target) {
+    for (final String key : COMMON_PARAMETERS) {
+      final String value = source.get(key);
+      if (value != null) {
+        target.put(key, value);
+      }
+    }
+  }
+
   @ReturnsOriginal
   @Nonnull
   private static String asserAppropriateFileName(@Nonnull final String name) {
@@ -96,7 +115,8 @@ public class UrlLinkJdkProvider extends AbstractJdkProvider {
     assertParameters(config, "id", "url");
 
     final String id = asserAppropriateFileName(config.get("id").trim());
-    final String url = config.get("url");
+    final List<String> urls = findMirrorLinks(config, config.get("url"));
+    final MirrorMode mirrorMode = findMirrorMode(config);
     final String sha1 = config.get("sha1");
     final String sha256 = config.get("sha256");
     final String sha384 = config.get("sha384");
@@ -113,6 +133,7 @@ public class UrlLinkJdkProvider extends AbstractJdkProvider {
 
     final boolean keepArchiveFile =
         parseBoolean(config.getOrDefault("keepArchive", "false"));
+    final int unpackThreads = this.findUnpackThreads(config);
 
     final Path cacheFolder = this.mojo.findJdkCacheFolder();
     final Path cachedJdkPath = cacheFolder.resolve(id);
@@ -130,15 +151,16 @@ public class UrlLinkJdkProvider extends AbstractJdkProvider {
         log.info("Can't find cached: " + cachedJdkPath.getFileName());
       }
 
-      final HttpClient httpClient =
-          makeHttpClient(log, this.mojo.getProxy(), this.tuneClient(authorization),
-              this.mojo.isDisableSSLcheck());
+      final HttpClient httpClient = this.createHttpClient(authorization);
 
       final String archiveFileName =
           format(".%s-%s.arch", id, toHexString(id.hashCode()).toUpperCase(
               ENGLISH));
 
-      log.info("Loading URL: " + url);
+      log.info("Loading URL: " + urls.get(0));
+      if (urls.size() > 1) {
+        log.info(format("Mirrors (%s): %s", mirrorMode, urls.subList(1, urls.size())));
+      }
       result = loadJdkIntoCacheIfNotExist(cacheFolder,
           assertNotNull(cachedJdkPath.getFileName()).toString(), tempFolder ->
               downloadAndUnpack(
@@ -146,7 +168,8 @@ public class UrlLinkJdkProvider extends AbstractJdkProvider {
                   authorization,
                   cacheFolder,
                   tempFolder,
-                  url,
+                  urls,
+                  mirrorMode,
                   archiveFileName,
                   checkArchive,
                   sha1,
@@ -156,6 +179,7 @@ public class UrlLinkJdkProvider extends AbstractJdkProvider {
                   md2,
                   md5,
                   keepArchiveFile,
+                  unpackThreads,
                   allowedMimes,
                   loadedArchiveConsumers
               )
@@ -180,6 +204,40 @@ public class UrlLinkJdkProvider extends AbstractJdkProvider {
       @Nullable final String md2checksum,
       @Nullable final String md5checksum,
       final boolean keepArchiveFile,
+      final int unpackThreads,
+      @Nonnull @MustNotContainNull final String[] allowedMimes,
+      @Nonnull @MustNotContainNull Consumer<Path>... loadedArchiveConsumers
+  ) throws IOException {
+    this.downloadAndUnpack(client, authorization, tempFolder, destUnpackFolder,
+        Collections.singletonList(downloadLink), MirrorMode.FAILOVER, archiveFileName,
+        checkArchive, sha1checksum, sha256checksum, sha384checksum, sha512checksum, md2checksum,
+        md5checksum, keepArchiveFile, unpackThreads, allowedMimes, loadedArchiveConsumers);
+  }
+
+  /**
+   * Load archive from one of links and unpack it, checksums are checked for loaded archive
+   * independently of link it has been loaded from.
+   *
+   * @since 1.2.7
+   */
+  @SafeVarargs
+  protected final void downloadAndUnpack(
+      @Nonnull final HttpClient client,
+      @Nullable final String authorization,
+      @Nonnull final Path tempFolder,
+      @Nonnull final Path destUnpackFolder,
+      @Nonnull @MustNotContainNull final List<String> downloadLinks,
+      @Nonnull final MirrorMode mirrorMode,
+      @Nonnull final String archiveFileName,
+      final boolean checkArchive,
+      @Nullable final String sha1checksum,
+      @Nullable final String sha256checksum,
+      @Nullable final String sha384checksum,
+      @Nullable final String sha512checksum,
+      @Nullable final String md2checksum,
+      @Nullable final String md5checksum,
+      final boolean keepArchiveFile,
+      final int unpackThreads,
       @Nonnull @MustNotContainNull final String[] allowedMimes,
       @Nonnull @MustNotContainNull Consumer<Path>... loadedArchiveConsumers
   ) throws IOException {
@@ -195,6 +253,7 @@ public class UrlLinkJdkProvider extends AbstractJdkProvider {
       doLoadArchive = false;
     }
 
+    final AtomicBoolean unpacked = new AtomicBoolean();
     String mimeContentType = "unknown";
     if (doLoadArchive) {
       final List<MessageDigest> digests = new ArrayList<>();
@@ -218,8 +277,9 @@ public class UrlLinkJdkProvider extends AbstractJdkProvider {
       }
 
       final Header[] responseHeaders =
-          this.doHttpGetIntoFile(client, this.tuneRequestBase(authorization), downloadLink,
-              pathToArchiveFile, digests, this.mojo.getConnectionTimeout(), allowedMimes);
+          this.doHttpGetArchiveFromMirrors(client, this.tuneRequestBase(authorization),
+              downloadLinks, mirrorMode, pathToArchiveFile, keepArchiveFile, destUnpackFolder,
+              unpackThreads, digests, unpacked, this.mojo.getConnectionTimeout(), allowedMimes);
 
       mimeContentType =
           Arrays.stream(responseHeaders).filter(x -> x.getName().equalsIgnoreCase("content-type"))
@@ -265,35 +325,24 @@ public class UrlLinkJdkProvider extends AbstractJdkProvider {
       } else {
         log.warn("Archive check skipped");
       }
-      for (final Consumer<Path> c : loadedArchiveConsumers) {
-        c.accept(pathToArchiveFile);
+      if (isRegularFile(pathToArchiveFile)) {
+        for (final Consumer<Path> c : loadedArchiveConsumers) {
+          c.accept(pathToArchiveFile);
+        }
       }
     } else {
       log.info("Archive load is skipped");
     }
 
-    if (isDirectory(destUnpackFolder)) {
-      log.info("Detected existing target folder, deleting it: " + destUnpackFolder.getFileName());
-      deleteDirectory(destUnpackFolder.toFile());
+    if (unpacked.get()) {
+      log.info("Archive has been unpacked during loading");
+      if (keepArchiveFile) {
+        log.info("Keep downloaded archive file in cache: " + pathToArchiveFile);
+      }
+      return;
     }
 
-    final String archiveRootName = ArchUtils.findShortestDirectory(pathToArchiveFile);
-    log.debug("Root archive folder: " + archiveRootName);
-    log.info("Unpacking archive...");
-    final int numberOfUnpackedFiles =
-        unpackArchiveFile(
-            this.mojo.getLog(),
-            true,
-            pathToArchiveFile,
-            destUnpackFolder,
-            archiveRootName
-        );
-    if (numberOfUnpackedFiles == 0) {
-      throw new IOException(
-          "Extracted 0 files from archive! May be wrong root folder name: " + archiveRootName);
-    }
-    log.info(
-        "Archive has been unpacked successfully, extracted " + numberOfUnpackedFiles + " files");
+    this.unpackArchive(pathToArchiveFile, destUnpackFolder, unpackThreads);
 
     if (keepArchiveFile) {
       log.info("Keep downloaded archive file in cache: " + pathToArchiveFile);
@@ -22,10 +22,13 @@ import com.igormaznitsa.mvnjlink.jdkproviders.JdkProviderId;
 import com.igormaznitsa.mvnjlink.utils.HostOs;
 import com.igormaznitsa.mvnjlink.utils.HttpResponseException;
 import com.igormaznitsa.mvnjlink.utils.ProxySettings;
+import com.igormaznitsa.mvnjlink.utils.RetryPolicy;
 import com.igormaznitsa.mvnjlink.utils.SystemUtils;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Method;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -35,6 +38,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -48,13 +53,22 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.toolchain.Toolchain;
 import org.apache.maven.toolchain.ToolchainManager;
+import org.zeroturnaround.exec.ProcessExecutor;
+import org.zeroturnaround.exec.ProcessResult;
 
 public abstract class AbstractJdkToolMojo extends AbstractMojo {
+  private static final long TOOL_VERSION_TIMEOUT_SECONDS = 30L;
+
   /**
    * internal cache for JDK tool paths.
    */
   private final Map<String, String> toolPathCache = new HashMap<>();
 
+  /**
+   * internal cache for JDK tool versions.
+   */
+  private final Map<Path, String> toolVersionCache = new HashMap<>();
+
   /**
    * Current maven project.
    */
@@ -128,6 +142,93 @@ public abstract class AbstractJdkToolMojo extends AbstractMojo {
   @Parameter(name = "connectionTimeout", defaultValue = "60000")
   private int connectionTimeout = 60000;
 
+  /**
+   * Number of parallel HTTP range requests to load a JDK archive, value less than 2 disables
+   * segmented loading. If server doesn't support byte ranges then archive is loaded through
+   * single stream.
+   * Can be overridden by property 'mvn.jlink.download.segments'
+   *
+   * @since 1.2.7
+   */
+  @Parameter(name = "downloadSegments", defaultValue = "1")
+  private int downloadSegments = 1;
+
+  /**
+   * Unpack TAR.GZ archive during its loading, without intermediate reading of saved archive
+   * file. Digests are checked after the last byte and unpacked folder is removed if any check
+   * fails. Segmented loading is not used in the mode.
+   * Can be overridden by property 'mvn.jlink.stream.unpack'
+   *
+   * @since 1.2.7
+   */
+  @Parameter(name = "streamUnpack", defaultValue = "false")
+  private boolean streamUnpack;
+
+  /**
+   * Keep content of cached JDK files in hash-addressed object store placed in the cache folder
+   * and replace identical files of cached JDKs by hard links to stored objects. If hard links are
+   * not supported then files are kept as plain copies. Deduplicated files are read-only, they
+   * must not be changed in place (like cacerts update) because the same file is shared by other
+   * cached JDKs, make a copy of the JDK folder for such changes.
+   * Can be overridden by property 'mvn.jlink.cache.dedup'
+   *
+   * @since 1.2.7
+   */
+  @Parameter(name = "dedupCache", defaultValue = "false")
+  private boolean dedupCache;
+
+  /**
+   * Timeout in milliseconds to wait lock of JDK cache record locked by another build, zero or
+   * negative value means waiting without limit.
+   * Can be overridden by property 'mvn.jlink.cache.lock.timeout'
+   *
+   * @since 1.2.7
+   */
+  @Parameter(name = "cacheLockTimeout", defaultValue = "600000")
+  private long cacheLockTimeout = 600000L;
+
+  /**
+   * Time in seconds during which loaded release list pages are used from the metadata cache
+   * without any request. Outdated pages are revalidated by conditional requests. Zero means
+   * revalidation of every page, negative value disables the metadata cache.
+   * Can be overridden by property 'mvn.jlink.metadata.cache.ttl'
+   *
+   * @since 1.2.7
+   */
+  @Parameter(name = "metadataCacheTtl", defaultValue = "3600")
+  private long metadataCacheTtl = 3600L;
+
+  /**
+   * Max number of attempts for HTTP requests failed by IO errors or by responses allowing retry
+   * (429, 502, 503, 504, exhausted rate limit). Interrupted single stream loading of archive is
+   * continued from loaded position.
+   * Can be overridden by property 'mvn.jlink.retry.attempts'
+   *
+   * @since 1.2.7
+   */
+  @Parameter(name = "retryAttempts", defaultValue = "5")
+  private int retryAttempts = 5;
+
+  /**
+   * Delay in milliseconds before the second attempt of HTTP request, the delay is doubled for
+   * every next attempt and decreased by random jitter.
+   * Can be overridden by property 'mvn.jlink.retry.initial.delay'
+   *
+   * @since 1.2.7
+   */
+  @Parameter(name = "retryInitialDelay", defaultValue = "1000")
+  private long retryInitialDelay = 1000L;
+
+  /**
+   * Max delay in milliseconds between attempts of HTTP request. If server requests longer delay
+   * through 'Retry-After' or rate limit reset time then request is not retried.
+   * Can be overridden by property 'mvn.jlink.retry.max.delay'
+   *
+   * @since 1.2.7
+   */
+  @Parameter(name = "retryMaxDelay", defaultValue = "60000")
+  private long retryMaxDelay = 60000L;
+
   /**
    * Proxy settings for network operations.
    */
@@ -161,6 +262,42 @@ public abstract class AbstractJdkToolMojo extends AbstractMojo {
         Integer.toString(this.connectionTimeout))));
   }
 
+  public int getDownloadSegments() {
+    return Integer.parseInt(Objects.requireNonNull(findProperty("mvn.jlink.download.segments",
+        Integer.toString(this.downloadSegments))));
+  }
+
+  public boolean isStreamUnpack() {
+    return Boolean.parseBoolean(
+        this.findProperty("mvn.jlink.stream.unpack", Boolean.toString(this.streamUnpack)));
+  }
+
+  public long getCacheLockTimeout() {
+    return Long.parseLong(Objects.requireNonNull(findProperty("mvn.jlink.cache.lock.timeout",
+        Long.toString(this.cacheLockTimeout))));
+  }
+
+  public long getMetadataCacheTtl() {
+    return Long.parseLong(Objects.requireNonNull(findProperty("mvn.jlink.metadata.cache.ttl",
+        Long.toString(this.metadataCacheTtl))));
+  }
+
+  @Nonnull
+  public RetryPolicy getRetryPolicy() {
+    return new RetryPolicy(
+        Integer.parseInt(Objects.requireNonNull(findProperty("mvn.jlink.retry.attempts",
+            Integer.toString(this.retryAttempts)))),
+        Long.parseLong(Objects.requireNonNull(findProperty("mvn.jlink.retry.initial.delay",
+            Long.toString(this.retryInitialDelay)))),
+        Long.parseLong(Objects.requireNonNull(findProperty("mvn.jlink.retry.max.delay",
+            Long.toString(this.retryMaxDelay)))));
+  }
+
+  public boolean isDedupCache() {
+    return Boolean.parseBoolean(
+        this.findProperty("mvn.jlink.cache.dedup", Boolean.toString(this.dedupCache)));
+  }
+
   @Nullable
   public String getToolJdk() {
     return this.findProperty("mvn.jlink.tool.jdk", this.toolJdk);
@@ -258,6 +395,17 @@ public abstract class AbstractJdkToolMojo extends AbstractMojo {
     }
   }
 
+  /**
+   * Check that progress of downloading can be printed into console. It is disabled for parallel
+   * builds to avoid mixed output of concurrent downloads.
+   *
+   * @return true if progress can be printed
+   * @since 1.2.7
+   */
+  public boolean isDownloadProgressVisible() {
+    return !this.getSession().isParallel();
+  }
+
   public boolean isOfflineModeActive() {
     return this.isUseOnlyCache() || this.getSession().isOffline();
   }
@@ -324,7 +472,7 @@ public abstract class AbstractJdkToolMojo extends AbstractMojo {
   }
 
   @Nullable
-  public String findJdkTool(@Nonnull final String toolName) {
+  public synchronized String findJdkTool(@Nonnull final String toolName) {
     final Log log = this.getLog();
 
     String toolPath = this.toolPathCache.get(toolName);
@@ -369,6 +517,47 @@ public abstract class AbstractJdkToolMojo extends AbstractMojo {
     return toolPath;
   }
 
+  /**
+   * Find version of JDK tool through its '--version' option. If the tool doesn't support the
+   * option then size and modification time of the executable file are used as version.
+   *
+   * @param tool path to the tool executable
+   * @return version text of the tool
+   * @throws MojoExecutionException if the tool can't be started
+   * @since 1.2.7
+   */
+  @Nonnull
+  public synchronized String findJdkToolVersion(@Nonnull final Path tool)
+      throws MojoExecutionException {
+    String result = this.toolVersionCache.get(tool);
+    if (result == null) {
+      final ByteArrayOutputStream consoleOut = new ByteArrayOutputStream();
+      final ProcessResult executor;
+      try {
+        executor = new ProcessExecutor(tool.toString(), "--version")
+            .redirectOutput(consoleOut)
+            .redirectErrorStream(true)
+            .exitValueAny()
+            .timeout(TOOL_VERSION_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            .execute();
+      } catch (IOException | TimeoutException ex) {
+        throw new MojoExecutionException("Can't get version of tool: " + tool, ex);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new MojoExecutionException("Interrupted during tool version detection", ex);
+      }
+      if (executor.getExitValue() == 0) {
+        result = new String(consoleOut.toByteArray(), Charset.defaultCharset()).trim();
+      } else {
+        final File file = tool.toFile();
+        result = "unknown:" + file.length() + ':' + file.lastModified();
+      }
+      this.getLog().debug("Version of tool " + tool + ": " + result);
+      this.toolVersionCache.put(tool, result);
+    }
+    return result;
+  }
+
   @Nullable
   protected Toolchain getToolchain() {
     Toolchain result = null;
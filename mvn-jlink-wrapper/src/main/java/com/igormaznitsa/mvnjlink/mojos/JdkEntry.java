@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.mojos;
+
+import com.igormaznitsa.mvnjlink.jdkproviders.JdkProviderId;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * Description of JDK to be cached by the 'cache-jdks' goal.
+ *
+ * @since 1.2.7
+ */
+public class JdkEntry {
+
+  /**
+   * JDK provider.
+   */
+  public JdkProviderId provider;
+
+  /**
+   * Configuration for the provider.
+   */
+  public Map<String, String> providerConfig = new HashMap<>();
+
+  /**
+   * Name of project property to save path to cached JDK.
+   */
+  public String jdkPathProperty;
+
+  /**
+   * Text to be used in authorization field during HTTP requests, if not defined then
+   * authorization of the mojo is used.
+   */
+  public String authorization;
+
+  public JdkEntry() {
+  }
+
+  @Override
+  @Nonnull
+  public String toString() {
+    return this.jdkPathProperty + " <= " + this.provider + ' ' + this.providerConfig;
+  }
+}
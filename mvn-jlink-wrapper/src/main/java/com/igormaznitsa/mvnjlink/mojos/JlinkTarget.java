@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.mojos;
+
+import com.igormaznitsa.mvnjlink.jdkproviders.JdkProviderId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * Description of target image to be generated by the 'jlink' goal.
+ *
+ * @since 1.2.7
+ */
+public class JlinkTarget {
+
+  /**
+   * Provider of JDK which jmods are used for the image.
+   */
+  public JdkProviderId provider;
+
+  /**
+   * Configuration for the provider.
+   */
+  public Map<String, String> providerConfig = new HashMap<>();
+
+  /**
+   * Text to be used in authorization field during HTTP requests, if not defined then
+   * authorization of the mojo is used.
+   */
+  public String authorization;
+
+  /**
+   * Path to place generated image.
+   */
+  public String output;
+
+  /**
+   * Command line options for the tool, if not defined then options of the mojo are used.
+   */
+  public List<String> options;
+
+  /**
+   * List of paths to module folders, if not defined then module paths of the mojo are used.
+   */
+  public String[] modulePaths;
+
+  public JlinkTarget() {
+  }
+
+  @Override
+  @Nonnull
+  public String toString() {
+    return this.output + " <= " + this.provider + ' ' + this.providerConfig;
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.mojos;
+
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import com.igormaznitsa.mvnjlink.exceptions.FailureException;
+import com.igormaznitsa.mvnjlink.utils.HttpResponseException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.Nonnull;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+/**
+ * Allows to download several JDKs from providers into cache at the same time and save paths of
+ * cached JDK folders into project properties. JDKs are resolved, loaded and unpacked in parallel
+ * through pooled HTTP connections, the same JDK record is locked in the cache so that
+ * concurrent builds and entries don't load it twice.
+ * <pre>
+ * {@code
+ * <jdks>
+ *   <jdk>
+ *     <jdkPathProperty>jdk.linux.x64</jdkPathProperty>
+ *     <provider>ADOPTIUM</provider>
+ *     <providerConfig>
+ *       <version>21.+</version>
+ *       <os>linux</os>
+ *       <arch>x64</arch>
+ *     </providerConfig>
+ *   </jdk>
+ * </jdks>
+ * }
+ * </pre>
+ *
+ * @since 1.2.7
+ */
+@Mojo(name = "cache-jdks", defaultPhase = LifecyclePhase.INITIALIZE, threadSafe = true)
+public class MvnCacheJdksMojo extends AbstractJdkToolMojo {
+
+  /**
+   * List of JDKs to be cached.
+   */
+  @Parameter(name = "jdks", required = true)
+  private List<JdkEntry> jdks = new ArrayList<>();
+
+  /**
+   * Max number of JDKs processed at the same time.
+   * Can be overridden by property 'mvn.jlink.jdks.threads'
+   */
+  @Parameter(name = "threads", defaultValue = "4")
+  private int threads = 4;
+
+  private volatile boolean concurrentProcessing;
+
+  @Nonnull
+  @MustNotContainNull
+  public List<JdkEntry> getJdks() {
+    return this.jdks == null ? Collections.emptyList() : this.jdks;
+  }
+
+  public int getThreads() {
+    return Integer.parseInt(Objects.requireNonNull(
+        findProperty("mvn.jlink.jdks.threads", Integer.toString(this.threads))));
+  }
+
+  @Override
+  public boolean isDownloadProgressVisible() {
+    return !this.concurrentProcessing && super.isDownloadProgressVisible();
+  }
+
+  private static void assertEntries(@Nonnull @MustNotContainNull final List<JdkEntry> entries)
+      throws MojoExecutionException {
+    final Set<String> properties = new HashSet<>();
+    for (final JdkEntry entry : entries) {
+      if (entry.provider == null) {
+        throw new MojoExecutionException("Provider is not defined for JDK entry: " + entry);
+      }
+      if (entry.jdkPathProperty == null || entry.jdkPathProperty.trim().isEmpty()) {
+        throw new MojoExecutionException("Property name is not defined for JDK entry: " + entry);
+      }
+      if (!properties.add(entry.jdkPathProperty.trim())) {
+        throw new MojoExecutionException(
+            "Duplicated property name in JDK entries: " + entry.jdkPathProperty);
+      }
+    }
+  }
+
+  @Override
+  public void onExecute() throws MojoExecutionException, MojoFailureException {
+    final Log log = this.getLog();
+    final List<JdkEntry> entries = this.getJdks();
+    assertEntries(entries);
+    if (entries.isEmpty()) {
+      log.warn("There is no any JDK entry");
+      return;
+    }
+
+    final int threadNumber = Math.max(1, Math.min(this.getThreads(), entries.size()));
+    log.info(String.format("Caching %d JDK(s) through %d thread(s)", entries.size(),
+        threadNumber));
+
+    this.concurrentProcessing = threadNumber > 1;
+    final ExecutorService executor = Executors.newFixedThreadPool(threadNumber, runnable -> {
+      final Thread thread = new Thread(runnable, "mvn-jlink-cache-jdks");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    final Map<JdkEntry, Path> found = new HashMap<>();
+    final List<Throwable> errors = new ArrayList<>();
+    try {
+      final List<Future<Path>> futures = new ArrayList<>();
+      for (final JdkEntry entry : entries) {
+        futures.add(executor.submit(() -> {
+          final long start = System.currentTimeMillis();
+          final Map<String, String> config =
+              entry.providerConfig == null ? Collections.emptyMap() : entry.providerConfig;
+          final Path result = entry.provider.makeInstance(this).getPathToJdk(
+              entry.authorization == null ? this.getAuthorization() : entry.authorization,
+              config);
+          log.info(String.format("JDK for '%s' prepared in %d ms: %s", entry.jdkPathProperty,
+              System.currentTimeMillis() - start, result));
+          return result;
+        }));
+      }
+
+      for (int i = 0; i < entries.size(); i++) {
+        final JdkEntry entry = entries.get(i);
+        try {
+          found.put(entry, futures.get(i).get());
+        } catch (ExecutionException ex) {
+          log.error(String.format("Can't prepare JDK for '%s': %s", entry.jdkPathProperty,
+              ex.getCause().getMessage()));
+          errors.add(ex.getCause());
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new MojoExecutionException("Interrupted during JDK caching", ex);
+    } finally {
+      executor.shutdownNow();
+      this.concurrentProcessing = false;
+    }
+
+    if (!errors.isEmpty()) {
+      final Throwable first = errors.get(0);
+      final String message = String.format("Can't prepare %d JDK(s) from %d, see log for errors",
+          errors.size(), entries.size());
+      if (errors.stream().allMatch(
+          x -> x instanceof HttpResponseException || x instanceof FailureException)) {
+        throw new MojoFailureException(message + ": " + first.getMessage());
+      }
+      throw new MojoExecutionException(message, first);
+    }
+
+    for (final JdkEntry entry : entries) {
+      final String property = entry.jdkPathProperty.trim();
+      final String path = found.get(entry).toString();
+      this.getProject().getProperties().setProperty(property, path);
+      log.info(String.format("Project property '%s' <= '%s'", property, path));
+    }
+  }
+}
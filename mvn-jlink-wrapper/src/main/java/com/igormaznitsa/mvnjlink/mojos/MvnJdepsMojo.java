@@ -16,6 +16,10 @@
 
 package com.igormaznitsa.mvnjlink.mojos;
 
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import com.igormaznitsa.mvnjlink.utils.InputFingerprint;
+import com.igormaznitsa.mvnjlink.utils.ReportCache;
+import com.igormaznitsa.mvnjlink.utils.StringUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
@@ -25,15 +29,33 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.zeroturnaround.exec.ProcessExecutor;
 import org.zeroturnaround.exec.ProcessResult;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.nio.charset.Charset.defaultCharset;
 import static org.apache.commons.io.FileUtils.writeByteArrayToFile;
@@ -44,6 +66,24 @@ import static org.apache.commons.io.FileUtils.writeByteArrayToFile;
 @Mojo(name = "jdeps", defaultPhase = LifecyclePhase.PACKAGE, threadSafe = true)
 public class MvnJdepsMojo extends AbstractJdkToolMojo {
 
+  private static final Set<String> PATH_VALUE_OPTIONS = Collections.unmodifiableSet(
+      new HashSet<>(Arrays.asList(
+          "-cp", "-classpath", "--class-path",
+          "--module-path", "--upgrade-module-path", "--system",
+          "-dotoutput", "--dot-output",
+          "--generate-module-info", "--generate-open-module"
+      )));
+
+  /**
+   * Options which values are folders where jdeps writes files, output of jdeps with them can't be
+   * restored from report cache.
+   */
+  private static final Set<String> OUTPUT_PATH_OPTIONS = Collections.unmodifiableSet(
+      new HashSet<>(Arrays.asList(
+          "-dotoutput", "--dot-output",
+          "--generate-module-info", "--generate-open-module"
+      )));
+
   /**
    * Options, they will be added to command line.
    */
@@ -56,22 +96,177 @@ public class MvnJdepsMojo extends AbstractJdkToolMojo {
   @Parameter(name = "output", required = true)
   private String output;
 
-  @Override
-  public void onExecute() throws MojoExecutionException, MojoFailureException {
-    final Log log = this.getLog();
+  /**
+   * Keep jdeps output in the report cache placed in the JDK cache folder. Key of cached output is
+   * formed from jdeps version, options and content of files and folders found in options (jars,
+   * class folders, class path elements), so jdeps is not started if they are not changed. The
+   * cache is not used if options contain options writing files (like '--dot-output' or
+   * '--generate-module-info'). Can be overridden by property 'mvn.jlink.jdeps.cache'
+   *
+   * @since 1.2.7
+   */
+  @Parameter(name = "reportCache", defaultValue = "true")
+  private boolean reportCache = true;
 
-    this.getSourceJdkFolderFromProvider();
+  /**
+   * Max size of the report cache in megabytes, least recently used reports are removed if the
+   * size is exceeded.
+   * Can be overridden by property 'mvn.jlink.jdeps.cache.max.size'
+   *
+   * @since 1.2.7
+   */
+  @Parameter(name = "reportCacheMaxSize", defaultValue = "16")
+  private long reportCacheMaxSize = 16L;
 
-    final String pathToJdeps = this.findJdkTool("jdeps");
-    if (pathToJdeps == null) {
-      throw new MojoExecutionException("Can't find jdeps in JDK");
+  /**
+   * Analyze every jar and class folder found in options by separate jdeps process, in parallel.
+   * Jars of folder wildcards like 'lib/*' are analyzed separately too, other options (like class
+   * path) are passed to every process. Reports of artifacts are cached by content of artifacts
+   * if report cache is enabled, so only changed artifacts are analyzed again. Modules of all
+   * artifacts are merged into output in jdeps summary format ('artifact -> module' lines) which
+   * can be used by the 'jlink' goal.
+   * Can be overridden by property 'mvn.jlink.jdeps.per.artifact'
+   *
+   * @since 1.2.7
+   */
+  @Parameter(name = "perArtifact", defaultValue = "false")
+  private boolean perArtifact;
+
+  /**
+   * Max number of jdeps processes started at the same time in per-artifact mode.
+   * Can be overridden by property 'mvn.jlink.jdeps.threads'
+   *
+   * @since 1.2.7
+   */
+  @Parameter(name = "threads", defaultValue = "4")
+  private int threads = 4;
+
+  public boolean isPerArtifact() {
+    return Boolean.parseBoolean(
+        this.findProperty("mvn.jlink.jdeps.per.artifact", Boolean.toString(this.perArtifact)));
+  }
+
+  public int getThreads() {
+    return Integer.parseInt(Objects.requireNonNull(
+        findProperty("mvn.jlink.jdeps.threads", Integer.toString(this.threads))));
+  }
+
+  public boolean isReportCache() {
+    return Boolean.parseBoolean(
+        this.findProperty("mvn.jlink.jdeps.cache", Boolean.toString(this.reportCache)));
+  }
+
+  public long getReportCacheMaxSize() {
+    return Long.parseLong(Objects.requireNonNull(findProperty("mvn.jlink.jdeps.cache.max.size",
+        Long.toString(this.reportCacheMaxSize))));
+  }
+
+  private void pruneReportCache(@Nonnull final ReportCache cache, @Nullable final String keepKey) {
+    try {
+      final int removed = cache.prune(this.getReportCacheMaxSize() * 1024L * 1024L, keepKey);
+      if (removed > 0) {
+        this.getLog().debug("Removed " + removed + " least recently used jdeps report(s)");
+      }
+    } catch (IOException ex) {
+      this.getLog().warn("Can't prune jdeps report cache: " + ex.getMessage());
     }
-    final Path execJdepsPath = Paths.get(pathToJdeps);
+  }
 
-    final List<String> cliArguments = new ArrayList<>();
-    cliArguments.add(execJdepsPath.toString());
-    cliArguments.addAll(this.options);
+  @Nullable
+  private static Path findInputPath(@Nonnull final String text) {
+    final String trimmed = text.trim();
+    if (trimmed.isEmpty() || trimmed.startsWith("-")) {
+      return null;
+    }
+    final String pathText =
+        trimmed.endsWith("*") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    try {
+      final Path path = Paths.get(pathText.isEmpty() ? "." : pathText);
+      return Files.exists(path) ? path : null;
+    } catch (InvalidPathException ex) {
+      return null;
+    }
+  }
+
+  private static boolean isOutputPathOption(@Nonnull final String option) {
+    final String trimmed = option.trim();
+    final int equalsIndex = trimmed.indexOf('=');
+    return OUTPUT_PATH_OPTIONS.contains(
+        equalsIndex < 0 ? trimmed : trimmed.substring(0, equalsIndex));
+  }
 
+  private static boolean hasOutputPathOptions(
+      @Nonnull @MustNotContainNull final List<String> options) {
+    return options.stream().anyMatch(MvnJdepsMojo::isOutputPathOption);
+  }
+
+  @Nonnull
+  private InputFingerprint makeFingerprint(
+      @Nonnull final Path execJdepsPath,
+      @Nonnull @MustNotContainNull final List<String> options
+  ) throws MojoExecutionException {
+    final InputFingerprint result = new InputFingerprint()
+        .put("jdeps.version", this.findJdkToolVersion(execJdepsPath))
+        .put("options", String.join(" ", options));
+    int index = 0;
+    boolean outputPath = false;
+    for (final String option : options) {
+      final boolean skip = outputPath;
+      outputPath = isOutputPathOption(option);
+      if (skip || outputPath) {
+        continue;
+      }
+      for (final String element : option.split(File.pathSeparator)) {
+        final Path path = findInputPath(element);
+        if (path != null) {
+          try {
+            result.putContent("path." + index++, path);
+          } catch (IOException ex) {
+            throw new MojoExecutionException("Can't calculate hash of: " + path, ex);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  @Nullable
+  private ReportCache makeReportCache() {
+    try {
+      return new ReportCache(this.findJdkCacheFolder());
+    } catch (IOException ex) {
+      this.getLog().warn("Report cache is not available: " + ex.getMessage());
+      return null;
+    }
+  }
+
+  private void writeOutput(@Nonnull final byte[] report) throws MojoExecutionException {
+    if (this.output != null) {
+      final File outFile = new File(this.output);
+      try {
+        writeByteArrayToFile(outFile, report);
+      } catch (IOException ex) {
+        throw new MojoExecutionException("Can't write jdeps file: " + outFile, ex);
+      }
+      this.getLog()
+          .info("Saved " + report.length + " bytes into file : " + outFile.getAbsolutePath());
+    }
+  }
+
+  /**
+   * Run jdeps and check its output.
+   *
+   * @param log          maven log
+   * @param cliArguments command line, the first item is path to jdeps
+   * @return output stream of jdeps
+   * @throws MojoExecutionException if jdeps can't be started
+   * @throws MojoFailureException   if jdeps returns error or its output contains error
+   */
+  @Nonnull
+  private static byte[] runJdeps(
+      @Nonnull final Log log,
+      @Nonnull @MustNotContainNull final List<String> cliArguments
+  ) throws MojoExecutionException, MojoFailureException {
     log.info("CLI arguments: " + cliArguments.stream().skip(1).collect(Collectors.joining(" ")));
 
     final ByteArrayOutputStream consoleOut = new ByteArrayOutputStream();
@@ -107,16 +302,7 @@ public class MvnJdepsMojo extends AbstractJdkToolMojo {
         log.error(text);
         throw new MojoFailureException("A record that some path doesn't exist has been detected in out stream, it is recognized as error");
       }
-
-      if (this.output != null) {
-        final File outFile = new File(this.output);
-        try {
-          writeByteArrayToFile(outFile, consoleOut.toByteArray());
-        } catch (IOException ex) {
-          throw new MojoExecutionException("Can't write jdeps file: " + outFile, ex);
-        }
-        log.info("Saved " + text.length() + " chars into file : " + outFile.getAbsolutePath());
-      }
+      return consoleOut.toByteArray();
     } else {
       final String strOut = new String(consoleOut.toByteArray(), Charset.defaultCharset());
       final String strErr = new String(consoleErr.toByteArray(), Charset.defaultCharset());
@@ -130,6 +316,188 @@ public class MvnJdepsMojo extends AbstractJdkToolMojo {
 
       throw new MojoFailureException("jdeps returns error status code: " + executor.getExitValue());
     }
+  }
+
+  /**
+   * Split options into artifacts to be analyzed (existing jars and class folders, jars of folder
+   * wildcards) and common options for every jdeps run. Values of path options (like class path)
+   * are kept in common options.
+   *
+   * @param options       options to be split
+   * @param commonOptions list to collect common options
+   * @return found artifacts in order of options
+   */
+  @Nonnull
+  @MustNotContainNull
+  private static List<Path> splitArtifacts(
+      @Nonnull @MustNotContainNull final List<String> options,
+      @Nonnull @MustNotContainNull final List<String> commonOptions
+  ) throws MojoExecutionException {
+    final List<Path> result = new ArrayList<>();
+    boolean optionValue = false;
+    for (final String option : options) {
+      final Path path = optionValue ? null : findInputPath(option);
+      optionValue = PATH_VALUE_OPTIONS.contains(option.trim());
+      if (path == null) {
+        commonOptions.add(option);
+      } else if (option.trim().endsWith("*")) {
+        try (final Stream<Path> stream = Files.list(path)) {
+          stream.filter(x -> Files.isRegularFile(x)
+                  && x.getFileName().toString().toLowerCase(Locale.ENGLISH).endsWith(".jar"))
+              .sorted()
+              .forEach(result::add);
+        } catch (IOException ex) {
+          throw new MojoExecutionException("Can't list folder: " + path, ex);
+        }
+      } else {
+        result.add(path);
+      }
+    }
+    return result;
+  }
+
+  private void analyzePerArtifact(
+      @Nonnull final Log log,
+      @Nonnull final Path execJdepsPath,
+      @Nullable final ReportCache cache
+  ) throws MojoExecutionException, MojoFailureException {
+    final List<String> commonOptions = new ArrayList<>();
+    final List<Path> artifacts = splitArtifacts(this.options, commonOptions);
+    if (artifacts.isEmpty()) {
+      throw new MojoExecutionException("There is no any jar or class folder in options");
+    }
+    final String commonKey = this.makeFingerprint(execJdepsPath, commonOptions).getHash();
+
+    final int threadNumber = Math.max(1, Math.min(this.getThreads(), artifacts.size()));
+    log.info(String.format("Analyzing %d artifact(s) through %d thread(s)", artifacts.size(),
+        threadNumber));
+
+    final ExecutorService executor = Executors.newFixedThreadPool(threadNumber, runnable -> {
+      final Thread thread = new Thread(runnable, "mvn-jlink-jdeps");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    final AtomicInteger cached = new AtomicInteger();
+    final Map<String, String> reports = new LinkedHashMap<>();
+    final List<Throwable> errors = new ArrayList<>();
+    try {
+      final List<Future<byte[]>> futures = new ArrayList<>();
+      for (final Path artifact : artifacts) {
+        futures.add(executor.submit(() -> {
+          final String key = cache == null ? null : new InputFingerprint()
+              .put("options", commonKey)
+              .putContent("artifact", artifact)
+              .getHash();
+          final byte[] found = key == null ? null : cache.load(key);
+          if (found != null) {
+            log.debug("jdeps report of " + artifact + " is taken from cache: " + key);
+            cached.incrementAndGet();
+            return found;
+          }
+          final List<String> cliArguments = new ArrayList<>();
+          cliArguments.add(execJdepsPath.toString());
+          cliArguments.addAll(commonOptions);
+          cliArguments.add(artifact.toString());
+          final byte[] report = runJdeps(log, cliArguments);
+          if (key != null) {
+            try {
+              cache.save(key, report);
+            } catch (IOException ex) {
+              log.warn("Can't save jdeps report in cache: " + ex.getMessage());
+            }
+          }
+          return report;
+        }));
+      }
+
+      for (int i = 0; i < artifacts.size(); i++) {
+        final Path artifact = artifacts.get(i);
+        final String name = String.valueOf(artifact.getFileName());
+        try {
+          reports.put(reports.containsKey(name) ? artifact.toString() : name,
+              new String(futures.get(i).get(), defaultCharset()));
+        } catch (ExecutionException ex) {
+          log.error(String.format("Can't analyze '%s': %s", artifact,
+              ex.getCause().getMessage()));
+          errors.add(ex.getCause());
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new MojoExecutionException("Interrupted during jdeps analysis", ex);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    if (!errors.isEmpty()) {
+      final Throwable first = errors.get(0);
+      final String message = String.format("Can't analyze %d artifact(s) from %d",
+          errors.size(), artifacts.size());
+      if (errors.stream().allMatch(x -> x instanceof MojoFailureException)) {
+        throw new MojoFailureException(message + ": " + first.getMessage());
+      }
+      throw new MojoExecutionException(message, first);
+    }
+
+    if (cache != null) {
+      this.pruneReportCache(cache, null);
+    }
+
+    log.info(String.format("Analyzed %d artifact(s), %d report(s) taken from cache",
+        artifacts.size(), cached.get()));
+    this.writeOutput(StringUtils.mergeJdepsReports(reports).getBytes(defaultCharset()));
+  }
+
+  @Override
+  public void onExecute() throws MojoExecutionException, MojoFailureException {
+    final Log log = this.getLog();
+
+    this.getSourceJdkFolderFromProvider();
 
+    final String pathToJdeps = this.findJdkTool("jdeps");
+    if (pathToJdeps == null) {
+      throw new MojoExecutionException("Can't find jdeps in JDK");
+    }
+    final Path execJdepsPath = Paths.get(pathToJdeps);
+
+    ReportCache cache = this.isReportCache() ? this.makeReportCache() : null;
+    if (cache != null && hasOutputPathOptions(this.options)) {
+      log.info("Report cache is not used because jdeps options write files");
+      cache = null;
+    }
+
+    if (this.isPerArtifact()) {
+      this.analyzePerArtifact(log, execJdepsPath, cache);
+      return;
+    }
+
+    String reportKey = null;
+    if (cache != null) {
+      reportKey = this.makeFingerprint(execJdepsPath, this.options).getHash();
+      final byte[] cached = cache.load(reportKey);
+      if (cached != null) {
+        log.info("Inputs are not changed, jdeps report is taken from cache: " + reportKey);
+        this.writeOutput(cached);
+        return;
+      }
+      log.debug("jdeps report not found in cache: " + reportKey);
+    }
+
+    final List<String> cliArguments = new ArrayList<>();
+    cliArguments.add(execJdepsPath.toString());
+    cliArguments.addAll(this.options);
+
+    final byte[] report = runJdeps(log, cliArguments);
+    this.writeOutput(report);
+
+    if (cache != null) {
+      try {
+        cache.save(reportKey, report);
+      } catch (IOException ex) {
+        log.warn("Can't save jdeps report in cache: " + ex.getMessage());
+      }
+      this.pruneReportCache(cache, reportKey);
+    }
   }
 }
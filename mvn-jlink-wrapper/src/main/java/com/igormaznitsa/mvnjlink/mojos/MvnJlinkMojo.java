@@ -17,6 +17,10 @@ package com.igormaznitsa.mvnjlink.mojos;
 
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.meta.common.utils.GetUtils;
+import com.igormaznitsa.mvnjlink.exceptions.FailureException;
+import com.igormaznitsa.mvnjlink.utils.HttpResponseException;
+import com.igormaznitsa.mvnjlink.utils.ImageCache;
+import com.igormaznitsa.mvnjlink.utils.InputFingerprint;
 import org.apache.commons.io.FileUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -32,15 +36,25 @@ import javax.annotation.Nullable;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.igormaznitsa.mvnjlink.utils.StringUtils.extractJdepsModuleNames;
 import static java.nio.file.Files.isDirectory;
@@ -56,6 +70,10 @@ public class MvnJlinkMojo extends AbstractJdkToolMojo {
 
   private static final String SPECNAME_JDK_JMODS = "JDK.PROVIDER.JMODS";
 
+  private static final String FINGERPRINT_SUFFIX = ".fingerprint";
+
+  private static final String MODULE_PATH_PLACEHOLDER = "${module.path}";
+
   /**
    * Path to the report generated by JDEPS.
    */
@@ -85,11 +103,94 @@ public class MvnJlinkMojo extends AbstractJdkToolMojo {
   private List<String> addModules = new ArrayList<>();
 
   /**
-   * Path to place generated image.
+   * Path to place generated image, required if there are no targets.
    */
-  @Parameter(name = "output", required = true)
+  @Parameter(name = "output")
   private String output;
 
+  /**
+   * List of target images to be generated instead of single output, for instance images for
+   * different platforms. Every target defines its own JDK provider and output folder, it can also
+   * define its own options and module paths, pseudo path 'JDK.PROVIDER.JMODS' points to jmods
+   * folder of the target JDK. Modules, jdeps report and other settings are shared. Target JDKs
+   * are prepared and images are generated in parallel.
+   * <pre>
+   * {@code
+   * <targets>
+   *   <target>
+   *     <output>${project.build.directory}/image-linux</output>
+   *     <provider>ADOPTIUM</provider>
+   *     <providerConfig>
+   *       <version>21.+</version>
+   *       <os>linux</os>
+   *       <arch>x64</arch>
+   *     </providerConfig>
+   *   </target>
+   * </targets>
+   * }
+   * </pre>
+   *
+   * @since 1.2.7
+   */
+  @Parameter(name = "targets")
+  private List<JlinkTarget> targets = new ArrayList<>();
+
+  /**
+   * Max number of targets processed at the same time.
+   * Can be overridden by property 'mvn.jlink.target.threads'
+   *
+   * @since 1.2.7
+   */
+  @Parameter(name = "targetThreads", defaultValue = "2")
+  private int targetThreads = 2;
+
+  private volatile boolean concurrentProcessing;
+
+  /**
+   * Skip jlink if the output image exists and inputs of the image (jlink version, content of
+   * module path folders, list of modules, command line and content of files referenced from
+   * options like argument files) are the same as in the fingerprint manifest saved near the image
+   * by the previous execution. Number and total size of image files are also recorded in the
+   * manifest, so that changed or partly deleted image is regenerated.
+   * Can be overridden by property 'mvn.jlink.incremental'
+   *
+   * @since 1.2.7
+   */
+  @Parameter(name = "incremental", defaultValue = "false")
+  private boolean incremental;
+
+  /**
+   * Keep generated images in the image cache placed in the JDK cache folder. Key of cached image
+   * is formed from jlink version, content of module path folders, list of modules and options, so
+   * that the same image required by different projects or branches is generated only once and
+   * copied from the cache.
+   * Can be overridden by property 'mvn.jlink.image.cache'
+   *
+   * @since 1.2.7
+   */
+  @Parameter(name = "imageCache", defaultValue = "false")
+  private boolean imageCache;
+
+  /**
+   * Make output image from cached one through hard links instead of copying. Files of the output
+   * image must not be changed in the mode because they share content with the cached image.
+   * Can be overridden by property 'mvn.jlink.image.cache.links'
+   *
+   * @since 1.2.7
+   */
+  @Parameter(name = "imageCacheLinks", defaultValue = "false")
+  private boolean imageCacheLinks;
+
+  /**
+   * Max size of the image cache in megabytes, least recently used images are removed if the
+   * size is exceeded.
+   * Can be overridden by property 'mvn.jlink.image.cache.max.size'
+   *
+   * @since 1.2.7
+   */
+  @Parameter(name = "imageCacheMaxSize", defaultValue = "1024")
+  private long imageCacheMaxSize = 1024L;
+
   @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
   @Nonnull
   @MustNotContainNull
@@ -117,6 +218,137 @@ public class MvnJlinkMojo extends AbstractJdkToolMojo {
     this.options = GetUtils.ensureNonNull(value, new ArrayList<>());
   }
 
+  @Nonnull
+  @MustNotContainNull
+  public List<JlinkTarget> getTargets() {
+    return this.targets == null ? Collections.emptyList() : this.targets;
+  }
+
+  public int getTargetThreads() {
+    return Integer.parseInt(Objects.requireNonNull(
+        findProperty("mvn.jlink.target.threads", Integer.toString(this.targetThreads))));
+  }
+
+  @Override
+  public boolean isDownloadProgressVisible() {
+    return !this.concurrentProcessing && super.isDownloadProgressVisible();
+  }
+
+  public boolean isIncremental() {
+    return Boolean.parseBoolean(
+        this.findProperty("mvn.jlink.incremental", Boolean.toString(this.incremental)));
+  }
+
+  public boolean isImageCache() {
+    return Boolean.parseBoolean(
+        this.findProperty("mvn.jlink.image.cache", Boolean.toString(this.imageCache)));
+  }
+
+  public boolean isImageCacheLinks() {
+    return Boolean.parseBoolean(
+        this.findProperty("mvn.jlink.image.cache.links", Boolean.toString(this.imageCacheLinks)));
+  }
+
+  public long getImageCacheMaxSize() {
+    return Long.parseLong(Objects.requireNonNull(findProperty("mvn.jlink.image.cache.max.size",
+        Long.toString(this.imageCacheMaxSize))));
+  }
+
+  @Nonnull
+  private static Path findFingerprintManifest(@Nonnull final Path outputPath) {
+    final Path absolute = outputPath.toAbsolutePath();
+    return absolute.resolveSibling(absolute.getFileName() + FINGERPRINT_SUFFIX);
+  }
+
+  @Nonnull
+  private InputFingerprint makeFingerprint(
+      @Nonnull final Path execJlinkPath,
+      @Nonnull final String modulePath,
+      @Nonnull final String modules,
+      @Nonnull @MustNotContainNull final List<String> commandLineOptions
+  ) throws MojoExecutionException {
+    final InputFingerprint result = new InputFingerprint()
+        .put("jlink.version", this.findJdkToolVersion(execJlinkPath))
+        .put("modules", modules)
+        .put("options", commandLineOptions.stream()
+            .map(x -> x.equals(modulePath) ? MODULE_PATH_PLACEHOLDER : x)
+            .collect(joining(" ")));
+    int index = 0;
+    for (final String path : modulePath.split(File.pathSeparator)) {
+      try {
+        result.putContent("module.path." + index++, Paths.get(path));
+      } catch (IOException ex) {
+        throw new MojoExecutionException("Can't calculate hash of module path: " + path, ex);
+      }
+    }
+    index = 0;
+    for (final String option : commandLineOptions) {
+      if (option.equals(modulePath)) {
+        continue;
+      }
+      final Path file = findOptionFile(option);
+      if (file != null) {
+        try {
+          result.putContent("option.file." + index++, file);
+        } catch (IOException ex) {
+          throw new MojoExecutionException("Can't calculate hash of file: " + file, ex);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Find regular file referenced by option, like argument file ('@file'), value of option
+   * ('--option=file', '--option=@file') or option value placed as separated argument.
+   *
+   * @param option command line option
+   * @return existing regular file or null
+   */
+  @Nullable
+  private static Path findOptionFile(@Nonnull final String option) {
+    String text = option.trim();
+    final int equalsIndex = text.indexOf('=');
+    if (text.startsWith("-") && equalsIndex > 0) {
+      text = text.substring(equalsIndex + 1);
+    }
+    if (text.startsWith("@")) {
+      text = text.substring(1);
+    }
+    if (text.isEmpty() || text.startsWith("-")) {
+      return null;
+    }
+    try {
+      final Path path = Paths.get(text);
+      return Files.isRegularFile(path) ? path : null;
+    } catch (InvalidPathException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Make cheap description of generated image to detect its changes.
+   *
+   * @param image image folder
+   * @return number and total size of image files, or 'none' if there is no image
+   */
+  @Nonnull
+  private static String describeImage(@Nonnull final Path image) {
+    if (!isDirectory(image)) {
+      return "none";
+    }
+    final long[] counters = new long[2];
+    try (final Stream<Path> stream = Files.walk(image)) {
+      stream.filter(Files::isRegularFile).forEach(x -> {
+        counters[0]++;
+        counters[1] += x.toFile().length();
+      });
+    } catch (IOException | UncheckedIOException ex) {
+      return "unknown";
+    }
+    return "files:" + counters[0] + ",size:" + counters[1];
+  }
+
   @Nonnull
   private Path findJmodsFolderInJdk(@Nonnull final Path jdk) throws MojoExecutionException {
     final Path pathToMods = jdk.resolve("jmods");
@@ -127,9 +359,11 @@ public class MvnJlinkMojo extends AbstractJdkToolMojo {
   }
 
   @Nonnull
-  private String formModulePath(@Nonnull final Log log, @Nonnull final Path providerJdk) throws MojoExecutionException {
+  private String formModulePath(@Nonnull final Log log, @Nonnull final Path providerJdk,
+                                @Nullable @MustNotContainNull final String[] modulePaths)
+      throws MojoExecutionException {
     final String result;
-    if (this.modulePaths == null) {
+    if (modulePaths == null) {
       log.info("Provider JDK will be used as module path source: " + providerJdk);
       result = findJmodsFolderInJdk(providerJdk).toString();
     } else {
@@ -137,7 +371,7 @@ public class MvnJlinkMojo extends AbstractJdkToolMojo {
 
       String separator = "";
 
-      for (final String path : this.modulePaths) {
+      for (final String path : modulePaths) {
         buffer.append(separator);
 
         final File modulePathFolder = new File(path.trim().equals(SPECNAME_JDK_JMODS) ? findJmodsFolderInJdk(providerJdk).toString() : path);
@@ -157,13 +391,84 @@ public class MvnJlinkMojo extends AbstractJdkToolMojo {
     return result;
   }
 
+  private static void saveFingerprint(
+      @Nonnull final Log log,
+      @Nonnull final InputFingerprint fingerprint,
+      @Nonnull final Path image,
+      @Nonnull final Path manifest
+  ) {
+    try {
+      fingerprint.put("output.content", describeImage(image)).save(manifest);
+    } catch (IOException ex) {
+      log.warn("Can't save fingerprint file: " + manifest + " (" + ex.getMessage() + ')');
+    }
+  }
+
+  @Nullable
+  private ImageCache makeImageCache() {
+    try {
+      return new ImageCache(this.getLog(), this.findJdkCacheFolder(),
+          this.getCacheLockTimeout());
+    } catch (IOException ex) {
+      this.getLog().warn("Image cache is not available: " + ex.getMessage());
+      return null;
+    }
+  }
+
+  private boolean restoreImageFromCache(
+      @Nonnull final ImageCache cache,
+      @Nonnull final String imageKey,
+      @Nonnull final Path outputPath
+  ) throws MojoExecutionException {
+    try {
+      final long start = System.currentTimeMillis();
+      if (cache.materialize(imageKey, outputPath, this.isImageCacheLinks())) {
+        this.getLog().info(String.format("Image restored from cache in %d ms, jlink is skipped: %s",
+            System.currentTimeMillis() - start, outputPath));
+        return true;
+      }
+      this.getLog().debug("Image not found in cache: " + imageKey);
+    } catch (IOException ex) {
+      this.getLog().warn("Can't restore image from cache: " + ex.getMessage());
+      try {
+        deleteDirectory(outputPath.toFile());
+      } catch (IOException deleteEx) {
+        throw new MojoExecutionException("Can't delete output folder: " + outputPath, deleteEx);
+      }
+    }
+    return false;
+  }
+
+  private void storeImageInCache(
+      @Nonnull final ImageCache cache,
+      @Nonnull final String imageKey,
+      @Nonnull final Path outputPath
+  ) {
+    try {
+      cache.store(imageKey, outputPath);
+      final int removed = cache.prune(this.getImageCacheMaxSize() * 1024L * 1024L, imageKey);
+      this.getLog().info("Image saved in cache" + (removed > 0
+          ? ", removed " + removed + " least recently used image(s)" : ""));
+    } catch (IOException ex) {
+      this.getLog().warn("Can't save image in cache: " + ex.getMessage());
+    }
+  }
+
   @Override
   public void onExecute() throws MojoExecutionException, MojoFailureException {
     final Log log = this.getLog();
 
-    final Path providerJdk = this.getSourceJdkFolderFromProvider();
-
-    final Path outputPath = Paths.get(this.output);
+    final List<JlinkTarget> targets = this.getTargets();
+    final Path providerJdk;
+    if (targets.isEmpty()) {
+      if (this.output == null) {
+        throw new MojoExecutionException("Either 'output' or 'targets' must be defined");
+      }
+      providerJdk = this.getSourceJdkFolderFromProvider();
+    } else {
+      assertTargets(targets);
+      providerJdk = null;
+    }
 
     final String pathToJlink = this.findJdkTool("jlink");
     if (pathToJlink == null) {
@@ -179,10 +484,113 @@ public class MvnJlinkMojo extends AbstractJdkToolMojo {
 
     log.info("List of modules : " + joinedAddModules);
 
-    final List<String> commandLineOptions = new ArrayList<>(this.getOptions());
+    if (providerJdk == null) {
+      this.makeImagesForTargets(log, execJlinkPath, targets, joinedAddModules);
+    } else {
+      this.makeImage(log, execJlinkPath, providerJdk, this.modulePaths, this.getOptions(),
+          Paths.get(this.output), joinedAddModules);
+    }
+  }
 
+  private static void assertTargets(@Nonnull @MustNotContainNull final List<JlinkTarget> targets)
+      throws MojoExecutionException {
+    final Set<Path> outputs = new HashSet<>();
+    for (final JlinkTarget target : targets) {
+      if (target.provider == null) {
+        throw new MojoExecutionException("Provider is not defined for target: " + target);
+      }
+      if (target.output == null || target.output.trim().isEmpty()) {
+        throw new MojoExecutionException("Output is not defined for target: " + target);
+      }
+      if (!outputs.add(Paths.get(target.output).toAbsolutePath().normalize())) {
+        throw new MojoExecutionException("Duplicated output in targets: " + target.output);
+      }
+    }
+  }
+
+  private void makeImagesForTargets(
+      @Nonnull final Log log,
+      @Nonnull final Path execJlinkPath,
+      @Nonnull @MustNotContainNull final List<JlinkTarget> targets,
+      @Nonnull final String joinedAddModules
+  ) throws MojoExecutionException, MojoFailureException {
+    final int threadNumber = Math.max(1, Math.min(this.getTargetThreads(), targets.size()));
+    log.info(String.format("Making %d image(s) through %d thread(s)", targets.size(),
+        threadNumber));
+
+    this.concurrentProcessing = threadNumber > 1;
+    final ExecutorService executor = Executors.newFixedThreadPool(threadNumber, runnable -> {
+      final Thread thread = new Thread(runnable, "mvn-jlink-targets");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    final List<Throwable> errors = new ArrayList<>();
+    final List<String> report = new ArrayList<>();
+    try {
+      final List<Future<Long>> futures = new ArrayList<>();
+      for (final JlinkTarget target : targets) {
+        futures.add(executor.submit(() -> {
+          final long start = System.currentTimeMillis();
+          final Path targetJdk = target.provider.makeInstance(this).getPathToJdk(
+              target.authorization == null ? this.getAuthorization() : target.authorization,
+              target.providerConfig == null ? Collections.emptyMap() : target.providerConfig);
+          log.info(String.format("JDK for target '%s' prepared in %d ms: %s", target.output,
+              System.currentTimeMillis() - start, targetJdk));
+          this.makeImage(log, execJlinkPath, targetJdk,
+              target.modulePaths == null ? this.modulePaths : target.modulePaths,
+              target.options == null ? this.getOptions() : target.options,
+              Paths.get(target.output), joinedAddModules);
+          return System.currentTimeMillis() - start;
+        }));
+      }
+
+      for (int i = 0; i < targets.size(); i++) {
+        final JlinkTarget target = targets.get(i);
+        try {
+          report.add(String.format("%s: OK in %d ms", target.output, futures.get(i).get()));
+        } catch (ExecutionException ex) {
+          report.add(String.format("%s: FAILED, %s", target.output, ex.getCause().getMessage()));
+          errors.add(ex.getCause());
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new MojoExecutionException("Interrupted during image generation", ex);
+    } finally {
+      executor.shutdownNow();
+      this.concurrentProcessing = false;
+    }
+
+    log.info("Results of targets:");
+    report.forEach(x -> log.info("  " + x));
+
+    if (!errors.isEmpty()) {
+      final Throwable first = errors.get(0);
+      final String message = String.format("Can't make %d image(s) from %d, see log for errors",
+          errors.size(), targets.size());
+      if (errors.stream().allMatch(x -> x instanceof MojoFailureException
+          || x instanceof HttpResponseException || x instanceof FailureException)) {
+        throw new MojoFailureException(message + ": " + first.getMessage());
+      }
+      throw new MojoExecutionException(message, first);
+    }
+  }
+
+  private void makeImage(
+      @Nonnull final Log log,
+      @Nonnull final Path execJlinkPath,
+      @Nonnull final Path providerJdk,
+      @Nullable @MustNotContainNull final String[] modulePaths,
+      @Nonnull @MustNotContainNull final List<String> options,
+      @Nonnull final Path outputPath,
+      @Nonnull final String joinedAddModules
+  ) throws MojoExecutionException, MojoFailureException {
+    final List<String> commandLineOptions = new ArrayList<>(options);
+
+    final String modulePath = formModulePath(log, providerJdk, modulePaths);
     commandLineOptions.add("--module-path");
-    commandLineOptions.add(formModulePath(log, providerJdk));
+    commandLineOptions.add(modulePath);
 
     final int indexOptions = commandLineOptions.indexOf("--add-modules");
     if (indexOptions < 0) {
@@ -197,6 +605,38 @@ public class MvnJlinkMojo extends AbstractJdkToolMojo {
       }
     }
 
+    final List<String> commandLine = new ArrayList<>();
+    commandLine.add(execJlinkPath.toString());
+    commandLine.add("--output");
+    commandLine.add(outputPath.toString());
+    commandLine.addAll(commandLineOptions);
+
+    final Path fingerprintManifest = findFingerprintManifest(outputPath);
+    final boolean incrementalMode = this.isIncremental();
+    InputFingerprint fingerprint = null;
+    String imageKey = null;
+    if (incrementalMode || this.isImageCache()) {
+      fingerprint =
+          this.makeFingerprint(execJlinkPath, modulePath, joinedAddModules, commandLineOptions);
+      imageKey = fingerprint.getHash();
+      fingerprint
+          .put("module.path", modulePath)
+          .put("output", outputPath.toAbsolutePath().toString());
+      if (incrementalMode && isDirectory(outputPath)
+          && fingerprint.put("output.content", describeImage(outputPath))
+          .matches(fingerprintManifest)) {
+        log.info("Image is up to date, jlink is skipped: " + outputPath);
+        return;
+      }
+      log.debug("Image key: " + imageKey);
+    }
+
+    try {
+      Files.deleteIfExists(fingerprintManifest);
+    } catch (IOException ex) {
+      throw new MojoExecutionException("Can't delete fingerprint file: " + fingerprintManifest, ex);
+    }
+
     if (isDirectory(outputPath)) {
       log.warn("Deleting existing output folder: " + outputPath);
       try {
@@ -206,13 +646,15 @@ public class MvnJlinkMojo extends AbstractJdkToolMojo {
       }
     }
 
-    final List<String> commandLine = new ArrayList<>();
-    commandLine.add(execJlinkPath.toString());
-    commandLine.add("--output");
-    commandLine.add(outputPath.toString());
-    commandLine.addAll(commandLineOptions);
+    final ImageCache cache = imageKey != null && this.isImageCache() ? this.makeImageCache() : null;
+    if (cache != null && this.restoreImageFromCache(cache, imageKey, outputPath)) {
+      if (incrementalMode) {
+        saveFingerprint(log, fingerprint, outputPath, fingerprintManifest);
+      }
+      return;
+    }
 
-    this.getLog().info("CLI arguments: " + commandLine.stream().skip(1).collect(Collectors.joining(" ")));
+    log.info("CLI arguments: " + commandLine.stream().skip(1).collect(Collectors.joining(" ")));
 
     log.debug("Command line: " + commandLine);
 
@@ -237,6 +679,12 @@ public class MvnJlinkMojo extends AbstractJdkToolMojo {
     if (executor.getExitValue() == 0) {
       log.debug(new String(consoleOut.toByteArray(), Charset.defaultCharset()));
       log.info("Execution completed successfully, the result folder is " + outputPath);
+      if (incrementalMode) {
+        saveFingerprint(log, fingerprint, outputPath, fingerprintManifest);
+      }
+      if (cache != null) {
+        this.storeImageInCache(cache, imageKey, outputPath);
+      }
     } else {
       final String textOut = new String(consoleOut.toByteArray(), Charset.defaultCharset());
       final String textErr = new String(consoleErr.toByteArray(), Charset.defaultCharset());
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.mojos;
+
+import com.igormaznitsa.mvnjlink.exceptions.FailureException;
+import com.igormaznitsa.mvnjlink.utils.HttpResponseException;
+import java.io.IOException;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+
+/**
+ * Allows to load full release list of provider and save it as local release index in the JDK
+ * cache folder. Providers use the index only in offline mode to resolve JDK if its archive is
+ * placed in the cache folder, online builds always load release lists to see new releases.
+ *
+ * @since 1.2.7
+ */
+@Mojo(name = "refresh-index", defaultPhase = LifecyclePhase.INITIALIZE, threadSafe = true)
+public class MvnRefreshIndexMojo extends AbstractJdkToolMojo {
+
+  @Override
+  public void onExecute() throws MojoExecutionException, MojoFailureException {
+    if (this.isOfflineModeActive()) {
+      throw new MojoFailureException("Release index can't be refreshed in offline mode");
+    }
+    try {
+      if (!this.getProvider().makeInstance(this)
+          .refreshReleaseIndex(this.getAuthorization(), this.getProviderConfig())) {
+        throw new MojoFailureException(
+            "Provider " + this.getProvider() + " doesn't support release index");
+      }
+    } catch (HttpResponseException | FailureException ex) {
+      throw new MojoFailureException(ex.getMessage());
+    } catch (IOException ex) {
+      throw new MojoExecutionException("Unexpected error during release index refresh", ex);
+    }
+  }
+}
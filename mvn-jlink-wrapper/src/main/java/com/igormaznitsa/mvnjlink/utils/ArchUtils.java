@@ -18,6 +18,7 @@ package com.igormaznitsa.mvnjlink.utils;
 
 import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
 import static com.igormaznitsa.mvnjlink.utils.SystemUtils.closeCloseable;
+import static java.lang.String.format;
 import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.exists;
 import static java.nio.file.Files.isDirectory;
@@ -39,10 +40,19 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.GZIPInputStream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -53,12 +63,15 @@ import org.apache.commons.compress.archivers.ArchiveStreamFactory;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.maven.plugin.logging.Log;
 
 public final class ArchUtils {
 
   public static final Path NOP_PATH = Paths.get("NOP");
+  private static final int COPY_BUFFER_SIZE = 256 * 1024;
+  private static final int GZIP_RING_SIZE = 64;
+  private static final int TAR_MAGIC_OFFSET = 257;
+  private static final byte[] TAR_MAGIC = new byte[] {'u', 's', 't', 'a', 'r'};
   private static final ArchiveStreamFactory ARCHIVE_STREAM_FACTORY = new ArchiveStreamFactory();
 
   private ArchUtils() {
@@ -66,139 +79,248 @@ public final class ArchUtils {
   }
 
   /**
-   * Find shortes directory path in archive
+   * Find type of archive. The type is detected by signature bytes in the file start, file name
+   * extension is used only if signature is unknown.
    *
-   * @param archiveFile archive file
-   * @return shortest directory path
-   * @throws IOException if any error
+   * @param file archive file
+   * @return detected type: 'zip', 'tar.gz', 'tar' or 'unknown'
    */
-  @Nullable
-  public static String findShortestDirectory(@Nonnull final Path archiveFile)
-      throws IOException {
+  @Nonnull
+  public static String findArchiveType(@Nonnull final Path file) {
+    final byte[] header = new byte[TAR_MAGIC_OFFSET + TAR_MAGIC.length];
+    int headerLength = 0;
+    try (final InputStream in = newInputStream(file)) {
+      while (headerLength < header.length) {
+        final int read = in.read(header, headerLength, header.length - headerLength);
+        if (read < 0) {
+          break;
+        }
+        headerLength += read;
+      }
+    } catch (IOException ex) {
+      headerLength = 0;
+    }
 
-    final String archiveType = findArchiveType(archiveFile);
+    final String detected = findArchiveTypeForSignature(header, headerLength);
+    if (detected != null) {
+      return detected;
+    }
 
-    final ArchEntryGetter entryGetter;
+    final String fileName = assertNotNull(file.getFileName()).toString().toLowerCase(ENGLISH);
+    if (fileName.endsWith(".zip")) {
+      return "zip";
+    }
+    if (fileName.endsWith("tar.gz") || fileName.endsWith(".tgz")) {
+      return "tar.gz";
+    }
+    return "unknown";
+  }
 
-    final ZipFile zipFile;
-    final ArchiveInputStream archiveInputStream;
+  @Nullable
+  private static String findArchiveTypeForSignature(@Nonnull final byte[] header,
+                                                    final int length) {
+    if (length >= 4 && header[0] == 'P' && header[1] == 'K'
+        && ((header[2] == 3 && header[3] == 4)
+        || (header[2] == 5 && header[3] == 6)
+        || (header[2] == 7 && header[3] == 8))) {
+      return "zip";
+    }
+    if (length >= 2 && (header[0] & 0xFF) == 0x1F && (header[1] & 0xFF) == 0x8B) {
+      return "tar.gz";
+    }
+    if (length >= TAR_MAGIC_OFFSET + TAR_MAGIC.length) {
+      boolean tar = true;
+      for (int i = 0; i < TAR_MAGIC.length && tar; i++) {
+        tar = header[TAR_MAGIC_OFFSET + i] == TAR_MAGIC[i];
+      }
+      if (tar) {
+        return "tar";
+      }
+    }
+    return null;
+  }
 
+  /**
+   * Make index of archive entries without unpacking. ZIP index is made from its central
+   * directory, other archives are read through stream.
+   *
+   * @param archiveFile archive file
+   * @return index of archive entries
+   * @throws IOException if any error
+   * @since 1.2.7
+   */
+  @Nonnull
+  public static ArchiveIndex inspectArchive(@Nonnull final Path archiveFile) throws IOException {
+    final String archiveType = findArchiveType(archiveFile);
+    final List<ArchiveIndex.Entry> entries = new ArrayList<>();
     if ("zip".equals(archiveType)) {
-      zipFile = new ZipFile(archiveFile.toFile());
-      archiveInputStream = null;
-
-      entryGetter = new ArchEntryGetter() {
-        private final Enumeration<ZipArchiveEntry> iterator = zipFile.getEntries();
-
-        @Nullable
-        @Override
-        public ArchiveEntry getNextEntry() throws IOException {
-          ArchiveEntry result = null;
-          if (this.iterator.hasMoreElements()) {
-            result = this.iterator.nextElement();
-          }
-          return result;
+      try (final ZipFile zipFile = new ZipFile(archiveFile.toFile())) {
+        final Enumeration<ZipArchiveEntry> iterator = zipFile.getEntries();
+        while (iterator.hasMoreElements()) {
+          entries.add(makeIndexEntry(iterator.nextElement()));
         }
-      };
+      }
     } else {
-      zipFile = null;
-      try {
-        if ("tar.gz".equals(archiveType)) {
-          archiveInputStream = new KamranzafarTarArchiveFacade(
-              new GZIPInputStream(fileAsInputStream(archiveFile)));
-
-          entryGetter = new ArchEntryGetter() {
-            @Nullable
-            @Override
-            public ArchiveEntry getNextEntry() throws IOException {
-              return archiveInputStream.getNextEntry();
-            }
-          };
-
-        } else {
-          archiveInputStream = ARCHIVE_STREAM_FACTORY.createArchiveInputStream(
-              new BufferedInputStream(fileAsInputStream(archiveFile)));
-
-          entryGetter = new ArchEntryGetter() {
-            @Nullable
-            @Override
-            public ArchiveEntry getNextEntry() throws IOException {
-              return archiveInputStream.getNextEntry();
-            }
-          };
+      try (final ArchiveInputStream<?> archiveInputStream = openArchiveStream(archiveFile,
+          archiveType)) {
+        while (!Thread.currentThread().isInterrupted()) {
+          final ArchiveEntry entry = archiveInputStream.getNextEntry();
+          if (entry == null) {
+            break;
+          }
+          entries.add(makeIndexEntry(entry));
         }
-
-      } catch (ArchiveException ex) {
-        throw new IOException("Can't recognize or read archive file : " + archiveFile, ex);
-      } catch (CantReadArchiveEntryException ex) {
-        throw new IOException("Can't read entry from archive file : " + archiveFile, ex);
       }
     }
+    return new ArchiveIndex(archiveType, entries);
+  }
+
+  /**
+   * Unpack whole archive into a folder in single pass. If all archive folders are placed in the
+   * same root folder then content of the root folder is moved into the destination folder,
+   * files placed out of the root folder are ignored.
+   *
+   * @param logger            maven logger for logging, must not be null
+   * @param tryMakeExecutable true if to make bin files executable ones
+   * @param archiveFile       the archive to be unpacked
+   * @param destinationFolder the destination folder for unpacking
+   * @return index of unpacked entries
+   * @throws IOException it will be thrown for error in unpack process
+   * @since 1.2.7
+   */
+  @Nonnull
+  public static ArchiveIndex unpackArchive(
+      @Nonnull final Log logger,
+      final boolean tryMakeExecutable,
+      @Nonnull final Path archiveFile,
+      @Nonnull final Path destinationFolder
+  ) throws IOException {
+    return unpackArchive(logger, tryMakeExecutable, archiveFile, destinationFolder, 1);
+  }
 
+  /**
+   * Unpack whole archive into a folder in single pass. ZIP entries can be inflated by several
+   * threads because ZIP allows random access to entries. TAR.GZ is inflated in separate thread
+   * and, if it is block compressed GZIP, by several threads; TAR entries are written sequentially.
+   *
+   * @param logger            maven logger for logging, must not be null
+   * @param tryMakeExecutable true if to make bin files executable ones
+   * @param archiveFile       the archive to be unpacked
+   * @param destinationFolder the destination folder for unpacking
+   * @param threads           number of threads to unpack ZIP entries or inflate GZIP blocks
+   * @return index of unpacked entries
+   * @throws IOException it will be thrown for error in unpack process
+   * @since 1.2.7
+   */
+  @Nonnull
+  public static ArchiveIndex unpackArchive(
+      @Nonnull final Log logger,
+      final boolean tryMakeExecutable,
+      @Nonnull final Path archiveFile,
+      @Nonnull final Path destinationFolder,
+      final int threads
+  ) throws IOException {
+    final String archiveType = findArchiveType(archiveFile);
+    logger.info("Detected archive type: " + archiveType);
+
+    final List<ArchiveIndex.Entry> entries = new ArrayList<>();
+    if (!exists(destinationFolder)) {
+      createDirectories(destinationFolder);
+    }
     try {
-      String result = null;
-      while (!Thread.currentThread().isInterrupted()) {
-        final ArchiveEntry entry = entryGetter.getNextEntry();
-        if (entry == null) {
-          break;
+      if ("zip".equals(archiveType)) {
+        try (final ZipFile zipFile = new ZipFile(archiveFile.toFile())) {
+          if (threads > 1) {
+            unpackZipEntriesInParallel(logger, tryMakeExecutable, zipFile, destinationFolder,
+                threads, entries);
+          } else {
+            final Enumeration<ZipArchiveEntry> iterator = zipFile.getEntries();
+            unpackEntries(logger, tryMakeExecutable,
+                () -> iterator.hasMoreElements() ? iterator.nextElement() : null, zipFile, null,
+                destinationFolder, Collections.emptyList(), entries);
+          }
         }
-        String path = entry.getName();
-        boolean dotRootPrefix = false;
-        if (path.startsWith("./")) {
-          path = path.substring(2);
-          dotRootPrefix = true;
+      } else if ("tar.gz".equals(archiveType)) {
+        final long start = System.currentTimeMillis();
+        try (final ParallelGzipInputStream gzipInputStream = openGzipStream(logger,
+            fileAsInputStream(archiveFile), threads);
+             final ArchiveInputStream<?> archiveInputStream =
+                 new TarArchiveReader(gzipInputStream)) {
+          unpackEntries(logger, tryMakeExecutable, archiveInputStream::getNextEntry, null,
+              archiveInputStream, destinationFolder, Collections.emptyList(), entries);
+          logGzipStatistics(logger, gzipInputStream, start);
         }
-        final int separator = path.indexOf('/');
-        if (separator >= 0) {
-          result = path.substring(0, separator);
-          if (dotRootPrefix) {
-            result = "./" + result;
-          }
+      } else {
+        try (final ArchiveInputStream<?> archiveInputStream = openArchiveStream(archiveFile,
+            archiveType)) {
+          unpackEntries(logger, tryMakeExecutable, archiveInputStream::getNextEntry, null,
+              archiveInputStream, destinationFolder, Collections.emptyList(), entries);
         }
       }
-
-      closeCloseable(archiveInputStream, null);
-      closeCloseable(zipFile, null);
-
-      return result;
     } catch (IOException ex) {
       throw new IOException(
           "Can't read file because '" + ex.getMessage() + "' : " + archiveFile.toAbsolutePath(),
           ex);
     }
+
+    final ArchiveIndex result = new ArchiveIndex(archiveType, entries);
+    logger.debug("Archive index: " + result);
+    moveRootFolderContent(logger, destinationFolder.toFile(), result.getRootFolder());
+    postProcessUnpackedArchive(logger, destinationFolder.toFile());
+    return result;
   }
 
   @Nonnull
-  public static String findArchiveType(@Nonnull final Path file) {
-    final String fileName = file.getFileName().toString().toLowerCase(ENGLISH);
-
-    if (fileName.endsWith(".zip")) {
-      return "zip";
-    }
-    if (fileName.endsWith("tar.gz")) {
-      return "tar.gz";
-    }
-
-    ZipFile zipFile = null;
+  private static ArchiveInputStream<?> openArchiveStream(
+      @Nonnull final Path archiveFile,
+      @Nonnull final String archiveType
+  ) throws IOException {
     try {
-      zipFile = new ZipFile(file.toFile());
-      return "zip";
-    } catch (Exception ex) {
-      // do nothing
-    } finally {
-      IOUtils.closeQuietly(zipFile);
+      if ("tar.gz".equals(archiveType)) {
+        return new TarArchiveReader(new GZIPInputStream(fileAsInputStream(archiveFile)));
+      } else if ("tar".equals(archiveType)) {
+        return new TarArchiveReader(fileAsInputStream(archiveFile));
+      } else {
+        return ARCHIVE_STREAM_FACTORY.createArchiveInputStream(fileAsInputStream(archiveFile));
+      }
+    } catch (ArchiveException ex) {
+      throw new IOException("Can't recognize or read archive file : " + archiveFile, ex);
     }
-    KamranzafarTarArchiveFacade tarGzFile = null;
-    try {
-      tarGzFile = new KamranzafarTarArchiveFacade(
-          new GZIPInputStream(fileAsInputStream(file)));
-      return "tar.gz";
-    } catch (Exception ex) {
-      // do nothing
-    } finally {
-      IOUtils.closeQuietly(tarGzFile);
+  }
+
+  @Nonnull
+  private static ParallelGzipInputStream openGzipStream(
+      @Nonnull final Log logger,
+      @Nonnull final InputStream inputStream,
+      final int threads
+  ) throws IOException {
+    final ParallelGzipInputStream result =
+        new ParallelGzipInputStream(inputStream, threads, GZIP_RING_SIZE);
+    logger.info(format("GZIP inflate mode: %s, threads: %d", result.getMode(),
+        result.getThreads()));
+    return result;
+  }
+
+  private static void logGzipStatistics(
+      @Nonnull final Log logger,
+      @Nonnull final ParallelGzipInputStream gzipInputStream,
+      final long startTime
+  ) {
+    logger.info(format("Inflated %d byte(s) in %d ms, mode: %s, threads: %d, BGZF members: %d",
+        gzipInputStream.getInflatedBytes(), System.currentTimeMillis() - startTime,
+        gzipInputStream.getMode(), gzipInputStream.getThreads(), gzipInputStream.getMembers()));
+  }
+
+  @Nonnull
+  private static ArchiveIndex.Entry makeIndexEntry(@Nonnull final ArchiveEntry entry) {
+    int mode = -1;
+    if (entry instanceof ZipArchiveEntry) {
+      final int unixMode = ((ZipArchiveEntry) entry).getUnixMode();
+      mode = unixMode == 0 ? -1 : unixMode & 07777;
+    } else if (entry instanceof TarArchiveReader.TarEntry) {
+      mode = ((TarArchiveReader.TarEntry) entry).getMode() & 07777;
     }
-    return "unknown";
+    return new ArchiveIndex.Entry(entry.getName(), entry.getSize(), mode, entry.isDirectory());
   }
 
   @Nonnull
@@ -252,11 +374,10 @@ public final class ArchUtils {
     } else {
       zipFile = null;
       try {
-        if (detectedArchiveType.equals("tar.gz")) {
-          logger.debug("Detected TAR.GZ archive");
+        if (detectedArchiveType.equals("tar.gz") || detectedArchiveType.equals("tar")) {
+          logger.debug("Detected TAR archive");
 
-          archiveInputStream =
-              new KamranzafarTarArchiveFacade(new GZIPInputStream(fileAsInputStream(archiveFile)));
+          archiveInputStream = openArchiveStream(archiveFile, detectedArchiveType);
 
           entryGetter = new ArchEntryGetter() {
             @Nullable
@@ -292,101 +413,456 @@ public final class ArchUtils {
       final List<String> normalizedFolders =
           of(foldersToUnpack).map(x -> normalize(x, true) + '/').collect(toList());
 
-      int unpackedFilesCounter = 0;
+      final int unpackedFilesCounter =
+          unpackEntries(logger, tryMakeExecutable, entryGetter, zipFile, archiveInputStream,
+              destinationFolder, normalizedFolders, null);
 
+      postProcessUnpackedArchive(logger, destinationFolder.toFile());
+      return unpackedFilesCounter;
+    } catch (IOException ex) {
+      throw new IOException(
+          "Can't read file because '" + ex.getMessage() + "' : " + archiveFile.toAbsolutePath(),
+          ex);
+    } finally {
+      closeCloseable(zipFile, logger);
+      closeCloseable(archiveInputStream, logger);
+    }
+  }
+
+  /**
+   * Unpack TAR.GZ archive from stream into a folder. If all archive entries are placed in the
+   * same root folder then content of the root folder is moved into the destination folder.
+   * The gzip stream is read till its end to get all bytes through the source stream.
+   *
+   * @param logger            maven logger for logging, must not be null
+   * @param tryMakeExecutable true if to make bin files executable ones
+   * @param gzippedStream     source stream of TAR.GZ archive, it will be closed
+   * @param destinationFolder the destination folder for unpacking
+   * @param threads           number of threads to inflate block compressed GZIP
+   * @return number of extracted files
+   * @throws IOException it will be thrown for error in unpack process
+   * @since 1.2.7
+   */
+  public static int unpackTarGzStream(
+      @Nonnull final Log logger,
+      final boolean tryMakeExecutable,
+      @Nonnull final InputStream gzippedStream,
+      @Nonnull final Path destinationFolder,
+      final int threads
+  ) throws IOException {
+    final long start = System.currentTimeMillis();
+    final ParallelGzipInputStream gzipInputStream =
+        openGzipStream(logger, gzippedStream, threads);
+    final ArchiveInputStream<?> archiveInputStream = new TarArchiveReader(gzipInputStream);
+    try {
+      if (!exists(destinationFolder)) {
+        createDirectories(destinationFolder);
+      }
+      final List<ArchiveIndex.Entry> entries = new ArrayList<>();
+      final int unpackedFilesCounter = unpackEntries(logger, tryMakeExecutable,
+          archiveInputStream::getNextEntry, null, archiveInputStream, destinationFolder,
+          Collections.emptyList(), entries);
+
+      final byte[] buffer = new byte[64 * 1024];
+      long tail = 0L;
       while (!Thread.currentThread().isInterrupted()) {
-        final ArchiveEntry entry = entryGetter.getNextEntry();
-        if (entry == null) {
+        final int read = gzipInputStream.read(buffer);
+        if (read < 0) {
           break;
         }
-        logger.debug(
-            "Unpacking entry: " + entry.getName() + " size " + entry.getSize() + " byte(s)");
-
-        final String normalizedPath = normalize(entry.getName(), true);
-
-        if (normalizedFolders.isEmpty() ||
-            normalizedFolders.stream().anyMatch(normalizedPath::startsWith)) {
-          final String normalizedFolder =
-              normalizedFolders.stream().filter(normalizedPath::startsWith).findFirst().orElse("");
-          final Path targetFile =
-              destinationFolder == NOP_PATH ? NOP_PATH : get(destinationFolder.toString(),
-                  normalizedPath.substring(normalizedFolder.length()));
-
-          if (entry.isDirectory()) {
-            logger.debug("Folder : " + normalizedPath);
-            if (!exists(targetFile)) {
-              createDirectories(targetFile);
-            }
+        tail += read;
+      }
+      logger.debug("Read " + tail + " byte(s) of TAR tail");
+      logGzipStatistics(logger, gzipInputStream, start);
+
+      final ArchiveIndex index = new ArchiveIndex("tar.gz", entries);
+      logger.debug("Archive index: " + index);
+      moveRootFolderContent(logger, destinationFolder.toFile(), index.getRootFolder());
+      postProcessUnpackedArchive(logger, destinationFolder.toFile());
+      return unpackedFilesCounter;
+    } finally {
+      closeCloseable(archiveInputStream, logger);
+    }
+  }
+
+  private static int unpackEntries(
+      @Nonnull final Log logger,
+      final boolean tryMakeExecutable,
+      @Nonnull final ArchEntryGetter entryGetter,
+      @Nullable final ZipFile zipFile,
+      @Nullable final ArchiveInputStream<?> archiveInputStream,
+      @Nonnull final Path destinationFolder,
+      @Nonnull @MustNotContainNull final List<String> normalizedFolders,
+      @Nullable @MustNotContainNull final List<ArchiveIndex.Entry> indexCollector
+  ) throws IOException {
+    int unpackedFilesCounter = 0;
+    final byte[] copyBuffer = new byte[COPY_BUFFER_SIZE];
+
+    while (!Thread.currentThread().isInterrupted()) {
+      final ArchiveEntry entry = entryGetter.getNextEntry();
+      if (entry == null) {
+        break;
+      }
+      logger.debug(
+          "Unpacking entry: " + entry.getName() + " size " + entry.getSize() + " byte(s)");
+      if (indexCollector != null) {
+        indexCollector.add(makeIndexEntry(entry));
+      }
+
+      final String normalizedPath = normalize(entry.getName(), true);
+
+      if (normalizedFolders.isEmpty() ||
+          normalizedFolders.stream().anyMatch(normalizedPath::startsWith)) {
+        final String normalizedFolder =
+            normalizedFolders.stream().filter(normalizedPath::startsWith).findFirst().orElse("");
+        final Path targetFile =
+            destinationFolder == NOP_PATH ? NOP_PATH : get(destinationFolder.toString(),
+                normalizedPath.substring(normalizedFolder.length()));
+
+        if (targetFile != NOP_PATH && !isLinkFreePath(destinationFolder, targetFile.getParent())) {
+          throw new IOException("Archive entry passes through symbolic link: " + entry.getName());
+        }
+
+        if (entry.isDirectory()) {
+          logger.debug("Folder : " + normalizedPath);
+          if (!exists(targetFile)) {
+            createDirectories(targetFile);
+          }
+        } else if (entry instanceof TarArchiveReader.TarEntry
+            && (((TarArchiveReader.TarEntry) entry).isSymbolicLink()
+            || ((TarArchiveReader.TarEntry) entry).isHardLink())) {
+          if (targetFile != NOP_PATH) {
+            makeLink(logger, destinationFolder, targetFile, (TarArchiveReader.TarEntry) entry);
+          }
+          unpackedFilesCounter++;
+        } else {
+          final Path parent = targetFile.getParent();
+
+          if (parent != null && !isDirectory(parent)) {
+            createDirectories(parent);
+          }
+
+          if (Files.isDirectory(targetFile)) {
+            logger.warn("Ignoring artifact because already presented unpacked folder: " + entry);
           } else {
-            final Path parent = targetFile.getParent();
 
-            if (parent != null && !isDirectory(parent)) {
-              createDirectories(parent);
-            }
+            try (final OutputStream fos = makeFileOutputStream(targetFile)) {
+              if (zipFile != null) {
+                logger.debug("Unpacking ZIP entry : " + normalizedPath);
 
-            if (Files.isDirectory(targetFile)) {
-              logger.warn("Ignoring artifact because already presented unpacked folder: " + entry);
-            } else {
-
-              try (final OutputStream fos = makeFileOutputStream(targetFile)) {
-                if (zipFile != null) {
-                  logger.debug("Unpacking ZIP entry : " + normalizedPath);
-
-                  try (final InputStream zipEntryInStream = zipFile.getInputStream(
-                      (ZipArchiveEntry) entry)) {
-                    if (copy(zipEntryInStream, fos) != entry.getSize()) {
-                      throw new IOException(
-                          "Can't unpack file, illegal unpacked length : " + entry.getName());
-                    }
-                  }
-                } else {
-                  logger.debug("Unpacking archive entry : " + normalizedPath);
-
-                  if (!archiveInputStream.canReadEntryData(entry)) {
-                    throw new IOException("Can't read archive entry data : " + normalizedPath);
-                  }
-
-                  final byte[] readArray = IOUtils.toByteArray(archiveInputStream);
-                  if (readArray.length != entry.getSize()) {
-                    throw new IOException(
-                        "Can't unpack file, illegal unpacked length (" + readArray.length + "!=" +
-                            entry.getSize() + "): " + entry.getName());
-                  }
-                  IOUtils.write(readArray, fos);
+                copyZipEntry(zipFile, (ZipArchiveEntry) entry, fos);
+              } else {
+                logger.debug("Unpacking archive entry : " + normalizedPath);
+
+                if (!archiveInputStream.canReadEntryData(entry)) {
+                  throw new IOException("Can't read archive entry data : " + normalizedPath);
                 }
-              }
 
-              if (tryMakeExecutable) {
-                final String name =
-                    assertNotNull(targetFile.getFileName()).toString().toLowerCase(ENGLISH);
-                if (Files.size(targetFile) > 0 && (name.endsWith(".bat")
-                    || name.endsWith(".cmd")
-                    || name.endsWith(".exe")
-                    || name.endsWith(".sh")
-                    || !name.contains("."))) {
-                  if (!targetFile.toFile().setExecutable(true, true)) {
-                    logger.warn("Can't make executable : " + targetFile);
-                  }
+                final long copied =
+                    copyEntryData(archiveInputStream, fos, entry.getSize(), copyBuffer);
+                if (copied != entry.getSize()) {
+                  throw new IOException(
+                      "Can't unpack file, illegal unpacked length (" + copied + "!=" +
+                          entry.getSize() + "): " + entry.getName());
                 }
               }
             }
-            unpackedFilesCounter++;
+
+            if (tryMakeExecutable && targetFile != NOP_PATH) {
+              makeExecutableIfNeeded(logger, targetFile, makeIndexEntry(entry).getMode());
+            }
           }
-        } else {
-          logger.debug("Archive entry " + normalizedPath + " ignored");
+          unpackedFilesCounter++;
         }
+      } else {
+        logger.debug("Archive entry " + normalizedPath + " ignored");
       }
+    }
 
-      postProcessUnpackedArchive(logger, destinationFolder.toFile());
-      return unpackedFilesCounter;
-    } catch (IOException ex) {
-      throw new IOException(
-          "Can't read file because '" + ex.getMessage() + "' : " + archiveFile.toAbsolutePath(),
-          ex);
+    return unpackedFilesCounter;
+  }
+
+  private static void unpackZipEntriesInParallel(
+      @Nonnull final Log logger,
+      final boolean tryMakeExecutable,
+      @Nonnull final ZipFile zipFile,
+      @Nonnull final Path destinationFolder,
+      final int threads,
+      @Nonnull @MustNotContainNull final List<ArchiveIndex.Entry> indexCollector
+  ) throws IOException {
+    final List<ZipArchiveEntry> fileEntries = new ArrayList<>();
+    final Enumeration<ZipArchiveEntry> iterator = zipFile.getEntries();
+    while (iterator.hasMoreElements()) {
+      final ZipArchiveEntry entry = iterator.nextElement();
+      indexCollector.add(makeIndexEntry(entry));
+      final Path targetFile = get(destinationFolder.toString(), normalize(entry.getName(), true));
+      if (entry.isDirectory()) {
+        if (!exists(targetFile)) {
+          createDirectories(targetFile);
+        }
+      } else {
+        final Path parent = targetFile.getParent();
+        if (parent != null && !isDirectory(parent)) {
+          createDirectories(parent);
+        }
+        fileEntries.add(entry);
+      }
+    }
+
+    logger.debug(format("Unpacking %d ZIP entries through %d threads", fileEntries.size(),
+        threads));
+
+    final ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+      final Thread thread = new Thread(runnable, "mvn-jlink-zip-unpacker");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      final List<Future<?>> futures = new ArrayList<>(fileEntries.size());
+      for (final ZipArchiveEntry entry : fileEntries) {
+        futures.add(executor.submit(() -> {
+          final String normalizedPath = normalize(entry.getName(), true);
+          final Path targetFile = get(destinationFolder.toString(), normalizedPath);
+          if (isDirectory(targetFile)) {
+            logger.warn("Ignoring artifact because already presented unpacked folder: " + entry);
+          } else {
+            logger.debug("Unpacking ZIP entry : " + normalizedPath);
+            try (final OutputStream fos = makeFileOutputStream(targetFile)) {
+              copyZipEntry(zipFile, entry, fos);
+            }
+            if (tryMakeExecutable) {
+              makeExecutableIfNeeded(logger, targetFile, makeIndexEntry(entry).getMode());
+            }
+          }
+          return null;
+        }));
+      }
+      for (final Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new IOException("ZIP unpacking interrupted", ex);
+        } catch (ExecutionException ex) {
+          if (ex.getCause() instanceof IOException) {
+            throw (IOException) ex.getCause();
+          }
+          throw new IOException("Error during ZIP entry unpacking", ex.getCause());
+        }
+      }
     } finally {
-      closeCloseable(zipFile, logger);
-      closeCloseable(archiveInputStream, logger);
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Copy data of current archive entry through provided buffer. Declared size bounds number of
+   * read bytes, if the stream contains more data for the entry then -1 is returned.
+   *
+   * @param inputStream  archive stream positioned on entry data
+   * @param outputStream target stream
+   * @param declaredSize declared size of entry data, negative if unknown
+   * @param buffer       buffer to be used for copying
+   * @return number of copied bytes or -1 if entry contains more data than declared
+   * @throws IOException if any transport error
+   */
+  private static long copyEntryData(
+      @Nonnull final InputStream inputStream,
+      @Nonnull final OutputStream outputStream,
+      final long declaredSize,
+      @Nonnull final byte[] buffer
+  ) throws IOException {
+    long copied = 0L;
+    while (declaredSize < 0L || copied < declaredSize) {
+      final int toRead = declaredSize < 0L ? buffer.length
+          : (int) Math.min(buffer.length, declaredSize - copied);
+      final int read = inputStream.read(buffer, 0, toRead);
+      if (read < 0) {
+        return copied;
+      }
+      outputStream.write(buffer, 0, read);
+      copied += read;
     }
+    return inputStream.read() < 0 ? copied : -1L;
+  }
+
+  private static void copyZipEntry(
+      @Nonnull final ZipFile zipFile,
+      @Nonnull final ZipArchiveEntry entry,
+      @Nonnull final OutputStream outputStream
+  ) throws IOException {
+    try (final InputStream zipEntryInStream = zipFile.getInputStream(entry)) {
+      if (copy(zipEntryInStream, outputStream) != entry.getSize()) {
+        throw new IOException(
+            "Can't unpack file, illegal unpacked length : " + entry.getName());
+      }
+    }
+  }
+
+  /**
+   * Make file executable one. If unix mode of entry is known then its execute bits are used,
+   * otherwise the decision is made by the file name.
+   *
+   * @param logger     maven logger
+   * @param targetFile unpacked file
+   * @param mode       unix mode of archive entry, -1 if unknown
+   * @throws IOException if any error
+   */
+  private static void makeExecutableIfNeeded(@Nonnull final Log logger,
+                                             @Nonnull final Path targetFile,
+                                             final int mode)
+      throws IOException {
+    if (mode >= 0) {
+      if ((mode & 0111) != 0 && !targetFile.toFile().setExecutable(true, (mode & 0011) == 0)) {
+        logger.warn("Can't make executable : " + targetFile);
+      }
+      return;
+    }
+    final String name = assertNotNull(targetFile.getFileName()).toString().toLowerCase(ENGLISH);
+    if (Files.size(targetFile) > 0 && (name.endsWith(".bat")
+        || name.endsWith(".cmd")
+        || name.endsWith(".exe")
+        || name.endsWith(".sh")
+        || !name.contains("."))) {
+      if (!targetFile.toFile().setExecutable(true, true)) {
+        logger.warn("Can't make executable : " + targetFile);
+      }
+    }
+  }
+
+  private static void makeLink(
+      @Nonnull final Log logger,
+      @Nonnull final Path destinationFolder,
+      @Nonnull final Path targetFile,
+      @Nonnull final TarArchiveReader.TarEntry entry
+  ) throws IOException {
+    final Path parent = assertNotNull(targetFile.toAbsolutePath().getParent());
+    if (!isDirectory(parent)) {
+      createDirectories(parent);
+    }
+    final String linkName = entry.getLinkName().replace('\\', '/');
+    final Path realRoot = destinationFolder.toRealPath();
+    if (entry.isSymbolicLink()) {
+      final Path linkTarget = Paths.get(linkName);
+      final Path resolved = linkName.isEmpty() || linkTarget.isAbsolute() ? null
+          : resolveInside(realRoot, parent.toRealPath(), linkTarget);
+      if (resolved == null) {
+        logger.warn("Ignoring symbolic link pointing out of unpack folder: " + entry.getName()
+            + " -> " + linkName);
+        return;
+      }
+      logger.debug("Symbolic link : " + entry.getName() + " -> " + linkName);
+      Files.deleteIfExists(targetFile);
+      try {
+        Files.createSymbolicLink(targetFile, linkTarget);
+      } catch (IOException | UnsupportedOperationException ex) {
+        logger.warn("Can't create symbolic link " + targetFile + " -> " + linkName + ": "
+            + ex.getMessage());
+      }
+    } else {
+      final Path source = realRoot.resolve(ArchiveIndex.normalizeName(linkName)).normalize();
+      if (!source.startsWith(realRoot) || !isLinkFreePath(realRoot, source)
+          || !Files.isRegularFile(source, LinkOption.NOFOLLOW_LINKS)) {
+        logger.warn("Ignoring hard link to unknown file: " + entry.getName() + " -> " + linkName);
+        return;
+      }
+      logger.debug("Hard link : " + entry.getName() + " -> " + linkName);
+      Files.copy(source, targetFile, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.COPY_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+    }
+  }
+
+  /**
+   * Check that path inside unpack folder doesn't pass through symbolic links, so that an entry
+   * can't be written out of the folder through a link made by a previous entry.
+   *
+   * @param destinationFolder unpack folder
+   * @param path              checked path, can be null
+   * @return true if no one existing element of path under unpack folder is symbolic link
+   */
+  private static boolean isLinkFreePath(
+      @Nonnull final Path destinationFolder,
+      @Nullable final Path path
+  ) {
+    if (path == null) {
+      return true;
+    }
+    final Path root = destinationFolder.toAbsolutePath().normalize();
+    final Path normalized = path.toAbsolutePath().normalize();
+    if (!normalized.startsWith(root)) {
+      return false;
+    }
+    Path current = root;
+    for (final Path name : root.relativize(normalized)) {
+      current = current.resolve(name);
+      if (Files.isSymbolicLink(current)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Resolve target of symbolic link element by element, already existing links are followed, so
+   * that the real target is checked instead of the path text.
+   *
+   * @param realRoot   real path of unpack folder
+   * @param realFolder real path of folder containing the link
+   * @param linkTarget relative link target
+   * @return resolved real path or null if the target or any intermediate path is out of root
+   */
+  @Nullable
+  private static Path resolveInside(
+      @Nonnull final Path realRoot,
+      @Nonnull final Path realFolder,
+      @Nonnull final Path linkTarget
+  ) {
+    Path current = realFolder;
+    for (final Path name : linkTarget) {
+      final String text = name.toString();
+      if (text.isEmpty() || ".".equals(text)) {
+        continue;
+      }
+      current = "..".equals(text) ? current.getParent() : current.resolve(text);
+      if (current == null || !current.startsWith(realRoot)) {
+        return null;
+      }
+      if (Files.isSymbolicLink(current)) {
+        try {
+          current = current.toRealPath();
+        } catch (IOException ex) {
+          return null;
+        }
+        if (!current.startsWith(realRoot)) {
+          return null;
+        }
+      }
+    }
+    return current;
+  }
+
+  private static void moveRootFolderContent(@Nonnull final Log logger,
+                                            @Nonnull final File unpackFolder,
+                                            @Nullable final String rootFolder)
+      throws IOException {
+    if (rootFolder == null) {
+      return;
+    }
+    final File unpackedRoot = new File(unpackFolder, rootFolder);
+    if (!unpackedRoot.isDirectory()) {
+      return;
+    }
+    logger.debug("Moving content of archive root folder: " + rootFolder);
+    final File renamedDestinationFolder =
+        new File(unpackFolder.getParent(), "." + unpackFolder.getName() + "_tmp");
+    if (renamedDestinationFolder.exists()) {
+      FileUtils.deleteDirectory(renamedDestinationFolder);
+    }
+    if (!unpackFolder.renameTo(renamedDestinationFolder)) {
+      throw new IOException("Can't rename " + unpackFolder + " to " + renamedDestinationFolder);
+    }
+    FileUtils.moveDirectory(new File(renamedDestinationFolder, rootFolder), unpackFolder);
+    FileUtils.deleteDirectory(renamedDestinationFolder);
   }
 
   @Nonnull
@@ -395,7 +871,12 @@ public final class ArchUtils {
     if (targetFile == NOP_PATH) {
       return new ByteArrayOutputStream();
     } else {
-      return newOutputStream(targetFile);
+      if (Files.isSymbolicLink(targetFile)) {
+        Files.delete(targetFile);
+      }
+      return newOutputStream(targetFile, StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE,
+          LinkOption.NOFOLLOW_LINKS);
     }
   }
 
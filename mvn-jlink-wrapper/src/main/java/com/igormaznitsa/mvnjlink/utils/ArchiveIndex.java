@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.utils;
+
+import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
+
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Lightweight index of archive entries, contains normalized names, sizes and modes of entries
+ * and detected root folder.
+ *
+ * @since 1.2.7
+ */
+public final class ArchiveIndex {
+
+  private final String type;
+  private final List<Entry> entries;
+  private final String rootFolder;
+
+  public ArchiveIndex(@Nonnull final String type,
+                      @Nonnull @MustNotContainNull final List<Entry> entries) {
+    this.type = assertNotNull(type);
+    this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+    this.rootFolder = findRootFolder(this.entries);
+  }
+
+  /**
+   * Find root folder shared by all entries placed in folders.
+   *
+   * @param entries archive entries
+   * @return name of the root folder or null if there is no such one
+   */
+  @Nullable
+  private static String findRootFolder(@Nonnull @MustNotContainNull final List<Entry> entries) {
+    String result = null;
+    for (final Entry e : entries) {
+      final String name = e.getName();
+      final int separator = name.indexOf('/');
+      final String root;
+      if (separator > 0) {
+        root = name.substring(0, separator);
+      } else if (e.isDirectory() && !name.isEmpty()) {
+        root = name;
+      } else {
+        continue;
+      }
+      if (result == null) {
+        result = root;
+      } else if (!result.equals(root)) {
+        return null;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Normalize entry name: back slashes replaced, start './' and '/' as well as end '/' removed.
+   *
+   * @param name entry name
+   * @return normalized name
+   */
+  @Nonnull
+  public static String normalizeName(@Nonnull final String name) {
+    String result = name.replace('\\', '/');
+    while (result.startsWith("./") || result.startsWith("/")) {
+      result = result.substring(result.charAt(0) == '.' ? 2 : 1);
+    }
+    while (result.endsWith("/")) {
+      result = result.substring(0, result.length() - 1);
+    }
+    return result;
+  }
+
+  @Nonnull
+  public String getType() {
+    return this.type;
+  }
+
+  @Nonnull
+  @MustNotContainNull
+  public List<Entry> getEntries() {
+    return this.entries;
+  }
+
+  @Nullable
+  public String getRootFolder() {
+    return this.rootFolder;
+  }
+
+  public int getFileCount() {
+    return (int) this.entries.stream().filter(x -> !x.isDirectory()).count();
+  }
+
+  @Nonnull
+  @Override
+  public String toString() {
+    return "ArchiveIndex{type=" + this.type + ", entries=" + this.entries.size() + ", root="
+        + this.rootFolder + '}';
+  }
+
+  public static final class Entry {
+    private final String name;
+    private final long size;
+    private final int mode;
+    private final boolean directory;
+
+    /**
+     * Constructor.
+     *
+     * @param name      entry name, it will be normalized
+     * @param size      size of entry data, -1 if unknown
+     * @param mode      unix mode of entry, -1 if unknown
+     * @param directory true if entry is directory
+     */
+    public Entry(@Nonnull final String name, final long size, final int mode,
+                 final boolean directory) {
+      this.name = normalizeName(name);
+      this.size = size;
+      this.mode = mode;
+      this.directory = directory;
+    }
+
+    @Nonnull
+    public String getName() {
+      return this.name;
+    }
+
+    public long getSize() {
+      return this.size;
+    }
+
+    public int getMode() {
+      return this.mode;
+    }
+
+    public boolean isDirectory() {
+      return this.directory;
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+      return this.name + (this.directory ? "/" : "") + " (" + this.size + " bytes, mode "
+          + (this.mode < 0 ? "?" : Integer.toOctalString(this.mode)) + ')';
+    }
+  }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.utils;
+
+import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Lock of JDK cache record based on OS advisory file locks, so that the lock is released by OS
+ * if process is killed. Threads of the same JVM are coordinated through read-write lock because
+ * file locks are held on behalf of whole JVM. Shared lock is for readers of cache, exclusive lock
+ * is for installers. Holder of exclusive lock writes its PID and host into the lock file to make
+ * messages about waiting informative.
+ *
+ * @since 1.2.7
+ */
+public final class CacheLock implements Closeable {
+
+  private static final ConcurrentMap<Path, Holder> HOLDERS = new ConcurrentHashMap<>();
+  private static final ScheduledExecutorService WATCHDOG =
+      Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "mvn-jlink-cache-lock-watchdog");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  private final Holder holder;
+  private final boolean shared;
+  private boolean released;
+
+  private CacheLock(@Nonnull final Holder holder, final boolean shared) {
+    this.holder = holder;
+    this.shared = shared;
+  }
+
+  /**
+   * Acquire lock for file.
+   *
+   * @param log       maven log
+   * @param lockFile  file to be used for locking, it will be created if not exist
+   * @param shared    true if shared lock, false if exclusive one
+   * @param timeoutMs timeout to wait lock in milliseconds, 0 or negative to wait without limit
+   * @return acquired lock, must be closed
+   * @throws IOException if timeout, interruption or IO error
+   */
+  @Nonnull
+  public static CacheLock acquire(
+      @Nonnull final Log log,
+      @Nonnull final Path lockFile,
+      final boolean shared,
+      final long timeoutMs
+  ) throws IOException {
+    final long deadline = timeoutMs > 0L ? System.currentTimeMillis() + timeoutMs : Long.MAX_VALUE;
+    final Holder holder =
+        HOLDERS.computeIfAbsent(lockFile.toAbsolutePath().normalize(), Holder::new);
+    final Lock threadLock = shared ? holder.rwLock.readLock() : holder.rwLock.writeLock();
+    try {
+      if (!threadLock.tryLock()) {
+        log.info("Waiting for cache lock owned by other thread: " + lockFile.getFileName());
+        if (!threadLock.tryLock(remaining(deadline), TimeUnit.MILLISECONDS)) {
+          throw new IOException("Timeout of cache lock waiting: " + lockFile);
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted cache lock waiting: " + lockFile);
+    }
+
+    try {
+      lockState(log, holder, lockFile, deadline);
+      try {
+        if (!shared || holder.sharedCounter == 0) {
+          holder.fileLock = lockFile(log, holder.file, shared, deadline);
+          if (!shared) {
+            writeOwner(holder.fileLock.channel());
+          }
+        }
+        if (shared) {
+          holder.sharedCounter++;
+        }
+      } finally {
+        holder.stateLock.unlock();
+      }
+    } catch (IOException | RuntimeException ex) {
+      threadLock.unlock();
+      throw ex;
+    }
+    log.debug("Acquired " + (shared ? "shared" : "exclusive") + " cache lock: " + lockFile);
+    return new CacheLock(holder, shared);
+  }
+
+  /**
+   * Lock state of holder. The first shared acquirer keeps the state locked while waiting for
+   * the file lock, so other shared acquirers of the JVM wait for the state with the same
+   * deadline.
+   */
+  private static void lockState(
+      @Nonnull final Log log,
+      @Nonnull final Holder holder,
+      @Nonnull final Path lockFile,
+      final long deadline
+  ) throws IOException {
+    try {
+      if (!holder.stateLock.tryLock()) {
+        log.info("Waiting for cache lock owned by other thread: " + lockFile.getFileName());
+        if (!holder.stateLock.tryLock(remaining(deadline), TimeUnit.MILLISECONDS)) {
+          throw new IOException("Timeout of cache lock waiting: " + lockFile);
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted cache lock waiting: " + lockFile);
+    }
+  }
+
+  private static long remaining(final long deadline) {
+    return deadline == Long.MAX_VALUE ? Long.MAX_VALUE
+        : Math.max(0L, deadline - System.currentTimeMillis());
+  }
+
+  @Nonnull
+  private static FileLock lockFile(
+      @Nonnull final Log log,
+      @Nonnull final Path file,
+      final boolean shared,
+      final long deadline
+  ) throws IOException {
+    final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      final FileLock quickLock = channel.tryLock(0L, Long.MAX_VALUE, shared);
+      if (quickLock != null) {
+        return quickLock;
+      }
+      log.info("Waiting for cache lock owned by " + readOwner(channel) + ": "
+          + file.getFileName());
+
+      final long remaining = remaining(deadline);
+      if (remaining <= 0L) {
+        throw new IOException("Timeout of cache lock waiting: " + file);
+      }
+      final ScheduledFuture<?> timer = remaining == Long.MAX_VALUE ? null
+          : WATCHDOG.schedule(() -> SystemUtils.closeCloseable(channel, null), remaining,
+          TimeUnit.MILLISECONDS);
+      try {
+        final FileLock result = channel.lock(0L, Long.MAX_VALUE, shared);
+        if (!channel.isOpen()) {
+          throw new IOException("Timeout of cache lock waiting: " + file);
+        }
+        return result;
+      } catch (AsynchronousCloseException ex) {
+        if (Thread.interrupted()) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted cache lock waiting: " + file);
+        }
+        throw new IOException("Timeout of cache lock waiting: " + file, ex);
+      } finally {
+        if (timer != null) {
+          timer.cancel(false);
+        }
+      }
+    } catch (IOException | RuntimeException ex) {
+      SystemUtils.closeCloseable(channel, null);
+      throw ex;
+    }
+  }
+
+  @Nonnull
+  private static String readOwner(@Nonnull final FileChannel channel) {
+    try {
+      final ByteBuffer buffer = ByteBuffer.allocate(512);
+      final int read = channel.read(buffer, 0L);
+      final String text = read <= 0 ? ""
+          : new String(buffer.array(), 0, read, StandardCharsets.UTF_8).trim();
+      return text.isEmpty() ? "unknown process" : text;
+    } catch (IOException ex) {
+      return "unknown process";
+    }
+  }
+
+  private static void writeOwner(@Nonnull final FileChannel channel) throws IOException {
+    final String owner = ManagementFactory.getRuntimeMXBean().getName() + " since " + new Date();
+    channel.truncate(0L);
+    channel.write(ByteBuffer.wrap(owner.getBytes(StandardCharsets.UTF_8)), 0L);
+  }
+
+  /**
+   * Get owner record of the lock file, it contains PID and host of the last exclusive owner.
+   *
+   * @return owner text or null if lock not acquired
+   */
+  @Nullable
+  public String getOwner() {
+    this.holder.stateLock.lock();
+    try {
+      return this.holder.fileLock == null ? null : readOwner(this.holder.fileLock.channel());
+    } finally {
+      this.holder.stateLock.unlock();
+    }
+  }
+
+  public boolean isShared() {
+    return this.shared;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (this.released) {
+      return;
+    }
+    this.released = true;
+    try {
+      this.holder.stateLock.lock();
+      try {
+        if (!this.shared || --this.holder.sharedCounter == 0) {
+          final FileLock fileLock = assertNotNull(this.holder.fileLock);
+          this.holder.fileLock = null;
+          try {
+            if (!this.shared) {
+              fileLock.channel().truncate(0L);
+            }
+            fileLock.release();
+          } finally {
+            fileLock.channel().close();
+          }
+        }
+      } finally {
+        this.holder.stateLock.unlock();
+      }
+    } finally {
+      if (this.shared) {
+        this.holder.rwLock.readLock().unlock();
+      } else {
+        this.holder.rwLock.writeLock().unlock();
+      }
+    }
+  }
+
+  private static final class Holder {
+    private final Path file;
+    private final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock(true);
+    private final ReentrantLock stateLock = new ReentrantLock();
+    private int sharedCounter;
+    private FileLock fileLock;
+
+    private Holder(@Nonnull final Path file) {
+      this.file = file;
+    }
+  }
+}
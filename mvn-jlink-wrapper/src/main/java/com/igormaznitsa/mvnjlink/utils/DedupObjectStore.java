@@ -0,0 +1,308 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.utils;
+
+import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.newInputStream;
+import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Content-addressable store of files placed in the JDK cache folder. Every stored object is
+ * named by SHA-256 of its content (and executable flag because hard links share permissions),
+ * files of cached JDK folders are replaced by hard links to the objects so that identical files
+ * of different JDKs occupy disk space only once. Write permission is removed from stored objects
+ * (and so from all linked files), because change of a linked file would change the same file of
+ * all other cached JDKs.
+ *
+ * @since 1.2.7
+ */
+public final class DedupObjectStore {
+
+  /**
+   * Name of the store folder inside the JDK cache folder.
+   */
+  public static final String FOLDER_NAME = ".objects";
+
+  private static final String TEMP_PREFIX = ".tmp-";
+  private static final String EXECUTABLE_SUFFIX = "-x";
+
+  private final Log log;
+  private final Path root;
+
+  public DedupObjectStore(@Nonnull final Log log, @Nonnull final Path cacheFolder) {
+    this.log = assertNotNull(log);
+    this.root = assertNotNull(cacheFolder).resolve(FOLDER_NAME);
+  }
+
+  @Nonnull
+  public Path getRoot() {
+    return this.root;
+  }
+
+  @Nonnull
+  private Path findObjectPath(@Nonnull final String hash, final boolean executable) {
+    return this.root.resolve(hash.substring(0, 2))
+        .resolve(hash.substring(2) + (executable ? EXECUTABLE_SUFFIX : ""));
+  }
+
+  /**
+   * Store content of all regular files of folder and replace the files by hard links to stored
+   * objects. Symbolic links and empty files are not touched.
+   *
+   * @param folder folder to be processed
+   * @return statistics of processing
+   * @throws IOException if any error
+   */
+  @Nonnull
+  public Stats deduplicate(@Nonnull final Path folder) throws IOException {
+    final List<Path> files;
+    try (final Stream<Path> stream = Files.walk(folder)) {
+      files = stream.filter(x -> isRegularFile(x, LinkOption.NOFOLLOW_LINKS))
+          .collect(Collectors.toList());
+    }
+
+    final Stats stats = new Stats();
+    for (final Path file : files) {
+      if (Thread.currentThread().isInterrupted()) {
+        throw new IOException("Deduplication interrupted");
+      }
+      final long size = Files.size(file);
+      if (size == 0L) {
+        continue;
+      }
+      stats.files++;
+
+      final String hash;
+      try (final InputStream in = newInputStream(file)) {
+        hash = sha256Hex(in);
+      }
+      final Path object = this.findObjectPath(hash, Files.isExecutable(file));
+
+      final LinkResult result = this.linkToObject(file, object, size);
+      if (result == LinkResult.LINKED) {
+        stats.linked++;
+        stats.savedBytes += size;
+      } else if (result == LinkResult.STORED) {
+        stats.stored++;
+      } else {
+        stats.copied++;
+      }
+    }
+    this.log.debug("Deduplicated " + folder + ": " + stats);
+    return stats;
+  }
+
+  @Nonnull
+  private LinkResult linkToObject(
+      @Nonnull final Path file,
+      @Nonnull final Path object,
+      final long size
+  ) throws IOException {
+    for (int attempt = 0; attempt < 3; attempt++) {
+      if (isRegularFile(object) && Files.size(object) == size) {
+        this.makeReadOnly(object);
+        if (Files.isSameFile(object, file)) {
+          return LinkResult.LINKED;
+        }
+        final Path tempLink = makeTempPath(file);
+        try {
+          Files.createLink(tempLink, object);
+        } catch (NoSuchFileException ex) {
+          // object has been removed by concurrent pruning
+          continue;
+        } catch (IOException | UnsupportedOperationException ex) {
+          this.log.debug("Can't make hard link to " + object + ": " + ex.getMessage());
+          return LinkResult.COPIED;
+        }
+        SystemUtils.moveAtomically(tempLink, file);
+        return LinkResult.LINKED;
+      } else {
+        createDirectories(assertNotNull(object.getParent()));
+        final Path tempObject = makeTempPath(object);
+        try {
+          Files.createLink(tempObject, file);
+        } catch (IOException | UnsupportedOperationException ex) {
+          this.log.debug("Can't store object " + object + ": " + ex.getMessage());
+          return LinkResult.COPIED;
+        }
+        this.makeReadOnly(tempObject);
+        try {
+          Files.move(tempObject, object, StandardCopyOption.ATOMIC_MOVE);
+          return LinkResult.STORED;
+        } catch (FileAlreadyExistsException ex) {
+          // concurrently stored by another process, link the file to the stored object
+          Files.deleteIfExists(tempObject);
+        }
+      }
+    }
+    return LinkResult.COPIED;
+  }
+
+  /**
+   * Remove objects which are not referenced by any cached file anymore. It works only on file
+   * systems providing number of hard links for files.
+   *
+   * @return number of removed objects
+   * @throws IOException if any error
+   */
+  public int prune() throws IOException {
+    if (!Files.isDirectory(this.root)) {
+      return 0;
+    }
+    final List<Path> objects;
+    try (final Stream<Path> stream = Files.walk(this.root)) {
+      objects = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+    }
+    int removed = 0;
+    for (final Path object : objects) {
+      final Integer links = findLinkCount(object);
+      if (links == null) {
+        return removed;
+      }
+      final boolean temp = assertNotNull(object.getFileName()).toString().startsWith(TEMP_PREFIX);
+      if (links == 1 && !temp) {
+        Files.deleteIfExists(object);
+        removed++;
+      }
+    }
+    this.log.debug("Pruned " + removed + " unreferenced object(s) in " + this.root);
+    return removed;
+  }
+
+  @Nullable
+  private static Integer findLinkCount(@Nonnull final Path file) {
+    try {
+      return (Integer) Files.getAttribute(file, "unix:nlink", LinkOption.NOFOLLOW_LINKS);
+    } catch (IOException | UnsupportedOperationException | IllegalArgumentException ex) {
+      return null;
+    }
+  }
+
+  @Nonnull
+  private static Path makeTempPath(@Nonnull final Path file) {
+    return file.resolveSibling(TEMP_PREFIX + UUID.randomUUID());
+  }
+
+  private void makeReadOnly(@Nonnull final Path file) {
+    if (!file.toFile().setWritable(false, false)) {
+      this.log.debug("Can't remove write permission of " + file);
+    }
+  }
+
+  /**
+   * Find number of all objects in the store.
+   *
+   * @return number of stored objects
+   * @throws IOException if any error
+   */
+  public long countObjects() throws IOException {
+    if (!Files.isDirectory(this.root)) {
+      return 0L;
+    }
+    try (final Stream<Path> stream = Files.walk(this.root)) {
+      return stream.filter(Files::isRegularFile).count();
+    }
+  }
+
+  @Nonnull
+  @Override
+  public String toString() {
+    return "DedupObjectStore{" + this.root + '}';
+  }
+
+  private enum LinkResult {
+    LINKED,
+    STORED,
+    COPIED
+  }
+
+  /**
+   * Statistics of folder deduplication.
+   */
+  public static final class Stats {
+    private int files;
+    private int linked;
+    private int stored;
+    private int copied;
+    private long savedBytes;
+
+    /**
+     * Number of processed files.
+     *
+     * @return number of files
+     */
+    public int getFiles() {
+      return this.files;
+    }
+
+    /**
+     * Number of files replaced by links to already stored objects.
+     *
+     * @return number of linked files
+     */
+    public int getLinked() {
+      return this.linked;
+    }
+
+    /**
+     * Number of files added into store as new objects.
+     *
+     * @return number of stored files
+     */
+    public int getStored() {
+      return this.stored;
+    }
+
+    /**
+     * Number of files kept as plain copies because hard links are not allowed.
+     *
+     * @return number of copies
+     */
+    public int getCopied() {
+      return this.copied;
+    }
+
+    public long getSavedBytes() {
+      return this.savedBytes;
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+      return "files=" + this.files + ", linked=" + this.linked + ", stored=" + this.stored
+          + ", copied=" + this.copied + ", saved=" + this.savedBytes + " byte(s)";
+    }
+  }
+}
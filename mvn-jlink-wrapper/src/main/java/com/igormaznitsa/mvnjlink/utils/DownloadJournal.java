@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.utils;
+
+import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.newOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Properties;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Small journal describing partially loaded file, it is saved near the partial file and allows
+ * to continue loading through range request in next session.
+ *
+ * @since 1.2.7
+ */
+public final class DownloadJournal {
+
+  private static final String KEY_URL = "url";
+  private static final String KEY_ETAG = "etag";
+  private static final String KEY_LAST_MODIFIED = "lastModified";
+  private static final String KEY_SIZE = "size";
+  private static final String KEY_BYTES = "bytes";
+
+  private final String url;
+  private String etag;
+  private String lastModified;
+  private long size = -1L;
+  private long bytes;
+
+  public DownloadJournal(@Nonnull final String url) {
+    this.url = assertNotNull(url);
+  }
+
+  /**
+   * Load journal from file.
+   *
+   * @param file journal file
+   * @return loaded journal or null if file not found or can't be parsed
+   */
+  @Nullable
+  public static DownloadJournal load(@Nonnull final Path file) {
+    if (!isRegularFile(file)) {
+      return null;
+    }
+    final Properties properties = new Properties();
+    try (final InputStream in = newInputStream(file)) {
+      properties.load(in);
+    } catch (IOException ex) {
+      return null;
+    }
+    final String url = properties.getProperty(KEY_URL);
+    if (url == null) {
+      return null;
+    }
+    final DownloadJournal result = new DownloadJournal(url);
+    result.etag = properties.getProperty(KEY_ETAG);
+    result.lastModified = properties.getProperty(KEY_LAST_MODIFIED);
+    try {
+      result.size = Long.parseLong(properties.getProperty(KEY_SIZE, "-1"));
+      result.bytes = Long.parseLong(properties.getProperty(KEY_BYTES, "0"));
+    } catch (NumberFormatException ex) {
+      return null;
+    }
+    return result;
+  }
+
+  public void save(@Nonnull final Path file) throws IOException {
+    final Properties properties = new Properties();
+    properties.setProperty(KEY_URL, this.url);
+    if (this.etag != null) {
+      properties.setProperty(KEY_ETAG, this.etag);
+    }
+    if (this.lastModified != null) {
+      properties.setProperty(KEY_LAST_MODIFIED, this.lastModified);
+    }
+    properties.setProperty(KEY_SIZE, Long.toString(this.size));
+    properties.setProperty(KEY_BYTES, Long.toString(this.bytes));
+    try (final OutputStream out = newOutputStream(file)) {
+      properties.store(out, "mvn-jlink partial download");
+    }
+  }
+
+  @Nonnull
+  public String getUrl() {
+    return this.url;
+  }
+
+  @Nullable
+  public String getEtag() {
+    return this.etag;
+  }
+
+  public void setEtag(@Nullable final String etag) {
+    this.etag = etag;
+  }
+
+  @Nullable
+  public String getLastModified() {
+    return this.lastModified;
+  }
+
+  public void setLastModified(@Nullable final String lastModified) {
+    this.lastModified = lastModified;
+  }
+
+  public long getSize() {
+    return this.size;
+  }
+
+  public void setSize(final long size) {
+    this.size = size;
+  }
+
+  public long getBytes() {
+    return this.bytes;
+  }
+
+  public void setBytes(final long bytes) {
+    this.bytes = bytes;
+  }
+
+  /**
+   * Find value which can be used in If-Range header. Weak entity tags are not allowed for
+   * range requests so that in the case only last modified date is used.
+   *
+   * @return validator or null if there is no appropriate one
+   */
+  @Nullable
+  public String findRangeValidator() {
+    if (this.etag != null && !this.etag.startsWith("W/")) {
+      return this.etag;
+    }
+    return this.lastModified;
+  }
+
+  @Nonnull
+  @Override
+  public String toString() {
+    return "DownloadJournal{url=" + this.url + ", etag=" + this.etag + ", lastModified="
+        + this.lastModified + ", size=" + this.size + ", bytes=" + this.bytes + '}';
+  }
+}
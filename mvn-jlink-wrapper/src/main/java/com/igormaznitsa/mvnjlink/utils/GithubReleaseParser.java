@@ -0,0 +1,398 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.utils;
+
+import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
+
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Streaming pull parser of GitHub release list pages. It reads JSON char by char and extracts
+ * only fields needed to describe release assets, all other values (release notes, authors,
+ * reactions etc.) are skipped without materialization.
+ *
+ * @since 1.2.7
+ */
+public final class GithubReleaseParser {
+
+  private static final int NO_CHAR = -2;
+
+  private final Reader reader;
+  private final StringBuilder buffer = new StringBuilder(64);
+  private int pushedBack = NO_CHAR;
+  private long position;
+
+  private GithubReleaseParser(@Nonnull final Reader reader) {
+    this.reader = assertNotNull(reader);
+  }
+
+  /**
+   * Parse release list page and pass assets of tagged not-draft releases to consumer.
+   *
+   * @param reader   reader of page, it is not closed
+   * @param consumer consumer of found assets
+   * @return number of all releases in the page, including draft ones
+   * @throws IOException if read error or wrong JSON format
+   */
+  public static int parse(
+      @Nonnull final Reader reader,
+      @Nonnull final Consumer<ReleaseIndex.Asset> consumer
+  ) throws IOException {
+    return new GithubReleaseParser(reader).parseReleaseList(consumer);
+  }
+
+  private int parseReleaseList(@Nonnull final Consumer<ReleaseIndex.Asset> consumer)
+      throws IOException {
+    this.expect('[');
+    int releases = 0;
+    if (this.nextIfEquals(']')) {
+      this.expectEnd();
+      return releases;
+    }
+    do {
+      this.parseRelease(consumer);
+      releases++;
+    } while (this.nextIfEquals(','));
+    this.expect(']');
+    this.expectEnd();
+    return releases;
+  }
+
+  private void parseRelease(@Nonnull final Consumer<ReleaseIndex.Asset> consumer)
+      throws IOException {
+    this.expect('{');
+    boolean tagged = false;
+    boolean draft = false;
+    boolean prerelease = false;
+    final List<AssetFields> assets = new ArrayList<>();
+    if (!this.nextIfEquals('}')) {
+      do {
+        final String key = this.readString();
+        this.expect(':');
+        switch (key) {
+          case "tag_name":
+            tagged = this.readNullableString() != null;
+            break;
+          case "draft":
+            draft = this.readBoolean();
+            break;
+          case "prerelease":
+            prerelease = this.readBoolean();
+            break;
+          case "assets":
+            this.parseAssets(assets);
+            break;
+          default:
+            this.skipValue();
+            break;
+        }
+      } while (this.nextIfEquals(','));
+      this.expect('}');
+    }
+    if (tagged && !draft) {
+      for (final AssetFields asset : assets) {
+        if (asset.isComplete()) {
+          consumer.accept(new ReleaseIndex.Asset(asset.name, asset.link, asset.mime, asset.size,
+              asset.digest, prerelease));
+        }
+      }
+    }
+  }
+
+  private void parseAssets(@Nonnull @MustNotContainNull final List<AssetFields> assets)
+      throws IOException {
+    if (this.nextIfLiteral("null")) {
+      return;
+    }
+    this.expect('[');
+    if (this.nextIfEquals(']')) {
+      return;
+    }
+    do {
+      assets.add(this.parseAsset());
+    } while (this.nextIfEquals(','));
+    this.expect(']');
+  }
+
+  @Nonnull
+  private AssetFields parseAsset() throws IOException {
+    this.expect('{');
+    final AssetFields result = new AssetFields();
+    if (this.nextIfEquals('}')) {
+      return result;
+    }
+    do {
+      final String key = this.readString();
+      this.expect(':');
+      switch (key) {
+        case "name":
+          result.name = this.readNullableString();
+          break;
+        case "content_type":
+          result.mime = this.readNullableString();
+          break;
+        case "browser_download_url":
+          result.link = this.readNullableString();
+          break;
+        case "digest":
+          result.digest = this.readNullableString();
+          break;
+        case "size":
+          result.size = this.readLong();
+          break;
+        default:
+          this.skipValue();
+          break;
+      }
+    } while (this.nextIfEquals(','));
+    this.expect('}');
+    return result;
+  }
+
+  private int read() throws IOException {
+    final int result;
+    if (this.pushedBack == NO_CHAR) {
+      result = this.reader.read();
+    } else {
+      result = this.pushedBack;
+      this.pushedBack = NO_CHAR;
+    }
+    this.position++;
+    return result;
+  }
+
+  private void pushBack(final int chr) {
+    this.pushedBack = chr;
+    this.position--;
+  }
+
+  private int readSkippingSpaces() throws IOException {
+    int chr;
+    do {
+      chr = this.read();
+    } while (chr == ' ' || chr == '\n' || chr == '\r' || chr == '\t');
+    return chr;
+  }
+
+  @Nonnull
+  private IOException error(@Nonnull final String message) {
+    return new IOException("Wrong release list JSON at " + this.position + ": " + message);
+  }
+
+  private void expect(final char expected) throws IOException {
+    final int chr = this.readSkippingSpaces();
+    if (chr != expected) {
+      throw this.error("expected '" + expected + "' but found " + describe(chr));
+    }
+  }
+
+  private void expectEnd() throws IOException {
+    final int chr = this.readSkippingSpaces();
+    if (chr >= 0) {
+      throw this.error("unexpected data after end of list: " + describe(chr));
+    }
+  }
+
+  @Nonnull
+  private static String describe(final int chr) {
+    return chr < 0 ? "end of data" : "'" + (char) chr + "'";
+  }
+
+  private boolean nextIfEquals(final char expected) throws IOException {
+    final int chr = this.readSkippingSpaces();
+    if (chr == expected) {
+      return true;
+    }
+    this.pushBack(chr);
+    return false;
+  }
+
+  private boolean nextIfLiteral(@Nonnull final String literal) throws IOException {
+    final int chr = this.readSkippingSpaces();
+    this.pushBack(chr);
+    if (chr != literal.charAt(0)) {
+      return false;
+    }
+    final String value = this.readLiteral();
+    if (!literal.equals(value)) {
+      throw this.error("unexpected literal: " + value);
+    }
+    return true;
+  }
+
+  @Nonnull
+  private String readLiteral() throws IOException {
+    this.buffer.setLength(0);
+    int chr = this.readSkippingSpaces();
+    while (chr >= 0 && chr != ',' && chr != '}' && chr != ']' && chr != ' ' && chr != '\n'
+        && chr != '\r' && chr != '\t') {
+      this.buffer.append((char) chr);
+      chr = this.read();
+    }
+    this.pushBack(chr);
+    if (this.buffer.length() == 0) {
+      throw this.error("expected value but found " + describe(chr));
+    }
+    return this.buffer.toString();
+  }
+
+  private boolean readBoolean() throws IOException {
+    final String value = this.readLiteral();
+    switch (value) {
+      case "true":
+        return true;
+      case "false":
+      case "null":
+        return false;
+      default:
+        throw this.error("expected boolean but found " + value);
+    }
+  }
+
+  private long readLong() throws IOException {
+    final String value = this.readLiteral();
+    if ("null".equals(value)) {
+      return -1L;
+    }
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException ex) {
+      throw this.error("expected integer but found " + value);
+    }
+  }
+
+  @Nullable
+  private String readNullableString() throws IOException {
+    return this.nextIfLiteral("null") ? null : this.readString();
+  }
+
+  @Nonnull
+  private String readString() throws IOException {
+    this.expect('"');
+    this.buffer.setLength(0);
+    this.scanStringBody(true);
+    return this.buffer.toString();
+  }
+
+  private void scanStringBody(final boolean collect) throws IOException {
+    while (true) {
+      final int chr = this.read();
+      if (chr < 0) {
+        throw this.error("unclosed string");
+      }
+      if (chr == '"') {
+        return;
+      }
+      if (chr == '\\') {
+        final int escaped = this.read();
+        final char decoded;
+        switch (escaped) {
+          case '"':
+          case '\\':
+          case '/':
+            decoded = (char) escaped;
+            break;
+          case 'b':
+            decoded = '\b';
+            break;
+          case 'f':
+            decoded = '\f';
+            break;
+          case 'n':
+            decoded = '\n';
+            break;
+          case 'r':
+            decoded = '\r';
+            break;
+          case 't':
+            decoded = '\t';
+            break;
+          case 'u': {
+            int code = 0;
+            for (int i = 0; i < 4; i++) {
+              final int digit = Character.digit(this.read(), 16);
+              if (digit < 0) {
+                throw this.error("wrong unicode escape");
+              }
+              code = (code << 4) | digit;
+            }
+            decoded = (char) code;
+          }
+          break;
+          default:
+            throw this.error("wrong escape: " + describe(escaped));
+        }
+        if (collect) {
+          this.buffer.append(decoded);
+        }
+      } else if (collect) {
+        this.buffer.append((char) chr);
+      }
+    }
+  }
+
+  private void skipValue() throws IOException {
+    final int chr = this.readSkippingSpaces();
+    switch (chr) {
+      case '"':
+        this.scanStringBody(false);
+        break;
+      case '{':
+        if (!this.nextIfEquals('}')) {
+          do {
+            this.expect('"');
+            this.scanStringBody(false);
+            this.expect(':');
+            this.skipValue();
+          } while (this.nextIfEquals(','));
+          this.expect('}');
+        }
+        break;
+      case '[':
+        if (!this.nextIfEquals(']')) {
+          do {
+            this.skipValue();
+          } while (this.nextIfEquals(','));
+          this.expect(']');
+        }
+        break;
+      default:
+        this.pushBack(chr);
+        this.readLiteral();
+        break;
+    }
+  }
+
+  private static final class AssetFields {
+    private String name;
+    private String mime;
+    private String link;
+    private String digest;
+    private long size = -1L;
+
+    private boolean isComplete() {
+      return this.name != null && this.link != null && this.mime != null;
+    }
+  }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.utils;
+
+import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Registry of pooled HTTP clients shared by all mojo executions of the same Maven session. Clients
+ * are keyed by proxy, SSL check and authorization settings so that connections (and their
+ * keep-alive state) are reused across goals and modules. The registry also owns bounded executor of
+ * asynchronous requests. The registry of the previous session is closed when a new session is
+ * started in the same JVM and the last one is closed on JVM shutdown.
+ *
+ * @since 1.2.7
+ */
+public final class HttpClientRegistry implements Closeable {
+
+  /**
+   * Time after which idle pooled connections are closed.
+   */
+  public static final long IDLE_CONNECTION_TIMEOUT_SECONDS = 30L;
+
+  /**
+   * Max number of threads executing asynchronous requests, other requests wait in queue.
+   */
+  public static final int MAX_ASYNC_THREADS = 8;
+
+  private static final Object NO_SESSION = new Object();
+  private static final Object LOCK = new Object();
+  private static Object currentSessionKey;
+  private static HttpClientRegistry current;
+  private static boolean shutdownHookRegistered;
+
+  private final Map<String, CloseableHttpClient> clients = new ConcurrentHashMap<>();
+  private ExecutorService asyncExecutor;
+  private volatile boolean closed;
+
+  HttpClientRegistry() {
+  }
+
+  /**
+   * Get registry for Maven session. Mojo instances of parallel builds get cloned sessions sharing
+   * the same execution request, so the request is used as the session identity.
+   *
+   * @param session current Maven session, can be null
+   * @return registry for the session, must not be closed by caller
+   */
+  @Nonnull
+  public static HttpClientRegistry forSession(@Nullable final MavenSession session) {
+    final Object sessionKey;
+    if (session == null) {
+      sessionKey = NO_SESSION;
+    } else {
+      sessionKey = session.getRequest() == null ? session : session.getRequest();
+    }
+
+    HttpClientRegistry previous = null;
+    final HttpClientRegistry result;
+    synchronized (LOCK) {
+      if (current == null || currentSessionKey != sessionKey) {
+        previous = current;
+        current = new HttpClientRegistry();
+        currentSessionKey = sessionKey;
+        if (!shutdownHookRegistered) {
+          shutdownHookRegistered = true;
+          Runtime.getRuntime().addShutdownHook(
+              new Thread(HttpClientRegistry::closeCurrent, "mvn-jlink-http-registry-close"));
+        }
+      }
+      result = current;
+    }
+    if (previous != null) {
+      previous.close();
+    }
+    return result;
+  }
+
+  private static void closeCurrent() {
+    final HttpClientRegistry registry;
+    synchronized (LOCK) {
+      registry = current;
+      current = null;
+      currentSessionKey = null;
+    }
+    if (registry != null) {
+      registry.close();
+    }
+  }
+
+  @Nonnull
+  static String makeKey(
+      @Nullable final ProxySettings proxy,
+      final boolean disableSslCheck,
+      @Nullable final String authorization
+  ) {
+    final StringBuilder result = new StringBuilder();
+    if (proxy == null) {
+      result.append("direct");
+    } else {
+      result.append(proxy.protocol).append("://").append(proxy.host).append(':')
+          .append(proxy.port)
+          .append('|').append(proxy.username)
+          .append('|').append(proxy.password == null ? "null" : sha256(proxy.password))
+          .append('|').append(proxy.nonProxyHosts);
+    }
+    result.append("|ssl=").append(!disableSslCheck);
+    result.append("|auth=")
+        .append(authorization == null || authorization.isEmpty() ? "none" : sha256(authorization));
+    return result.toString();
+  }
+
+  @Nonnull
+  private static String sha256(@Nonnull final String text) {
+    return DigestUtils.sha256Hex(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Get pooled client for settings, it is created at first request. Tuner is applied only when
+   * client is created so that it must depend only on the authorization.
+   *
+   * @param log             logger
+   * @param proxy           proxy settings, can be null
+   * @param disableSslCheck true if SSL certificate check should be disabled
+   * @param authorization   authorization, can be null
+   * @param tuner           tuner of client builder, can be null
+   * @return shared client, must not be closed by caller
+   * @throws IOException if client can't be created or registry is closed
+   */
+  @Nonnull
+  public CloseableHttpClient getClient(
+      @Nonnull final Log log,
+      @Nullable final ProxySettings proxy,
+      final boolean disableSslCheck,
+      @Nullable final String authorization,
+      @Nullable final Function<HttpClientBuilder, HttpClientBuilder> tuner
+  ) throws IOException {
+    final String key = makeKey(proxy, disableSslCheck, authorization);
+    CloseableHttpClient result = this.clients.get(key);
+    if (result == null) {
+      synchronized (this.clients) {
+        if (this.closed) {
+          throw new IOException("HTTP client registry is closed");
+        }
+        result = this.clients.get(key);
+        if (result == null) {
+          log.debug("Creating pooled HTTP client for " + (proxy == null ? "direct" : proxy)
+              + " connection");
+          result = HttpUtils.makeHttpClient(log, proxy, builder -> {
+            final HttpClientBuilder tuned = tuner == null ? builder : tuner.apply(builder);
+            return assertNotNull(tuned)
+                .evictExpiredConnections()
+                .evictIdleConnections(IDLE_CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+          }, disableSslCheck);
+          this.clients.put(key, result);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get executor of asynchronous requests, it is created at first request and shut down when the
+   * registry is closed. Idle threads are stopped after {@link #IDLE_CONNECTION_TIMEOUT_SECONDS}.
+   *
+   * @return shared executor, must not be shut down by caller
+   * @throws IOException if registry is closed
+   */
+  @Nonnull
+  public Executor getAsyncExecutor() throws IOException {
+    synchronized (this.clients) {
+      if (this.closed) {
+        throw new IOException("HTTP client registry is closed");
+      }
+      if (this.asyncExecutor == null) {
+        final AtomicInteger counter = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_ASYNC_THREADS,
+            MAX_ASYNC_THREADS, IDLE_CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+          final Thread thread =
+              new Thread(runnable, "mvn-jlink-http-async-" + counter.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        this.asyncExecutor = executor;
+      }
+      return this.asyncExecutor;
+    }
+  }
+
+  int size() {
+    return this.clients.size();
+  }
+
+  @Override
+  public void close() {
+    final List<CloseableHttpClient> toClose;
+    final ExecutorService executor;
+    synchronized (this.clients) {
+      this.closed = true;
+      toClose = new ArrayList<>(this.clients.values());
+      this.clients.clear();
+      executor = this.asyncExecutor;
+      this.asyncExecutor = null;
+    }
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+    for (final CloseableHttpClient client : toClose) {
+      try {
+        client.close();
+      } catch (IOException ex) {
+        // ignore
+      }
+    }
+  }
+}
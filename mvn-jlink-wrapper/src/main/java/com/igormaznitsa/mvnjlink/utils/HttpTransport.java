@@ -0,0 +1,263 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.utils;
+
+import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+
+/**
+ * Transport executing HTTP GET requests for {@link HttpUtils}. It works only with plain request
+ * and response values so that it can be implemented over any HTTP client, proxy routing and SSL
+ * settings belong to transport. Request configuration, retries and response processing are made
+ * by the caller.
+ *
+ * @since 1.2.7
+ */
+@FunctionalInterface
+public interface HttpTransport {
+
+  /**
+   * Make transport executing requests through Apache HTTP client.
+   *
+   * @param client client to be used, it is not closed by transport
+   * @return transport
+   */
+  @Nonnull
+  static HttpTransport of(@Nonnull final HttpClient client) {
+    assertNotNull(client);
+    return request -> {
+      final HttpGet get = new HttpGet(request.getUrl());
+      request.getHeaders().forEach(get::addHeader);
+
+      final RequestConfig.Builder config = RequestConfig.custom()
+          .setRedirectsEnabled(true)
+          .setSocketTimeout(request.getTimeout())
+          .setConnectTimeout(request.getTimeout());
+      final ProxySettings proxy = request.getProxy();
+      if (proxy != null) {
+        config.setProxy(new HttpHost(proxy.host, proxy.port, proxy.protocol));
+      }
+      get.setConfig(config.build());
+
+      request.setAbortAction(get::abort);
+      final HttpResponse response;
+      try {
+        response = client.execute(get);
+      } catch (IOException ex) {
+        get.releaseConnection();
+        throw ex;
+      }
+
+      final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+      for (final Header header : response.getAllHeaders()) {
+        headers.computeIfAbsent(header.getName(), x -> new ArrayList<>()).add(header.getValue());
+      }
+      final HttpEntity entity = response.getEntity();
+
+      return new Response() {
+        @Override
+        public int getStatusCode() {
+          return response.getStatusLine().getStatusCode();
+        }
+
+        @Nonnull
+        @Override
+        public String getReasonPhrase() {
+          final String reason = response.getStatusLine().getReasonPhrase();
+          return reason == null ? "" : reason;
+        }
+
+        @Nonnull
+        @Override
+        public Map<String, List<String>> getHeaders() {
+          return headers;
+        }
+
+        @Override
+        public long getContentLength() {
+          return entity == null ? -1L : entity.getContentLength();
+        }
+
+        @Nullable
+        @Override
+        public InputStream getBody() throws IOException {
+          return entity == null ? null : entity.getContent();
+        }
+
+        @Override
+        public void close() {
+          get.releaseConnection();
+        }
+      };
+    };
+  }
+
+  /**
+   * Execute GET request.
+   *
+   * @param request request to be executed, can be aborted from another thread
+   * @return response, it must be closed by caller
+   * @throws IOException if any transport error
+   */
+  @Nonnull
+  Response execute(@Nonnull Request request) throws IOException;
+
+  /**
+   * Response of transport. Closing of not fully read response can drop its connection.
+   */
+  interface Response extends Closeable {
+
+    int getStatusCode();
+
+    @Nonnull
+    String getReasonPhrase();
+
+    /**
+     * Get response headers.
+     *
+     * @return map of header values in order of their appearance, names are case insensitive
+     */
+    @Nonnull
+    Map<String, List<String>> getHeaders();
+
+    /**
+     * Get length of body.
+     *
+     * @return length of body or negative number if unknown
+     */
+    long getContentLength();
+
+    /**
+     * Get stream of response body.
+     *
+     * @return body stream or null if response has no body
+     * @throws IOException if any error
+     */
+    @Nullable
+    InputStream getBody() throws IOException;
+  }
+
+  /**
+   * GET request, it can be aborted from any thread.
+   */
+  final class Request {
+    private final String url;
+    private final Map<String, String> headers;
+    private final ProxySettings proxy;
+    private final int timeout;
+    private Runnable abortAction;
+    private boolean aborted;
+
+    /**
+     * Constructor.
+     *
+     * @param url     url of resource
+     * @param headers request headers in order of sending
+     * @param proxy   proxy settings, can be null
+     * @param timeout connection and socket timeout in milliseconds
+     */
+    public Request(
+        @Nonnull final String url,
+        @Nonnull final Map<String, String> headers,
+        @Nullable final ProxySettings proxy,
+        final int timeout
+    ) {
+      this.url = assertNotNull(url);
+      this.headers = Collections.unmodifiableMap(new LinkedHashMap<>(headers));
+      this.proxy = proxy;
+      this.timeout = timeout;
+    }
+
+    @Nonnull
+    public String getUrl() {
+      return this.url;
+    }
+
+    @Nonnull
+    public Map<String, String> getHeaders() {
+      return this.headers;
+    }
+
+    @Nullable
+    public ProxySettings getProxy() {
+      return this.proxy;
+    }
+
+    public int getTimeout() {
+      return this.timeout;
+    }
+
+    /**
+     * Set action of transport to break started request. If the request is already aborted then
+     * the action is called immediately.
+     *
+     * @param action abort action, can be null
+     */
+    public void setAbortAction(@Nullable final Runnable action) {
+      final boolean alreadyAborted;
+      synchronized (this) {
+        this.abortAction = action;
+        alreadyAborted = this.aborted;
+      }
+      if (alreadyAborted && action != null) {
+        action.run();
+      }
+    }
+
+    /**
+     * Abort request, abort action of transport is called if it is set.
+     */
+    public void abort() {
+      final Runnable action;
+      synchronized (this) {
+        this.aborted = true;
+        action = this.abortAction;
+      }
+      if (action != null) {
+        action.run();
+      }
+    }
+
+    public synchronized boolean isAborted() {
+      return this.aborted;
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+      return "GET " + this.url;
+    }
+  }
+}
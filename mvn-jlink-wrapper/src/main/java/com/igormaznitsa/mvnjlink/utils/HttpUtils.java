@@ -21,7 +21,10 @@ import static java.util.stream.Stream.of;
 
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.meta.common.utils.GetUtils;
+import com.igormaznitsa.mvnjlink.exceptions.IORuntimeWrapperException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.security.cert.CertificateException;
@@ -29,28 +32,38 @@ import java.security.cert.X509Certificate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLException;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
+import org.apache.commons.io.IOUtils;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpException;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
 import org.apache.http.StatusLine;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.NTCredentials;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.HttpClient;
-import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.config.Registry;
@@ -62,19 +75,31 @@ import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.client.LaxRedirectStrategy;
-import org.apache.http.impl.conn.BasicHttpClientConnectionManager;
 import org.apache.http.impl.conn.DefaultProxyRoutePlanner;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
 import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
 import org.apache.maven.plugin.logging.Log;
 
 public final class HttpUtils {
 
   public static final String MIME_ALL = ContentType.WILDCARD.getMimeType();
   public static final String MIME_OCTET_STREAM = "application/octet-stream";
+  /**
+   * Max number of pooled connections per route, allows concurrent requests to the same host
+   * through the same client.
+   *
+   * @since 1.2.7
+   */
+  public static final int MAX_CONNECTIONS_PER_ROUTE = 16;
   public static final Set<String> ARCHIVE_MIME_TYPES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
                   "binary/octet-stream",
                   "application/x-gzip",
@@ -90,7 +115,6 @@ public final class HttpUtils {
   @Nonnull
   private static HttpRequestBase makeGet(
       @Nonnull final String urlLink,
-      @Nonnull RequestConfig config,
       @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
       @Nonnull @MustNotContainNull String... acceptedContent
   ) {
@@ -104,11 +128,54 @@ public final class HttpUtils {
     }
 
     methodGet.setHeader("User-Agent", "mvn-jlink-plugin");
-    methodGet.setConfig(config);
 
     return methodGet;
   }
 
+  /**
+   * Make transport request from prepared GET method, abort of the method aborts the request.
+   */
+  @Nonnull
+  private static HttpTransport.Request makeTransportRequest(
+      @Nonnull final HttpRequestBase methodGet,
+      @Nullable final ProxySettings proxySettings,
+      final int timeout
+  ) {
+    final Map<String, String> headers = new LinkedHashMap<>();
+    for (final Header header : methodGet.getAllHeaders()) {
+      headers.merge(header.getName(), header.getValue(), (x, y) -> x + ", " + y);
+    }
+    final HttpTransport.Request result =
+        new HttpTransport.Request(methodGet.getURI().toString(), headers, proxySettings, timeout);
+    methodGet.setCancellable(() -> {
+      result.abort();
+      return true;
+    });
+    return result;
+  }
+
+  /**
+   * Make response view for response consumers and retry policy, body of the response is not
+   * buffered.
+   */
+  @Nonnull
+  private static HttpResponse makeHttpResponse(@Nonnull final HttpTransport.Response response)
+      throws IOException {
+    final BasicHttpResponse result = new BasicHttpResponse(
+        new BasicStatusLine(HttpVersion.HTTP_1_1, response.getStatusCode(),
+            response.getReasonPhrase()));
+    response.getHeaders()
+        .forEach((name, values) -> values.forEach(value -> result.addHeader(name, value)));
+    final InputStream body = response.getBody();
+    if (body != null) {
+      final InputStreamEntity entity = new InputStreamEntity(body, response.getContentLength());
+      entity.setContentType(result.getFirstHeader(HttpHeaders.CONTENT_TYPE));
+      entity.setContentEncoding(result.getFirstHeader(HttpHeaders.CONTENT_ENCODING));
+      result.setEntity(entity);
+    }
+    return result;
+  }
+
   @Nonnull
   @MustNotContainNull
   public static Header[] doGetRequest(
@@ -122,6 +189,134 @@ public final class HttpUtils {
       final boolean expectedBinaryFile,
       @Nonnull @MustNotContainNull String... acceptedContent
   ) throws IOException {
+    return doGetRequest(HttpTransport.of(client), customizer, urlLink, proxySettings,
+        responseConsumer, consumer, timeout, expectedBinaryFile, acceptedContent);
+  }
+
+  /**
+   * Make GET request in executor. Returned future is completed by response headers or by the
+   * request error (wrapped IO errors are unwrapped), its cancellation aborts started request. The
+   * request is blocking one so that the executor should be bounded and owned by the session, like
+   * {@link HttpClientRegistry#getAsyncExecutor()}.
+   *
+   * @param transport          transport to execute request
+   * @param retryPolicy        policy of retries
+   * @param logger             logger for attempt timing, can be null
+   * @param executor           executor to make request and process response
+   * @param customizer         request customizer, can be null
+   * @param urlLink            url of resource
+   * @param proxySettings      proxy settings, can be null
+   * @param responseConsumer   consumer of response, can be null
+   * @param consumer           consumer of response entity
+   * @param timeout            connection and socket timeout
+   * @param expectedBinaryFile true if binary content expected
+   * @param acceptedContent    accepted mime types
+   * @return future of response headers
+   * @since 1.2.7
+   */
+  @Nonnull
+  public static CompletableFuture<Header[]> doGetRequestAsync(
+      @Nonnull final HttpTransport transport,
+      @Nonnull final RetryPolicy retryPolicy,
+      @Nullable final Log logger,
+      @Nonnull final Executor executor,
+      @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+      @Nonnull final String urlLink,
+      @Nullable final ProxySettings proxySettings,
+      @Nullable final Consumer<HttpResponse> responseConsumer,
+      @Nonnull final Consumer<HttpEntity> consumer,
+      final int timeout,
+      final boolean expectedBinaryFile,
+      @Nonnull @MustNotContainNull final String... acceptedContent
+  ) {
+    final CompletableFuture<Header[]> result = new CompletableFuture<>();
+    final AtomicReference<HttpRequestBase> started = new AtomicReference<>();
+    result.whenComplete((headers, error) -> {
+      final HttpRequestBase request = started.get();
+      if (result.isCancelled() && request != null) {
+        request.abort();
+      }
+    });
+
+    try {
+      executor.execute(() -> {
+        if (result.isDone()) {
+          return;
+        }
+        try {
+          result.complete(doGetRequest(transport, retryPolicy, logger, x -> {
+                final HttpRequestBase request = customizer == null ? x : customizer.apply(x);
+                started.set(request);
+                if (result.isCancelled()) {
+                  request.abort();
+                }
+                return request;
+              }, urlLink, proxySettings, responseConsumer, consumer, timeout, expectedBinaryFile,
+              acceptedContent));
+        } catch (IORuntimeWrapperException ex) {
+          result.completeExceptionally(ex.getWrapped());
+        } catch (Throwable ex) {
+          result.completeExceptionally(ex);
+        }
+      });
+    } catch (RejectedExecutionException ex) {
+      result.completeExceptionally(new IOException("HTTP request executor is closed", ex));
+    }
+    return result;
+  }
+
+  @Nonnull
+  @MustNotContainNull
+  public static Header[] doGetRequest(
+      @Nonnull final HttpTransport transport,
+      @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+      @Nonnull final String urlLink,
+      @Nullable final ProxySettings proxySettings,
+      @Nullable final Consumer<HttpResponse> responseConsumer,
+      @Nonnull final Consumer<HttpEntity> consumer,
+      final int timeout,
+      final boolean expectedBinaryFile,
+      @Nonnull @MustNotContainNull final String... acceptedContent
+  ) throws IOException {
+    return doGetRequest(transport, RetryPolicy.DEFAULT, null, customizer, urlLink, proxySettings,
+        responseConsumer, consumer, timeout, expectedBinaryFile, acceptedContent);
+  }
+
+  /**
+   * Make GET request with retries. Request is retried by the policy if it is failed by IO error
+   * before response or if response status allows retry (like 429, 502, 503, 504 or exhausted
+   * rate limit), consumers get only the final response.
+   *
+   * @param transport          transport to execute request
+   * @param retryPolicy        policy of retries
+   * @param logger             logger for attempt timing, can be null
+   * @param customizer         request customizer, can be null
+   * @param urlLink            url of resource
+   * @param proxySettings      proxy settings, can be null
+   * @param responseConsumer   consumer of response, can be null
+   * @param consumer           consumer of response entity
+   * @param timeout            connection and socket timeout
+   * @param expectedBinaryFile true if binary content expected
+   * @param acceptedContent    accepted mime types
+   * @return response headers
+   * @throws IOException if request error after all attempts or wrong response
+   * @since 1.2.7
+   */
+  @Nonnull
+  @MustNotContainNull
+  public static Header[] doGetRequest(
+      @Nonnull final HttpTransport transport,
+      @Nonnull final RetryPolicy retryPolicy,
+      @Nullable final Log logger,
+      @Nullable final Function<HttpRequestBase, HttpRequestBase> customizer,
+      @Nonnull final String urlLink,
+      @Nullable final ProxySettings proxySettings,
+      @Nullable final Consumer<HttpResponse> responseConsumer,
+      @Nonnull final Consumer<HttpEntity> consumer,
+      final int timeout,
+      final boolean expectedBinaryFile,
+      @Nonnull @MustNotContainNull String... acceptedContent
+  ) throws IOException {
 
     if (expectedBinaryFile) {
       if (Arrays.stream(acceptedContent).noneMatch(x -> x.trim().equalsIgnoreCase(MIME_OCTET_STREAM))) {
@@ -130,44 +325,64 @@ public final class HttpUtils {
       }
     }
 
-    final RequestConfig.Builder configBuilder = RequestConfig
-        .custom()
-        .setRedirectsEnabled(true)
-        .setSocketTimeout(timeout)
-        .setConnectTimeout(timeout);
-
-    if (proxySettings != null) {
-      final HttpHost proxyHost = new HttpHost(proxySettings.host, proxySettings.port, proxySettings.protocol);
-      configBuilder.setProxy(proxyHost);
-    }
-
-    RequestConfig config = configBuilder.build();
-
     HttpResponse response = null;
-    HttpRequestBase methodGet = null;
+    HttpTransport.Response transportResponse = null;
     try {
       int statusCode = -1;
       StatusLine statusLine = null;
 
-      for (int i = 0; i < 5; i++) {
-        methodGet = makeGet(urlLink, config, customizer, acceptedContent);
-        response = client.execute(methodGet);
+      for (int attempt = 1; ; attempt++) {
+        final HttpTransport.Request request = makeTransportRequest(
+            makeGet(urlLink, customizer, acceptedContent), proxySettings, timeout);
+        final long start = System.currentTimeMillis();
+        try {
+          transportResponse = transport.execute(request);
+          response = makeHttpResponse(transportResponse);
+        } catch (IOException ex) {
+          IOUtils.closeQuietly(transportResponse);
+          transportResponse = null;
+          if (request.isAborted() || !isRetryableError(ex)
+              || !retryPolicy.hasNextAttempt(attempt)) {
+            throw ex;
+          }
+          final long delay = retryPolicy.findDelay(attempt, null);
+          if (logger != null) {
+            logger.warn(String.format("GET %s attempt %d/%d failed in %d ms (%s), retry in %d ms",
+                urlLink, attempt, retryPolicy.getMaxAttempts(),
+                System.currentTimeMillis() - start, ex, delay));
+          }
+          RetryPolicy.sleep(delay);
+          continue;
+        }
         statusLine = response.getStatusLine();
         statusCode = statusLine.getStatusCode();
+        if (logger != null) {
+          logger.debug(String.format("GET %s attempt %d/%d: %s in %d ms", urlLink, attempt,
+              retryPolicy.getMaxAttempts(), statusLine, System.currentTimeMillis() - start));
+        }
 
-        if (statusCode == HttpStatus.SC_GATEWAY_TIMEOUT) {
-          methodGet.releaseConnection();
-          try {
-            Thread.sleep(10000L);
-          } catch (InterruptedException ex) {
-            Thread.currentThread().interrupt();
+        if (!retryPolicy.hasNextAttempt(attempt) || !retryPolicy.isRetryable(response)) {
+          break;
+        }
+        final long delay = retryPolicy.findDelay(attempt, response);
+        if (delay < 0L) {
+          if (logger != null) {
+            logger.warn(String.format("GET %s: server requested delay longer than %d ms, no retry",
+                urlLink, retryPolicy.getMaxDelay()));
           }
-        } else {
           break;
         }
+        if (logger != null) {
+          logger.warn(String.format("GET %s attempt %d/%d returned %d, retry in %d ms", urlLink,
+              attempt, retryPolicy.getMaxAttempts(), statusCode, delay));
+        }
+        EntityUtils.consumeQuietly(response.getEntity());
+        IOUtils.closeQuietly(transportResponse);
+        transportResponse = null;
+        RetryPolicy.sleep(delay);
       }
 
-      if (statusCode != HttpStatus.SC_OK) {
+      if (statusCode != HttpStatus.SC_OK && statusCode != HttpStatus.SC_PARTIAL_CONTENT) {
         throw new HttpResponseException(
             String.format("HTTP request returns unexpected %d code (%s)",
                 response.getStatusLine().getStatusCode(),
@@ -188,13 +403,56 @@ public final class HttpUtils {
       }
       consumer.accept(entity);
     } finally {
-      if (methodGet != null) {
-        methodGet.releaseConnection();
-      }
+      IOUtils.closeQuietly(transportResponse);
     }
     return response.getAllHeaders();
   }
 
+  /**
+   * Check that IO error of request can be fixed by retry, like broken connection or timeout.
+   *
+   * @param error error of request
+   * @return true if the request can be retried, false for errors like unknown host or SSL error
+   * @since 1.2.7
+   */
+  public static boolean isRetryableError(@Nonnull final IOException error) {
+    return !(error instanceof UnknownHostException
+        || error instanceof SSLException
+        || error instanceof InterruptedIOException && Thread.currentThread().isInterrupted());
+  }
+
+  /**
+   * Parse value of Content-Range header.
+   *
+   * @param value header value, like 'bytes 0-1023/146515'
+   * @return array contains first byte position, last byte position and complete length (-1 if
+   * unknown), null if the value can't be parsed
+   */
+  @Nullable
+  public static long[] parseContentRange(@Nullable final String value) {
+    if (value == null) {
+      return null;
+    }
+    final String trimmed = value.trim();
+    if (!trimmed.toLowerCase(Locale.ENGLISH).startsWith("bytes ")) {
+      return null;
+    }
+    final String range = trimmed.substring(6).trim();
+    final int slash = range.indexOf('/');
+    final int dash = range.indexOf('-');
+    if (slash < 0 || dash < 0 || dash > slash) {
+      return null;
+    }
+    try {
+      final long first = Long.parseLong(range.substring(0, dash).trim());
+      final long last = Long.parseLong(range.substring(dash + 1, slash).trim());
+      final String total = range.substring(slash + 1).trim();
+      return new long[] {first, last, "*".equals(total) ? -1L : Long.parseLong(total)};
+    } catch (NumberFormatException ex) {
+      return null;
+    }
+  }
+
   @Nonnull
   public static String extractComputerName() {
     String result = System.getenv("COMPUTERNAME");
@@ -218,7 +476,7 @@ public final class HttpUtils {
   }
 
   @Nonnull
-  public static HttpClient makeHttpClient(
+  public static CloseableHttpClient makeHttpClient(
       @Nonnull Log logger,
       @Nullable final ProxySettings proxy,
       final boolean disableSslCheck
@@ -227,7 +485,7 @@ public final class HttpUtils {
   }
 
   @Nonnull
-  public static HttpClient makeHttpClient(
+  public static CloseableHttpClient makeHttpClient(
       @Nonnull Log logger,
       @Nullable final ProxySettings proxy,
       @Nullable final Function<HttpClientBuilder, HttpClientBuilder> tuner,
@@ -237,6 +495,8 @@ public final class HttpUtils {
 
     builder
         .setRedirectStrategy(LaxRedirectStrategy.INSTANCE)
+        .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE)
+        .setMaxConnTotal(MAX_CONNECTIONS_PER_ROUTE * 2)
         .disableCookieManagement();
 
     if (proxy != null) {
@@ -318,7 +578,11 @@ public final class HttpUtils {
             .register("https", sslfactory)
             .register("http", new PlainConnectionSocketFactory()).build();
 
-        builder.setConnectionManager(new BasicHttpClientConnectionManager(r));
+        final PoolingHttpClientConnectionManager connectionManager =
+            new PoolingHttpClientConnectionManager(r);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        connectionManager.setMaxTotal(MAX_CONNECTIONS_PER_ROUTE * 2);
+        builder.setConnectionManager(connectionManager);
         builder.setSSLSocketFactory(sslfactory);
         builder.setSSLContext(sslcontext);
 
@@ -330,5 +594,4 @@ public final class HttpUtils {
 
     return tuner == null ? builder.build() : tuner.apply(builder).build();
   }
-
 }
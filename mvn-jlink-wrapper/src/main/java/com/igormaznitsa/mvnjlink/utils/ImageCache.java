@@ -0,0 +1,276 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.utils;
+
+import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
+import static java.nio.file.Files.createDirectories;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Content-addressed cache of images generated by jlink, placed in the JDK cache folder. Every
+ * record is named by a key calculated from inputs of jlink (JDK, modules, options) so that the
+ * same image made by different projects or branches is generated only once. Records are removed
+ * in order of their last use when total size of the cache exceeds limit.
+ *
+ * @since 1.2.7
+ */
+public final class ImageCache {
+
+  /**
+   * Name of the image cache folder inside the JDK cache folder.
+   */
+  public static final String FOLDER_NAME = ".images";
+
+  private static final String TEMP_PREFIX = ".tmp-";
+  private static final String IMAGE_FOLDER = "image";
+  private static final String SIZE_FILE = "size";
+  private static final String USED_FILE = "used";
+  private static final String LOCK_FILE = ".lock";
+
+  private final Log log;
+  private final Path root;
+  private final long lockTimeout;
+
+  /**
+   * Constructor.
+   *
+   * @param log         maven log
+   * @param cacheFolder JDK cache folder
+   * @param lockTimeout timeout of cache lock waiting in milliseconds, 0 or negative for no limit
+   */
+  public ImageCache(@Nonnull final Log log, @Nonnull final Path cacheFolder,
+                    final long lockTimeout) {
+    this.log = assertNotNull(log);
+    this.root = assertNotNull(cacheFolder).resolve(FOLDER_NAME);
+    this.lockTimeout = lockTimeout;
+  }
+
+  @Nonnull
+  public Path getRoot() {
+    return this.root;
+  }
+
+  @Nonnull
+  private CacheLock lock(final boolean shared) throws IOException {
+    createDirectories(this.root);
+    return CacheLock.acquire(this.log, this.root.resolve(LOCK_FILE), shared, this.lockTimeout);
+  }
+
+  /**
+   * Make copy of cached image in target folder.
+   *
+   * @param key       key of image
+   * @param target    target folder, must not exist
+   * @param hardLinks true if files should be hard links to cached files, if hard links are not
+   *                  supported then files are copied. Hard linked files must not be changed.
+   * @return true if the image has been found and materialized, false if there is no such image
+   * @throws IOException if any error, the target folder can contain a part of the image
+   */
+  public boolean materialize(
+      @Nonnull final String key,
+      @Nonnull final Path target,
+      final boolean hardLinks
+  ) throws IOException {
+    final Path record = this.root.resolve(key);
+    if (!Files.isDirectory(record)) {
+      return false;
+    }
+    try (final CacheLock ignored = this.lock(true)) {
+      final Path image = record.resolve(IMAGE_FOLDER);
+      if (!Files.isDirectory(image)) {
+        return false;
+      }
+      Files.setLastModifiedTime(record.resolve(USED_FILE),
+          FileTime.fromMillis(System.currentTimeMillis()));
+      final boolean linked = copyTree(image, target, hardLinks);
+      this.log.debug("Materialized cached image " + key + (linked ? " by hard links" : " by copy"));
+      return true;
+    }
+  }
+
+  /**
+   * Store copy of image folder in the cache. If the key is already presented then nothing is
+   * changed.
+   *
+   * @param key   key of image
+   * @param image folder of the image
+   * @throws IOException if any error
+   */
+  public void store(@Nonnull final String key, @Nonnull final Path image) throws IOException {
+    final Path record = this.root.resolve(key);
+    try (final CacheLock ignored = this.lock(true)) {
+      if (Files.isDirectory(record)) {
+        return;
+      }
+      final Path temp = this.root.resolve(TEMP_PREFIX + UUID.randomUUID());
+      try {
+        copyTree(image, temp.resolve(IMAGE_FOLDER), false);
+        Files.write(temp.resolve(SIZE_FILE),
+            Long.toString(FileUtils.sizeOfDirectory(image.toFile()))
+                .getBytes(StandardCharsets.UTF_8));
+        Files.write(temp.resolve(USED_FILE), new byte[0]);
+        try {
+          Files.move(temp, record, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException ex) {
+          this.log.debug("Image " + key + " has been stored concurrently");
+        }
+      } finally {
+        if (Files.exists(temp)) {
+          FileUtils.deleteQuietly(temp.toFile());
+        }
+      }
+    }
+    this.log.debug("Stored image " + key + " in cache: " + record);
+  }
+
+  /**
+   * Remove least recently used images while total size of the cache is greater than limit.
+   *
+   * @param maxSize  max size of all cached images in bytes
+   * @param keepKey  key of image which must not be removed, can be null
+   * @return number of removed images
+   * @throws IOException if any error
+   */
+  public int prune(final long maxSize, @Nullable final String keepKey) throws IOException {
+    if (!Files.isDirectory(this.root)) {
+      return 0;
+    }
+    int removed = 0;
+    try (final CacheLock ignored = this.lock(false)) {
+      final List<Path> records;
+      try (final Stream<Path> stream = Files.list(this.root)) {
+        records = stream
+            .filter(Files::isDirectory)
+            .filter(x -> !assertNotNull(x.getFileName()).toString().startsWith(TEMP_PREFIX))
+            .sorted(Comparator.comparingLong(ImageCache::findLastUse))
+            .collect(Collectors.toList());
+      }
+      long totalSize = 0L;
+      final List<Long> sizes = new ArrayList<>();
+      for (final Path record : records) {
+        final long size = findSize(record);
+        sizes.add(size);
+        totalSize += size;
+      }
+      for (int i = 0; i < records.size() && totalSize > maxSize; i++) {
+        final Path record = records.get(i);
+        if (assertNotNull(record.getFileName()).toString().equals(keepKey)) {
+          continue;
+        }
+        final Path temp = this.root.resolve(TEMP_PREFIX + UUID.randomUUID());
+        Files.move(record, temp, StandardCopyOption.ATOMIC_MOVE);
+        FileUtils.deleteDirectory(temp.toFile());
+        totalSize -= sizes.get(i);
+        removed++;
+      }
+    }
+    this.log.debug("Pruned " + removed + " image(s) in " + this.root);
+    return removed;
+  }
+
+  private static long findLastUse(@Nonnull final Path record) {
+    try {
+      return Files.getLastModifiedTime(record.resolve(USED_FILE)).toMillis();
+    } catch (IOException ex) {
+      return 0L;
+    }
+  }
+
+  private static long findSize(@Nonnull final Path record) {
+    try {
+      return Long.parseLong(
+          new String(Files.readAllBytes(record.resolve(SIZE_FILE)), StandardCharsets.UTF_8)
+              .trim());
+    } catch (IOException | NumberFormatException ex) {
+      return FileUtils.sizeOfDirectory(record.toFile());
+    }
+  }
+
+  /**
+   * Copy folder tree, file attributes are preserved.
+   *
+   * @param source    source folder
+   * @param target    target folder, must not exist
+   * @param hardLinks true if files should be hard links to source files if possible
+   * @return true if all files are hard links, false if any file has been copied
+   * @throws IOException if any error
+   */
+  private static boolean copyTree(
+      @Nonnull final Path source,
+      @Nonnull final Path target,
+      final boolean hardLinks
+  ) throws IOException {
+    final boolean[] linked = new boolean[] {hardLinks};
+    Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+      @Override
+      @Nonnull
+      public FileVisitResult preVisitDirectory(@Nonnull final Path dir,
+                                               @Nonnull final BasicFileAttributes attrs)
+          throws IOException {
+        createDirectories(target.resolve(source.relativize(dir).toString()));
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      @Nonnull
+      public FileVisitResult visitFile(@Nonnull final Path file,
+                                       @Nonnull final BasicFileAttributes attrs)
+          throws IOException {
+        final Path targetFile = target.resolve(source.relativize(file).toString());
+        if (linked[0] && attrs.isRegularFile()) {
+          try {
+            Files.createLink(targetFile, file);
+            return FileVisitResult.CONTINUE;
+          } catch (IOException | UnsupportedOperationException ex) {
+            linked[0] = false;
+          }
+        }
+        Files.copy(file, targetFile, StandardCopyOption.COPY_ATTRIBUTES,
+            LinkOption.NOFOLLOW_LINKS);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    return linked[0];
+  }
+
+  @Nonnull
+  @Override
+  public String toString() {
+    return "ImageCache{" + this.root + '}';
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.utils;
+
+import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.newOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Fingerprint of inputs of a tool execution. It is a sorted set of named values (tool version,
+ * command line, hashes of input files) which can be saved as manifest near the tool result and
+ * compared with fingerprint of the next execution to detect that the result is up to date.
+ *
+ * @since 1.2.7
+ */
+public final class InputFingerprint {
+
+  private final SortedMap<String, String> values = new TreeMap<>();
+
+  /**
+   * Add named value into the fingerprint.
+   *
+   * @param key   name of value
+   * @param value value, null is saved as empty string
+   * @return the fingerprint
+   */
+  @Nonnull
+  public InputFingerprint put(@Nonnull final String key, @Nullable final String value) {
+    this.values.put(assertNotNull(key), value == null ? "" : value);
+    return this;
+  }
+
+  /**
+   * Add hash of file or folder content into the fingerprint.
+   *
+   * @param key  name of value
+   * @param path path to file or folder
+   * @return the fingerprint
+   * @throws IOException if any error during file reading
+   * @see #hashContent(Path)
+   */
+  @Nonnull
+  public InputFingerprint putContent(@Nonnull final String key, @Nonnull final Path path)
+      throws IOException {
+    return this.put(key, hashContent(path));
+  }
+
+  @Nonnull
+  public Map<String, String> getValues() {
+    return Collections.unmodifiableMap(this.values);
+  }
+
+  /**
+   * Make SHA-256 hash of all values of the fingerprint.
+   *
+   * @return hex string of the hash
+   */
+  @Nonnull
+  public String getHash() {
+    final MessageDigest digest = DigestUtils.getSha256Digest();
+    this.values.forEach((key, value) -> {
+      digest.update(key.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(value.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+    });
+    return Hex.encodeHexString(digest.digest());
+  }
+
+  /**
+   * Make SHA-256 hash of file content or of all regular files in folder, relative paths of files
+   * are included so that renamed files change the hash. Missing path gives 'none'.
+   *
+   * @param path path to file or folder
+   * @return hex string of the hash
+   * @throws IOException if any error during reading
+   */
+  @Nonnull
+  public static String hashContent(@Nonnull final Path path) throws IOException {
+    if (isRegularFile(path)) {
+      try (final InputStream in = newInputStream(path)) {
+        return DigestUtils.sha256Hex(in);
+      }
+    }
+    if (!Files.isDirectory(path)) {
+      return "none";
+    }
+
+    final List<Path> files;
+    try (final Stream<Path> stream = Files.walk(path)) {
+      files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+    }
+    final MessageDigest digest = DigestUtils.getSha256Digest();
+    for (final Path file : files) {
+      final String relative = path.relativize(file).toString().replace('\\', '/');
+      digest.update(relative.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      try (final InputStream in = newInputStream(file)) {
+        DigestUtils.updateDigest(digest, in);
+      }
+    }
+    return Hex.encodeHexString(digest.digest());
+  }
+
+  /**
+   * Check that manifest file contains the same fingerprint.
+   *
+   * @param manifest path to manifest file
+   * @return true if manifest exists and contains the same values, false otherwise
+   */
+  public boolean matches(@Nonnull final Path manifest) {
+    if (!isRegularFile(manifest)) {
+      return false;
+    }
+    final Properties properties = new Properties();
+    try (final InputStream in = newInputStream(manifest)) {
+      properties.load(in);
+    } catch (IOException | IllegalArgumentException ex) {
+      return false;
+    }
+    return this.values.equals(new TreeMap<>(properties));
+  }
+
+  /**
+   * Save fingerprint into manifest file, the file is replaced atomically.
+   *
+   * @param manifest path to manifest file
+   * @throws IOException if any error
+   */
+  public void save(@Nonnull final Path manifest) throws IOException {
+    final Path folder = manifest.toAbsolutePath().getParent();
+    createDirectories(folder);
+    final Properties properties = new Properties();
+    properties.putAll(this.values);
+    final Path temp = folder.resolve(".tmp-" + UUID.randomUUID());
+    try (final OutputStream out = newOutputStream(temp)) {
+      properties.store(out, "mvn-jlink input fingerprint");
+    }
+    SystemUtils.moveAtomically(temp, manifest);
+  }
+
+  @Nonnull
+  @Override
+  public String toString() {
+    return "InputFingerprint(" + this.getHash() + ')';
+  }
+}
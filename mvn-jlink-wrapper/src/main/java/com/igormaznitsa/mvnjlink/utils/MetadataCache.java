@@ -0,0 +1,220 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.utils;
+
+import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.newOutputStream;
+import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.UUID;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Disk cache of loaded metadata documents (like pages of release lists) placed in the JDK cache
+ * folder. Every record keeps body of document and its validators (ETag and Last-Modified) in
+ * one file so that the document can be revalidated by conditional request and the validators
+ * always belong to the saved body.
+ *
+ * @since 1.2.7
+ */
+public final class MetadataCache {
+
+  /**
+   * Name of the metadata folder inside the JDK cache folder.
+   */
+  public static final String FOLDER_NAME = ".metadata";
+
+  private static final String KEY_URL = "url";
+  private static final String KEY_ETAG = "etag";
+  private static final String KEY_LAST_MODIFIED = "lastModified";
+  private static final String KEY_LINK = "link";
+  private static final String KEY_TIMESTAMP = "timestamp";
+  private static final String KEY_BODY = "body";
+
+  private final Path folder;
+
+  public MetadataCache(@Nonnull final Path cacheFolder) {
+    this.folder = assertNotNull(cacheFolder).resolve(FOLDER_NAME);
+  }
+
+  @Nonnull
+  public Path getFolder() {
+    return this.folder;
+  }
+
+  @Nonnull
+  private Path findPropertiesFile(@Nonnull final String url) {
+    return this.folder.resolve(sha256Hex(url) + ".properties");
+  }
+
+  /**
+   * Load cached record for URL.
+   *
+   * @param url url of document
+   * @return loaded record or null if not found or can't be read
+   */
+  @Nullable
+  public Record load(@Nonnull final String url) {
+    final Path propertiesFile = this.findPropertiesFile(url);
+    if (!isRegularFile(propertiesFile)) {
+      return null;
+    }
+    final Properties properties = new Properties();
+    try (final InputStream in = newInputStream(propertiesFile)) {
+      properties.load(in);
+      final String body = properties.getProperty(KEY_BODY);
+      if (body == null || !url.equals(properties.getProperty(KEY_URL))) {
+        return null;
+      }
+      return new Record(body,
+          properties.getProperty(KEY_ETAG),
+          properties.getProperty(KEY_LAST_MODIFIED),
+          properties.getProperty(KEY_LINK),
+          Long.parseLong(properties.getProperty(KEY_TIMESTAMP, "0")));
+    } catch (IOException | NumberFormatException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Save record for URL. Body and validators are written into temp file which is moved
+   * atomically so that concurrent readers and writers never see partly written record or body of
+   * one response paired with validators of another one.
+   *
+   * @param url    url of document
+   * @param record record to be saved
+   * @throws IOException if any error
+   */
+  public void save(@Nonnull final String url, @Nonnull final Record record) throws IOException {
+    createDirectories(this.folder);
+    final Properties properties = new Properties();
+    properties.setProperty(KEY_URL, url);
+    if (record.getEtag() != null) {
+      properties.setProperty(KEY_ETAG, record.getEtag());
+    }
+    if (record.getLastModified() != null) {
+      properties.setProperty(KEY_LAST_MODIFIED, record.getLastModified());
+    }
+    if (record.getLink() != null) {
+      properties.setProperty(KEY_LINK, record.getLink());
+    }
+    properties.setProperty(KEY_TIMESTAMP, Long.toString(record.getTimestamp()));
+    properties.setProperty(KEY_BODY, record.getBody());
+
+    final Path tempProperties = this.folder.resolve(".tmp-" + UUID.randomUUID());
+    try (final OutputStream out = newOutputStream(tempProperties)) {
+      properties.store(out, "mvn-jlink metadata");
+    }
+    SystemUtils.moveAtomically(tempProperties, this.findPropertiesFile(url));
+  }
+
+  /**
+   * Cached metadata document.
+   */
+  public static final class Record {
+    private final String body;
+    private final String etag;
+    private final String lastModified;
+    private final String link;
+    private final long timestamp;
+
+    /**
+     * Constructor.
+     *
+     * @param body         body of document
+     * @param etag         ETag header value, can be null
+     * @param lastModified Last-Modified header value, can be null
+     * @param link         Link header value, can be null
+     * @param timestamp    time of the last validation in milliseconds
+     */
+    public Record(
+        @Nonnull final String body,
+        @Nullable final String etag,
+        @Nullable final String lastModified,
+        @Nullable final String link,
+        final long timestamp
+    ) {
+      this.body = assertNotNull(body);
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.link = link;
+      this.timestamp = timestamp;
+    }
+
+    @Nonnull
+    public String getBody() {
+      return this.body;
+    }
+
+    @Nullable
+    public String getEtag() {
+      return this.etag;
+    }
+
+    @Nullable
+    public String getLastModified() {
+      return this.lastModified;
+    }
+
+    @Nullable
+    public String getLink() {
+      return this.link;
+    }
+
+    public long getTimestamp() {
+      return this.timestamp;
+    }
+
+    /**
+     * Check that record is validated not later than TTL ago.
+     *
+     * @param ttlMs time to live in milliseconds
+     * @param now   current time in milliseconds
+     * @return true if record can be used without revalidation
+     */
+    public boolean isFresh(final long ttlMs, final long now) {
+      return ttlMs > 0L && now >= this.timestamp && now - this.timestamp < ttlMs;
+    }
+
+    /**
+     * Make copy of record with new validation time.
+     *
+     * @param timestamp time of validation in milliseconds
+     * @return new record
+     */
+    @Nonnull
+    public Record withTimestamp(final long timestamp) {
+      return new Record(this.body, this.etag, this.lastModified, this.link, timestamp);
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+      return "Record{etag=" + this.etag + ", lastModified=" + this.lastModified + ", timestamp="
+          + this.timestamp + ", length=" + this.body.length() + '}';
+    }
+  }
+}
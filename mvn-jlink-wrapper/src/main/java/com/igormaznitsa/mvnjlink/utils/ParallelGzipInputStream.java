@@ -0,0 +1,421 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.utils;
+
+import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * GZIP input stream which inflates data in separate thread. Inflated data is passed to reader
+ * through bounded ring of reusable buffers so that inflating and consuming (TAR parsing and file
+ * writing) work at the same time. If the stream is block compressed GZIP (BGZF, made by bgzip)
+ * then its members are inflated in parallel by several threads because size of every member is
+ * written in its header.
+ *
+ * @since 1.2.7
+ */
+public final class ParallelGzipInputStream extends InputStream {
+
+  /**
+   * Mode of inflating.
+   */
+  public enum Mode {
+    /**
+     * Whole stream is inflated sequentially by one background thread.
+     */
+    PIPELINED,
+    /**
+     * BGZF members are inflated in parallel by pool of threads.
+     */
+    PARALLEL_BGZF
+  }
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int BGZF_HEADER_SIZE = 18;
+  private static final int GZIP_FLAG_EXTRA = 4;
+
+  private static final Chunk END = new Chunk(null, -1, null);
+
+  private final InputStream source;
+  private final Mode mode;
+  private final int threads;
+  private final BlockingQueue<byte[]> freeBuffers;
+  private final BlockingQueue<Chunk> filledChunks;
+  private final Thread inflaterThread;
+  private final ExecutorService inflaterPool;
+  private final AtomicLong inflatedBytes = new AtomicLong();
+  private final AtomicLong members = new AtomicLong();
+
+  private Chunk currentChunk;
+  private int currentPosition;
+  private boolean finished;
+  private volatile boolean closed;
+
+  /**
+   * Constructor.
+   *
+   * @param source   source GZIP stream, it will be closed with the stream
+   * @param threads  number of threads to inflate BGZF members, if 1 then only one background
+   *                 thread is used
+   * @param ringSize number of reusable buffers in the ring between inflater and reader
+   * @throws IOException if source is not GZIP or can't be read
+   */
+  public ParallelGzipInputStream(@Nonnull final InputStream source, final int threads,
+                                 final int ringSize) throws IOException {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Threads must be positive: " + threads);
+    }
+    if (ringSize < 2) {
+      throw new IllegalArgumentException("Ring size must be 2 or greater: " + ringSize);
+    }
+    this.source = assertNotNull(source).markSupported() ? source
+        : new BufferedInputStream(source, BUFFER_SIZE);
+    this.mode = threads > 1 && isBgzf(this.source) ? Mode.PARALLEL_BGZF : Mode.PIPELINED;
+    this.threads = this.mode == Mode.PARALLEL_BGZF ? threads : 1;
+
+    this.freeBuffers = new ArrayBlockingQueue<>(ringSize);
+    for (int i = 0; i < ringSize; i++) {
+      this.freeBuffers.add(new byte[BUFFER_SIZE]);
+    }
+    this.filledChunks = new ArrayBlockingQueue<>(ringSize + 1);
+
+    if (this.mode == Mode.PARALLEL_BGZF) {
+      this.inflaterPool = Executors.newFixedThreadPool(this.threads, runnable -> {
+        final Thread thread = new Thread(runnable, "mvn-jlink-gzip-inflater");
+        thread.setDaemon(true);
+        return thread;
+      });
+    } else {
+      this.inflaterPool = null;
+    }
+
+    this.inflaterThread = new Thread(this::runInflater, "mvn-jlink-gzip-reader");
+    this.inflaterThread.setDaemon(true);
+    this.inflaterThread.start();
+  }
+
+  private static boolean isBgzf(@Nonnull final InputStream stream) throws IOException {
+    final byte[] header = new byte[BGZF_HEADER_SIZE];
+    stream.mark(header.length);
+    try {
+      return readFully(stream, header, 0, header.length) == header.length
+          && findBgzfBlockSize(header) > 0;
+    } finally {
+      stream.reset();
+    }
+  }
+
+  /**
+   * Find size of BGZF block for its header. BGZF header is GZIP header with single extra sub-field
+   * 'BC' which contains size of whole block minus one.
+   *
+   * @param header 18 bytes of member header
+   * @return size of the whole block or -1 if it is not BGZF header
+   */
+  private static int findBgzfBlockSize(@Nonnull final byte[] header) {
+    if ((header[0] & 0xFF) != 0x1F || (header[1] & 0xFF) != 0x8B || header[2] != 8
+        || (header[3] & 0xFF) != GZIP_FLAG_EXTRA) {
+      return -1;
+    }
+    final int extraLength = (header[10] & 0xFF) | (header[11] & 0xFF) << 8;
+    if (extraLength != 6 || header[12] != 'B' || header[13] != 'C' || header[14] != 2
+        || header[15] != 0) {
+      return -1;
+    }
+    return ((header[16] & 0xFF) | (header[17] & 0xFF) << 8) + 1;
+  }
+
+  private static int readFully(@Nonnull final InputStream stream, @Nonnull final byte[] buffer,
+                               final int offset, final int length) throws IOException {
+    int done = 0;
+    while (done < length) {
+      final int read = stream.read(buffer, offset + done, length - done);
+      if (read < 0) {
+        break;
+      }
+      done += read;
+    }
+    return done;
+  }
+
+  private static int readInt(@Nonnull final byte[] array, final int offset) {
+    return (array[offset] & 0xFF)
+        | (array[offset + 1] & 0xFF) << 8
+        | (array[offset + 2] & 0xFF) << 16
+        | (array[offset + 3] & 0xFF) << 24;
+  }
+
+  @Nonnull
+  public Mode getMode() {
+    return this.mode;
+  }
+
+  public int getThreads() {
+    return this.threads;
+  }
+
+  public long getInflatedBytes() {
+    return this.inflatedBytes.get();
+  }
+
+  /**
+   * Get number of inflated BGZF members.
+   *
+   * @return number of members, 0 in pipelined mode
+   */
+  public long getMembers() {
+    return this.members.get();
+  }
+
+  private void runInflater() {
+    try {
+      if (this.mode == Mode.PARALLEL_BGZF) {
+        this.inflateBgzf();
+      } else {
+        this.inflateSequentially();
+      }
+      this.filledChunks.put(END);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (Throwable ex) {
+      this.filledChunks.clear();
+      this.filledChunks.offer(new Chunk(null, -1, ex));
+    }
+  }
+
+  private void inflateSequentially() throws IOException, InterruptedException {
+    final GZIPInputStream gzipInputStream = new GZIPInputStream(this.source, BUFFER_SIZE);
+    while (!this.closed) {
+      final byte[] buffer = this.freeBuffers.take();
+      final int read = readFully(gzipInputStream, buffer, 0, buffer.length);
+      if (read == 0) {
+        this.freeBuffers.put(buffer);
+        break;
+      }
+      this.inflatedBytes.addAndGet(read);
+      this.filledChunks.put(new Chunk(buffer, read, null));
+    }
+  }
+
+  private void inflateBgzf() throws IOException, InterruptedException {
+    final Deque<Future<Chunk>> inflight = new ArrayDeque<>();
+    final byte[] header = new byte[BGZF_HEADER_SIZE];
+    while (!this.closed) {
+      final int headerRead = readFully(this.source, header, 0, header.length);
+      if (headerRead == 0) {
+        break;
+      }
+      if (headerRead != header.length) {
+        throw new EOFException("Unexpected end of BGZF stream");
+      }
+      final int blockSize = findBgzfBlockSize(header);
+      if (blockSize < 0) {
+        throw new IOException("Detected non-BGZF member in BGZF stream");
+      }
+      final byte[] block = new byte[blockSize - BGZF_HEADER_SIZE];
+      if (readFully(this.source, block, 0, block.length) != block.length) {
+        throw new EOFException("Unexpected end of BGZF block");
+      }
+
+      byte[] buffer = this.freeBuffers.poll();
+      while (buffer == null) {
+        if (inflight.isEmpty()) {
+          buffer = this.freeBuffers.take();
+        } else {
+          this.deliver(inflight.poll());
+          buffer = this.freeBuffers.poll();
+        }
+      }
+      final byte[] target = buffer;
+      inflight.add(this.inflaterPool.submit(() -> inflateBlock(block, target)));
+      this.members.incrementAndGet();
+    }
+    while (!inflight.isEmpty()) {
+      this.deliver(inflight.poll());
+    }
+  }
+
+  private void deliver(@Nonnull final Future<Chunk> future)
+      throws IOException, InterruptedException {
+    final Chunk chunk;
+    try {
+      chunk = future.get();
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof IOException) {
+        throw (IOException) ex.getCause();
+      }
+      throw new IOException("Error during BGZF block inflating", ex.getCause());
+    }
+    if (chunk.length == 0) {
+      this.freeBuffers.put(chunk.buffer);
+    } else {
+      this.inflatedBytes.addAndGet(chunk.length);
+      this.filledChunks.put(chunk);
+    }
+  }
+
+  @Nonnull
+  private static Chunk inflateBlock(@Nonnull final byte[] block, @Nonnull final byte[] target)
+      throws IOException {
+    final int dataLength = block.length - 8;
+    if (dataLength < 0) {
+      throw new IOException("Too short BGZF block");
+    }
+    final int expectedCrc = readInt(block, dataLength);
+    final int expectedSize = readInt(block, dataLength + 4);
+    if (expectedSize < 0 || expectedSize > target.length) {
+      throw new IOException("Unexpected BGZF block size: " + expectedSize);
+    }
+    final Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(block, 0, dataLength);
+      int inflated = 0;
+      while (inflated < expectedSize && !inflater.finished()) {
+        final int read = inflater.inflate(target, inflated, expectedSize - inflated);
+        if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        inflated += read;
+      }
+      if (inflated != expectedSize) {
+        throw new IOException("Wrong BGZF block inflated size: " + inflated);
+      }
+    } catch (DataFormatException ex) {
+      throw new IOException("Wrong BGZF block data", ex);
+    } finally {
+      inflater.end();
+    }
+    final CRC32 crc = new CRC32();
+    crc.update(target, 0, expectedSize);
+    if ((int) crc.getValue() != expectedCrc) {
+      throw new IOException("Wrong BGZF block CRC32");
+    }
+    return new Chunk(target, expectedSize, null);
+  }
+
+  @Nullable
+  private Chunk nextChunk() throws IOException {
+    if (this.currentChunk != null && this.currentPosition < this.currentChunk.length) {
+      return this.currentChunk;
+    }
+    if (this.currentChunk != null) {
+      this.freeBuffers.offer(this.currentChunk.buffer);
+      this.currentChunk = null;
+    }
+    if (this.finished) {
+      return null;
+    }
+    final Chunk chunk;
+    try {
+      chunk = this.filledChunks.take();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted GZIP reading");
+    }
+    if (chunk.error != null) {
+      this.finished = true;
+      if (chunk.error instanceof IOException) {
+        throw new IOException(chunk.error.getMessage(), chunk.error);
+      }
+      throw new IOException("Error during GZIP inflating", chunk.error);
+    }
+    if (chunk == END) {
+      this.finished = true;
+      return null;
+    }
+    this.currentChunk = chunk;
+    this.currentPosition = 0;
+    return chunk;
+  }
+
+  @Override
+  public int read() throws IOException {
+    final Chunk chunk = this.nextChunk();
+    if (chunk == null) {
+      return -1;
+    }
+    return chunk.buffer[this.currentPosition++] & 0xFF;
+  }
+
+  @Override
+  public int read(@Nonnull final byte[] array, final int offset, final int length)
+      throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    final Chunk chunk = this.nextChunk();
+    if (chunk == null) {
+      return -1;
+    }
+    final int toCopy = Math.min(length, chunk.length - this.currentPosition);
+    System.arraycopy(chunk.buffer, this.currentPosition, array, offset, toCopy);
+    this.currentPosition += toCopy;
+    return toCopy;
+  }
+
+  @Override
+  public int available() {
+    return this.currentChunk == null ? 0 : this.currentChunk.length - this.currentPosition;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    this.inflaterThread.interrupt();
+    if (this.inflaterPool != null) {
+      this.inflaterPool.shutdownNow();
+    }
+    this.filledChunks.clear();
+    this.source.close();
+  }
+
+  private static final class Chunk {
+    private final byte[] buffer;
+    private final int length;
+    private final Throwable error;
+
+    private Chunk(@Nullable final byte[] buffer, final int length,
+                  @Nullable final Throwable error) {
+      this.buffer = buffer;
+      this.length = length;
+      this.error = error;
+    }
+  }
+}
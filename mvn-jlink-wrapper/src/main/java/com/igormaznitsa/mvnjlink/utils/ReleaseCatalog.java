@@ -0,0 +1,245 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.utils;
+
+import static java.util.Locale.ENGLISH;
+
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Catalog of releases grouped by attribute key (like OS, architecture and type) where releases
+ * of every group are sorted by parsed version. Queries return matching releases from the newest
+ * one. Exact versions and version prefix patterns ('21.+' or '17.0.*') are found through
+ * navigable map ranges, other patterns with '*' or '?' (like '17*' or '17.0.1*') are checked as
+ * wildcards over the whole group from the newest release.
+ *
+ * @param <T> type of release
+ * @since 1.2.7
+ */
+public final class ReleaseCatalog<T> {
+
+  private static final Pattern PREFIX_PATTERN =
+      Pattern.compile("^(\\d+(?:\\.\\d+)*)\\.[*+]$");
+
+  private final Map<String, NavigableMap<Version, List<Entry<T>>>> groups = new HashMap<>();
+  private int size;
+
+  /**
+   * Make group key from attributes, comparison of keys is case insensitive.
+   *
+   * @param attributes attributes of release group
+   * @return formed key
+   */
+  @Nonnull
+  public static String makeKey(@Nonnull @MustNotContainNull final String... attributes) {
+    return Arrays.stream(attributes).map(x -> x.trim().toLowerCase(ENGLISH))
+        .collect(Collectors.joining("|"));
+  }
+
+  /**
+   * Add release into catalog.
+   *
+   * @param key     group key made by {@link #makeKey(String...)}
+   * @param version version of release, used for sorting and matching
+   * @param release release object
+   */
+  public void add(@Nonnull final String key, @Nonnull final String version,
+                  @Nonnull final T release) {
+    this.groups.computeIfAbsent(key, k -> new TreeMap<>())
+        .computeIfAbsent(Version.parse(version), v -> new ArrayList<>())
+        .add(new Entry<>(version, release));
+    this.size++;
+  }
+
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Find releases in group for version pattern.
+   *
+   * @param key            group key made by {@link #makeKey(String...)}
+   * @param versionPattern exact version, '*' for any version, prefix pattern like '21.+' or
+   *                       '21.*', or wildcard pattern with '*' and '?'
+   * @return found releases sorted from the newest one, can be empty
+   */
+  @Nonnull
+  @MustNotContainNull
+  public List<T> find(@Nonnull final String key, @Nonnull final String versionPattern) {
+    final NavigableMap<Version, List<Entry<T>>> group = this.groups.get(key);
+    if (group == null) {
+      return Collections.emptyList();
+    }
+
+    final String pattern = versionPattern.trim();
+    final NavigableMap<Version, List<Entry<T>>> range;
+    final WildCardMatcher matcher;
+
+    final Matcher prefixMatcher = PREFIX_PATTERN.matcher(pattern);
+    if ("*".equals(pattern)) {
+      range = group;
+      matcher = null;
+    } else if (prefixMatcher.matches()) {
+      final long[] prefix = Version.extractNumbers(prefixMatcher.group(1));
+      final long[] next = Arrays.copyOf(prefix, prefix.length);
+      next[next.length - 1]++;
+      range = group.subMap(Version.bound(prefix), true, Version.bound(next), false);
+      matcher = pattern.endsWith("*") ? new WildCardMatcher(pattern, true) : null;
+    } else if (pattern.indexOf('*') < 0 && pattern.indexOf('?') < 0) {
+      final Version version = Version.parse(pattern);
+      range = group.subMap(version, true, version, true);
+      matcher = new WildCardMatcher(pattern, true);
+    } else {
+      range = group;
+      matcher = new WildCardMatcher(pattern, true);
+    }
+
+    final List<T> result = new ArrayList<>();
+    for (final List<Entry<T>> entries : range.descendingMap().values()) {
+      for (final Entry<T> entry : entries) {
+        if (matcher == null || matcher.match(entry.version)) {
+          result.add(entry.release);
+        }
+      }
+    }
+    return result;
+  }
+
+  private static final class Entry<T> {
+    private final String version;
+    private final T release;
+
+    private Entry(@Nonnull final String version, @Nonnull final T release) {
+      this.version = version;
+      this.release = release;
+    }
+  }
+
+  /**
+   * Parsed version. Version numbers and build numbers (after '+', '_' or 'b' like in '21+35',
+   * '21.0.1_12' or '8u392b08') are compared as numbers, missing trailing numbers are zeros, early
+   * access and release candidates are older than release with the same version.
+   */
+  static final class Version implements Comparable<Version> {
+    private static final Pattern NUMBER = Pattern.compile("\\d+");
+    private static final Pattern BUILD_SEPARATOR = Pattern.compile("\\+|_|(?<=\\d)b(?=\\d)");
+    private static final Pattern PRE_RELEASE =
+        Pattern.compile("(?:^|[^a-z])(?:ea|rc|alpha|beta)(?:[^a-z]|$)", Pattern.CASE_INSENSITIVE);
+    private static final long[] EMPTY = new long[0];
+
+    private final long[] numbers;
+    private final long[] build;
+    private final boolean release;
+    private final String text;
+
+    private Version(@Nonnull final long[] numbers, @Nonnull final long[] build,
+                    final boolean release, @Nonnull final String text) {
+      this.numbers = numbers;
+      this.build = build;
+      this.release = release;
+      this.text = text;
+    }
+
+    @Nonnull
+    static Version parse(@Nonnull final String text) {
+      final String normalized = text.trim().toLowerCase(ENGLISH);
+      final Matcher separator = BUILD_SEPARATOR.matcher(normalized);
+      final int buildStart = separator.find() ? separator.start() : normalized.length();
+      return new Version(
+          extractNumbers(normalized.substring(0, buildStart)),
+          extractNumbers(normalized.substring(buildStart)),
+          !PRE_RELEASE.matcher(normalized).find(),
+          normalized);
+    }
+
+    @Nonnull
+    private static long[] extractNumbers(@Nonnull final String text) {
+      final Matcher matcher = NUMBER.matcher(text);
+      final List<Long> found = new ArrayList<>();
+      while (matcher.find()) {
+        final String number = matcher.group();
+        found.add(number.length() > 18 ? Long.MAX_VALUE : Long.parseLong(number));
+      }
+      final long[] result = new long[found.size()];
+      for (int i = 0; i < result.length; i++) {
+        result[i] = found.get(i);
+      }
+      return result;
+    }
+
+    @Nonnull
+    private static Version bound(@Nonnull final long[] numbers) {
+      return new Version(numbers, EMPTY, false, "");
+    }
+
+    private static int compareNumbers(@Nonnull final long[] a, @Nonnull final long[] b) {
+      final int length = Math.max(a.length, b.length);
+      for (int i = 0; i < length; i++) {
+        final int result = Long.compare(i < a.length ? a[i] : 0L, i < b.length ? b[i] : 0L);
+        if (result != 0) {
+          return result;
+        }
+      }
+      return 0;
+    }
+
+    @Override
+    public int compareTo(@Nonnull final Version that) {
+      int result = compareNumbers(this.numbers, that.numbers);
+      if (result == 0) {
+        result = Boolean.compare(this.release, that.release);
+      }
+      if (result == 0) {
+        result = compareNumbers(this.build, that.build);
+      }
+      return result == 0 ? this.text.compareTo(that.text) : result;
+    }
+
+    @Override
+    public boolean equals(@Nullable final Object that) {
+      return that instanceof Version && this.compareTo((Version) that) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+      return this.text.hashCode();
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+      return this.text;
+    }
+  }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.utils;
+
+import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.isRegularFile;
+
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Local index of release assets of a provider, stored in the JDK cache folder as JSON lines
+ * file. The first line is header, every next line describes one archive asset. Index allows to
+ * resolve JDK without loading release lists and to resolve it in offline mode.
+ *
+ * @since 1.2.7
+ */
+public final class ReleaseIndex {
+
+  /**
+   * Name of the index folder inside the JDK cache folder.
+   */
+  public static final String FOLDER_NAME = ".index";
+
+  private static final int FORMAT_VERSION = 1;
+
+  private final String source;
+  private final long timestamp;
+  private final List<Asset> assets;
+
+  /**
+   * Constructor.
+   *
+   * @param source    source of release list, usually URL of the first page
+   * @param timestamp time of the index creation in milliseconds
+   * @param assets    list of assets
+   */
+  public ReleaseIndex(
+      @Nonnull final String source,
+      final long timestamp,
+      @Nonnull @MustNotContainNull final List<Asset> assets
+  ) {
+    this.source = assertNotNull(source);
+    this.timestamp = timestamp;
+    this.assets = Collections.unmodifiableList(new ArrayList<>(assets));
+  }
+
+  /**
+   * Find path to index file for name.
+   *
+   * @param cacheFolder JDK cache folder
+   * @param name        name of index, usually provider id and repository
+   * @return path to index file
+   */
+  @Nonnull
+  public static Path findIndexFile(@Nonnull final Path cacheFolder, @Nonnull final String name) {
+    return cacheFolder.resolve(FOLDER_NAME).resolve(StringUtils.escapeFileName(name) + ".jsonl");
+  }
+
+  /**
+   * Load index from file.
+   *
+   * @param file index file
+   * @return loaded index or null if file not found
+   * @throws IOException if file can't be read or has wrong format
+   */
+  @Nullable
+  public static ReleaseIndex load(@Nonnull final Path file) throws IOException {
+    if (!isRegularFile(file)) {
+      return null;
+    }
+    try (final BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      final String headerLine = reader.readLine();
+      if (headerLine == null) {
+        throw new IOException("Empty release index: " + file);
+      }
+      final JSONObject header = new JSONObject(headerLine);
+      if (header.getInt("format") != FORMAT_VERSION) {
+        throw new IOException("Unsupported release index format: " + file);
+      }
+      final List<Asset> assets = new ArrayList<>();
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!line.trim().isEmpty()) {
+          final JSONObject json = new JSONObject(line);
+          assets.add(new Asset(
+              json.getString("name"),
+              json.getString("url"),
+              json.getString("mime"),
+              json.getLong("size"),
+              json.optString("digest", null),
+              json.optBoolean("prerelease", false)));
+        }
+      }
+      return new ReleaseIndex(header.getString("source"), header.getLong("timestamp"), assets);
+    } catch (JSONException ex) {
+      throw new IOException("Wrong release index format: " + file, ex);
+    }
+  }
+
+  /**
+   * Save index into file, file is written into temp file and moved atomically.
+   *
+   * @param file target file
+   * @throws IOException if any error
+   */
+  public void save(@Nonnull final Path file) throws IOException {
+    final Path folder = assertNotNull(file.toAbsolutePath().getParent());
+    createDirectories(folder);
+    final Path tempFile = folder.resolve(".tmp-" + UUID.randomUUID());
+    try {
+      try (final BufferedWriter writer = Files.newBufferedWriter(tempFile,
+          StandardCharsets.UTF_8)) {
+        writer.write(new JSONObject()
+            .put("format", FORMAT_VERSION)
+            .put("source", this.source)
+            .put("timestamp", this.timestamp)
+            .put("assets", this.assets.size())
+            .toString());
+        writer.newLine();
+        for (final Asset asset : this.assets) {
+          final JSONObject json = new JSONObject()
+              .put("name", asset.getFileName())
+              .put("url", asset.getLink())
+              .put("mime", asset.getMime())
+              .put("size", asset.getSize());
+          if (asset.getDigest() != null) {
+            json.put("digest", asset.getDigest());
+          }
+          if (asset.isPrerelease()) {
+            json.put("prerelease", true);
+          }
+          writer.write(json.toString());
+          writer.newLine();
+        }
+      }
+      SystemUtils.moveAtomically(tempFile, file);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  @Nonnull
+  public String getSource() {
+    return this.source;
+  }
+
+  public long getTimestamp() {
+    return this.timestamp;
+  }
+
+  @Nonnull
+  @MustNotContainNull
+  public List<Asset> getAssets() {
+    return this.assets;
+  }
+
+  @Nonnull
+  @Override
+  public String toString() {
+    return "ReleaseIndex{source=" + this.source + ", timestamp=" + this.timestamp + ", assets="
+        + this.assets.size() + '}';
+  }
+
+  /**
+   * Downloadable archive asset of release. Provider specific attributes (version, type, OS,
+   * architecture etc.) are extracted by providers from the file name.
+   */
+  public static final class Asset {
+    private final String fileName;
+    private final String link;
+    private final String mime;
+    private final long size;
+    private final String digest;
+    private final boolean prerelease;
+
+    /**
+     * Constructor.
+     *
+     * @param fileName   name of archive file
+     * @param link       download URL
+     * @param mime       content type
+     * @param size       size of archive in bytes
+     * @param digest     digest provided by release service (like 'sha256:...'), can be null
+     * @param prerelease true if asset belongs to pre-release
+     */
+    public Asset(
+        @Nonnull final String fileName,
+        @Nonnull final String link,
+        @Nonnull final String mime,
+        final long size,
+        @Nullable final String digest,
+        final boolean prerelease
+    ) {
+      this.fileName = assertNotNull(fileName);
+      this.link = assertNotNull(link);
+      this.mime = assertNotNull(mime);
+      this.size = size;
+      this.digest = digest;
+      this.prerelease = prerelease;
+    }
+
+    @Nonnull
+    public String getFileName() {
+      return this.fileName;
+    }
+
+    @Nonnull
+    public String getLink() {
+      return this.link;
+    }
+
+    @Nonnull
+    public String getMime() {
+      return this.mime;
+    }
+
+    public long getSize() {
+      return this.size;
+    }
+
+    @Nullable
+    public String getDigest() {
+      return this.digest;
+    }
+
+    public boolean isPrerelease() {
+      return this.prerelease;
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+      return "Asset{" + this.fileName + ", size=" + this.size + '}';
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.utils;
+
+import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.isRegularFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Disk cache of tool reports (like jdeps output) placed in the JDK cache folder. Every report is
+ * saved under a key calculated from inputs of the tool, so that the tool is not started again for
+ * the same inputs. Reports are removed in order of their last use when total size of the cache
+ * exceeds limit.
+ *
+ * @since 1.2.7
+ */
+public final class ReportCache {
+
+  /**
+   * Name of the report cache folder inside the JDK cache folder.
+   */
+  public static final String FOLDER_NAME = ".reports";
+
+  private static final String REPORT_SUFFIX = ".report";
+
+  private final Path folder;
+
+  public ReportCache(@Nonnull final Path cacheFolder) {
+    this.folder = assertNotNull(cacheFolder).resolve(FOLDER_NAME);
+  }
+
+  @Nonnull
+  public Path getFolder() {
+    return this.folder;
+  }
+
+  @Nonnull
+  private Path findReportFile(@Nonnull final String key) {
+    return this.folder.resolve(key + REPORT_SUFFIX);
+  }
+
+  /**
+   * Load cached report, modification time of found report is updated.
+   *
+   * @param key key of report
+   * @return body of report or null if not found or can't be read
+   */
+  @Nullable
+  public byte[] load(@Nonnull final String key) {
+    final Path file = this.findReportFile(key);
+    if (!isRegularFile(file)) {
+      return null;
+    }
+    try {
+      final byte[] result = Files.readAllBytes(file);
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+      return result;
+    } catch (IOException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Save report, the file is replaced atomically.
+   *
+   * @param key    key of report
+   * @param report body of report
+   * @throws IOException if any error
+   */
+  public void save(@Nonnull final String key, @Nonnull final byte[] report) throws IOException {
+    createDirectories(this.folder);
+    final Path temp = this.folder.resolve(".tmp-" + UUID.randomUUID());
+    Files.write(temp, report);
+    SystemUtils.moveAtomically(temp, this.findReportFile(key));
+  }
+
+  /**
+   * Remove least recently used reports while total size of the cache is greater than limit.
+   *
+   * @param maxSize max size of all cached reports in bytes
+   * @param keepKey key of report which must not be removed, can be null
+   * @return number of removed reports
+   * @throws IOException if any error
+   */
+  public int prune(final long maxSize, @Nullable final String keepKey) throws IOException {
+    if (!Files.isDirectory(this.folder)) {
+      return 0;
+    }
+    final List<Path> reports;
+    try (final Stream<Path> stream = Files.list(this.folder)) {
+      reports = stream
+          .filter(x -> assertNotNull(x.getFileName()).toString().endsWith(REPORT_SUFFIX))
+          .sorted(Comparator.comparingLong(ReportCache::findLastUse))
+          .collect(Collectors.toList());
+    }
+    long totalSize = 0L;
+    for (final Path report : reports) {
+      totalSize += findSize(report);
+    }
+    final Path keep = keepKey == null ? null : this.findReportFile(keepKey);
+    int removed = 0;
+    for (int i = 0; i < reports.size() && totalSize > maxSize; i++) {
+      final Path report = reports.get(i);
+      if (report.equals(keep)) {
+        continue;
+      }
+      final long size = findSize(report);
+      if (Files.deleteIfExists(report)) {
+        removed++;
+      }
+      totalSize -= size;
+    }
+    return removed;
+  }
+
+  private static long findLastUse(@Nonnull final Path file) {
+    try {
+      return Files.getLastModifiedTime(file).toMillis();
+    } catch (IOException ex) {
+      return 0L;
+    }
+  }
+
+  private static long findSize(@Nonnull final Path file) {
+    try {
+      return Files.size(file);
+    } catch (IOException ex) {
+      return 0L;
+    }
+  }
+
+  @Nonnull
+  @Override
+  public String toString() {
+    return "ReportCache{" + this.folder + '}';
+  }
+}
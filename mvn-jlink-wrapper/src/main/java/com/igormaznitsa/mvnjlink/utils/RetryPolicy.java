@@ -0,0 +1,208 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.utils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.utils.DateUtils;
+
+/**
+ * Policy of HTTP request retries. Delay between attempts grows exponentially from the initial
+ * delay up to the max delay and it is decreased by random jitter to avoid synchronous retries of
+ * parallel builds. Delay requested by server through 'Retry-After' header or through exhausted
+ * rate limit ('X-RateLimit-Remaining: 0' and 'X-RateLimit-Reset') is used as is, but if it is
+ * longer than the max delay then the request is not retried.
+ *
+ * @since 1.2.7
+ */
+public final class RetryPolicy {
+
+  /**
+   * Default policy: 5 attempts, delay from 1 second up to 1 minute.
+   */
+  public static final RetryPolicy DEFAULT = new RetryPolicy(5, 1000L, 60000L);
+
+  /**
+   * Policy without retries.
+   */
+  public static final RetryPolicy NONE = new RetryPolicy(1, 0L, 0L);
+
+  private static final double JITTER = 0.5d;
+
+  private static final Set<Integer> RETRYABLE_STATUSES = Collections.unmodifiableSet(
+      new HashSet<>(Arrays.asList(
+          HttpStatus.SC_REQUEST_TIMEOUT,
+          429,
+          HttpStatus.SC_BAD_GATEWAY,
+          HttpStatus.SC_SERVICE_UNAVAILABLE,
+          HttpStatus.SC_GATEWAY_TIMEOUT
+      )));
+
+  private final int maxAttempts;
+  private final long initialDelay;
+  private final long maxDelay;
+
+  /**
+   * Constructor.
+   *
+   * @param maxAttempts  max number of attempts, values less than 1 are processed as 1
+   * @param initialDelay delay in milliseconds before the second attempt
+   * @param maxDelay     max delay in milliseconds between attempts
+   */
+  public RetryPolicy(final int maxAttempts, final long initialDelay, final long maxDelay) {
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.initialDelay = Math.max(0L, initialDelay);
+    this.maxDelay = Math.max(this.initialDelay, maxDelay);
+  }
+
+  public int getMaxAttempts() {
+    return this.maxAttempts;
+  }
+
+  public long getInitialDelay() {
+    return this.initialDelay;
+  }
+
+  public long getMaxDelay() {
+    return this.maxDelay;
+  }
+
+  /**
+   * Check that one more attempt is allowed.
+   *
+   * @param attempt number of made attempt, starting from 1
+   * @return true if the next attempt is allowed
+   */
+  public boolean hasNextAttempt(final int attempt) {
+    return attempt < this.maxAttempts;
+  }
+
+  /**
+   * Check that request with response can be retried.
+   *
+   * @param response response of request
+   * @return true if request can be retried
+   */
+  public boolean isRetryable(@Nonnull final HttpResponse response) {
+    final int status = response.getStatusLine().getStatusCode();
+    return RETRYABLE_STATUSES.contains(status)
+        || (status == HttpStatus.SC_FORBIDDEN && isRateLimitExhausted(response));
+  }
+
+  /**
+   * Find delay before the next attempt.
+   *
+   * @param attempt  number of made attempt, starting from 1
+   * @param response response of the made attempt, null if it was failed by IO error
+   * @return delay in milliseconds, negative if the server requested too long delay
+   */
+  public long findDelay(final int attempt, @Nullable final HttpResponse response) {
+    return this.findDelay(attempt, response, System.currentTimeMillis(),
+        ThreadLocalRandom.current().nextDouble());
+  }
+
+  long findDelay(final int attempt, @Nullable final HttpResponse response, final long now,
+                 final double random) {
+    final long requested = response == null ? -1L : findRequestedDelay(response, now);
+    if (requested >= 0L) {
+      return requested > this.maxDelay ? -1L : requested;
+    }
+    long delay = this.initialDelay;
+    for (int i = 1; i < attempt && delay < this.maxDelay; i++) {
+      delay *= 2L;
+    }
+    delay = Math.min(delay, this.maxDelay);
+    return delay - Math.round(delay * JITTER * random);
+  }
+
+  /**
+   * Sleep for delay.
+   *
+   * @param delay delay in milliseconds
+   * @throws InterruptedIOException if thread has been interrupted
+   */
+  public static void sleep(final long delay) throws IOException {
+    if (delay > 0L) {
+      try {
+        Thread.sleep(delay);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted during delay before retry");
+      }
+    }
+  }
+
+  private static long findRequestedDelay(@Nonnull final HttpResponse response, final long now) {
+    final Header retryAfter = response.getFirstHeader("Retry-After");
+    if (retryAfter != null) {
+      final String value = retryAfter.getValue().trim();
+      try {
+        return Math.max(0L, Long.parseLong(value) * 1000L);
+      } catch (NumberFormatException ex) {
+        final Date date = DateUtils.parseDate(value);
+        if (date != null) {
+          return Math.max(0L, date.getTime() - now);
+        }
+      }
+    }
+    if (isRateLimitExhausted(response)) {
+      final String reset = findHeaderValue(response, "X-RateLimit-Reset", "X-Rate-Limit-Reset");
+      if (reset != null) {
+        try {
+          return Math.max(0L, Long.parseLong(reset) * 1000L - now);
+        } catch (NumberFormatException ex) {
+          return -1L;
+        }
+      }
+    }
+    return -1L;
+  }
+
+  private static boolean isRateLimitExhausted(@Nonnull final HttpResponse response) {
+    return "0".equals(
+        findHeaderValue(response, "X-RateLimit-Remaining", "X-Rate-Limit-Remaining"));
+  }
+
+  @Nullable
+  private static String findHeaderValue(@Nonnull final HttpResponse response,
+                                        @Nonnull final String name,
+                                        @Nonnull final String alternativeName) {
+    Header header = response.getFirstHeader(name);
+    if (header == null) {
+      header = response.getFirstHeader(alternativeName);
+    }
+    return header == null ? null : header.getValue().trim();
+  }
+
+  @Nonnull
+  @Override
+  public String toString() {
+    return "RetryPolicy(attempts=" + this.maxAttempts + ", initialDelay=" + this.initialDelay
+        + ", maxDelay=" + this.maxDelay + ')';
+  }
+}
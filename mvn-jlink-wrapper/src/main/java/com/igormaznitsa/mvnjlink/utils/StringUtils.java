@@ -24,6 +24,8 @@ import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
@@ -157,6 +159,26 @@ public final class StringUtils {
     return result;
   }
 
+  /**
+   * Merge jdeps reports made for separate artifacts into single report in jdeps summary format
+   * ('artifact -> module' lines) which can be processed by
+   * {@link #extractJdepsModuleNames(String)}.
+   *
+   * @param reports jdeps reports mapped by artifact names, order of artifacts is kept
+   * @return merged report, modules of every artifact are sorted and unique
+   * @since 1.2.7
+   */
+  @Nonnull
+  public static String mergeJdepsReports(@Nonnull final Map<String, String> reports) {
+    final StringBuilder result = new StringBuilder();
+    reports.forEach((artifact, report) -> {
+      for (final String module : new TreeSet<>(extractJdepsModuleNames(report))) {
+        result.append(artifact).append(" -> ").append(module).append('\n');
+      }
+    });
+    return result.toString();
+  }
+
   /**
    * Match string with a pattern
    *
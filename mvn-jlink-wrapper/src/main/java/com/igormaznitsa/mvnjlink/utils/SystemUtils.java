@@ -21,8 +21,11 @@ import static java.nio.file.Files.isRegularFile;
 
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Locale;
 import java.util.Map;
 import javax.annotation.Nonnull;
@@ -102,5 +105,22 @@ public final class SystemUtils {
     }
   }
 
-
+  /**
+   * Move file into target place atomically if file system supports that, existing target is
+   * replaced.
+   *
+   * @param source source file
+   * @param target target file
+   * @throws IOException if any error
+   * @since 1.2.7
+   */
+  public static void moveAtomically(@Nonnull final Path source, @Nonnull final Path target)
+      throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException ex) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
 }
@@ -0,0 +1,461 @@
+/*
+ * Copyright 2019 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mvnjlink.utils;
+
+import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+
+/**
+ * Reader of TAR archives, supports POSIX ustar, PAX extended headers and GNU long names.
+ * Headers are read from internal buffer, data of entry is bounded by its size and skipped
+ * if not read before request of the next entry.
+ *
+ * @since 1.2.7
+ */
+public final class TarArchiveReader extends ArchiveInputStream<TarArchiveReader.TarEntry> {
+
+  private static final int BLOCK_SIZE = 512;
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int MAX_EXTENDED_HEADER_SIZE = 1024 * 1024;
+
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private final Map<String, String> globalPaxHeaders = new HashMap<>();
+  private int bufferPosition;
+  private int bufferLimit;
+  private TarEntry currentEntry;
+  private long entryRemaining;
+  private long entryPadding;
+  private boolean finished;
+
+  public TarArchiveReader(@Nonnull final InputStream inputStream) {
+    super(assertNotNull(inputStream), StandardCharsets.UTF_8.name());
+  }
+
+  private static boolean isZeroBlock(@Nonnull final byte[] block) {
+    for (final byte b : block) {
+      if (b != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Nonnull
+  private static String parseString(@Nonnull final byte[] header, final int offset,
+                                    final int length) {
+    int end = offset;
+    while (end < offset + length && header[end] != 0) {
+      end++;
+    }
+    return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+  }
+
+  private static long parseNumber(@Nonnull final byte[] header, final int offset,
+                                  final int length) throws IOException {
+    if ((header[offset] & 0x80) != 0) {
+      // GNU base-256 encoding
+      if ((header[offset] & 0x40) != 0) {
+        throw new IOException("Negative base-256 number in TAR header");
+      }
+      long result = header[offset] & 0x3F;
+      for (int i = 1; i < length; i++) {
+        if ((result & 0xFF00000000000000L) != 0L) {
+          throw new IOException("Too big base-256 number in TAR header");
+        }
+        result = (result << 8) | (header[offset + i] & 0xFF);
+      }
+      return result;
+    }
+
+    long result = 0L;
+    boolean started = false;
+    for (int i = offset; i < offset + length; i++) {
+      final byte b = header[i];
+      if (b == 0) {
+        break;
+      }
+      if (b == ' ') {
+        if (started) {
+          break;
+        }
+        continue;
+      }
+      if (b < '0' || b > '7') {
+        throw new IOException("Illegal octal digit in TAR header: " + (char) b);
+      }
+      started = true;
+      result = (result << 3) + (b - '0');
+    }
+    return result;
+  }
+
+  private static void assertChecksum(@Nonnull final byte[] header) throws IOException {
+    final long expected = parseNumber(header, 148, 8);
+    long unsigned = 0L;
+    long signed = 0L;
+    for (int i = 0; i < BLOCK_SIZE; i++) {
+      final byte b = i >= 148 && i < 156 ? (byte) ' ' : header[i];
+      unsigned += b & 0xFF;
+      signed += b;
+    }
+    if (expected != unsigned && expected != signed) {
+      throw new IOException("Wrong TAR header checksum");
+    }
+  }
+
+  @Nonnull
+  private static Map<String, String> parsePaxHeaders(@Nonnull final byte[] data)
+      throws IOException {
+    final Map<String, String> result = new HashMap<>();
+    int position = 0;
+    while (position < data.length && data[position] != 0) {
+      int spaceIndex = position;
+      int length = 0;
+      while (spaceIndex < data.length && data[spaceIndex] != ' ') {
+        final byte b = data[spaceIndex++];
+        if (b < '0' || b > '9') {
+          throw new IOException("Wrong PAX record length");
+        }
+        length = length * 10 + (b - '0');
+      }
+      if (length <= 0 || position + length > data.length) {
+        throw new IOException("Wrong PAX record length: " + length);
+      }
+      final String record = new String(data, spaceIndex + 1, position + length - spaceIndex - 2,
+          StandardCharsets.UTF_8);
+      final int equalsIndex = record.indexOf('=');
+      if (equalsIndex < 0) {
+        throw new IOException("Wrong PAX record: " + record);
+      }
+      result.put(record.substring(0, equalsIndex), record.substring(equalsIndex + 1));
+      position += length;
+    }
+    return result;
+  }
+
+  private int fillBuffer() throws IOException {
+    if (this.bufferPosition < this.bufferLimit) {
+      return this.bufferLimit - this.bufferPosition;
+    }
+    this.bufferPosition = 0;
+    this.bufferLimit = 0;
+    final int read = this.in.read(this.buffer, 0, this.buffer.length);
+    if (read > 0) {
+      this.bufferLimit = read;
+      return read;
+    }
+    return -1;
+  }
+
+  private int readRaw(@Nonnull final byte[] array, final int offset, final int length)
+      throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    if (this.bufferPosition == this.bufferLimit && length >= this.buffer.length) {
+      return this.in.read(array, offset, length);
+    }
+    final int available = this.fillBuffer();
+    if (available < 0) {
+      return -1;
+    }
+    final int toCopy = Math.min(available, length);
+    System.arraycopy(this.buffer, this.bufferPosition, array, offset, toCopy);
+    this.bufferPosition += toCopy;
+    return toCopy;
+  }
+
+  private void readRawFully(@Nonnull final byte[] array, final int offset, final int length)
+      throws IOException {
+    int done = 0;
+    while (done < length) {
+      final int read = this.readRaw(array, offset + done, length - done);
+      if (read < 0) {
+        throw new EOFException("Unexpected end of TAR archive");
+      }
+      done += read;
+    }
+  }
+
+  private void skipRaw(final long length) throws IOException {
+    long remaining = length;
+    final int buffered = Math.min(this.bufferLimit - this.bufferPosition,
+        (int) Math.min(Integer.MAX_VALUE, remaining));
+    this.bufferPosition += buffered;
+    remaining -= buffered;
+    while (remaining > 0L) {
+      final long skipped = this.in.skip(remaining);
+      if (skipped > 0L) {
+        remaining -= skipped;
+      } else {
+        final int available = this.fillBuffer();
+        if (available < 0) {
+          throw new EOFException("Unexpected end of TAR archive");
+        }
+        final int toSkip = (int) Math.min(available, remaining);
+        this.bufferPosition += toSkip;
+        remaining -= toSkip;
+      }
+    }
+  }
+
+  @Nonnull
+  private byte[] readEntryContent(final long size) throws IOException {
+    if (size < 0L || size > MAX_EXTENDED_HEADER_SIZE) {
+      throw new IOException("Too big TAR extended header: " + size);
+    }
+    final byte[] result = new byte[(int) size];
+    this.readRawFully(result, 0, result.length);
+    this.skipRaw(padding(size));
+    return result;
+  }
+
+  private static long padding(final long size) {
+    final long rest = size % BLOCK_SIZE;
+    return rest == 0L ? 0L : BLOCK_SIZE - rest;
+  }
+
+  @Nullable
+  @Override
+  public TarEntry getNextEntry() throws IOException {
+    if (this.finished) {
+      return null;
+    }
+    if (this.currentEntry != null) {
+      this.skipRaw(this.entryRemaining + this.entryPadding);
+      this.currentEntry = null;
+      this.entryRemaining = 0L;
+      this.entryPadding = 0L;
+    }
+
+    Map<String, String> paxHeaders = null;
+    String longName = null;
+    String longLinkName = null;
+
+    final byte[] header = new byte[BLOCK_SIZE];
+    while (true) {
+      final int firstRead = this.readRaw(header, 0, BLOCK_SIZE);
+      if (firstRead < 0) {
+        this.finished = true;
+        return null;
+      }
+      this.readRawFully(header, firstRead, BLOCK_SIZE - firstRead);
+      if (isZeroBlock(header)) {
+        this.finished = true;
+        return null;
+      }
+      assertChecksum(header);
+
+      final byte type = header[156];
+      final long size = parseNumber(header, 124, 12);
+
+      if (type == 'x' || type == 'X') {
+        paxHeaders = parsePaxHeaders(this.readEntryContent(size));
+      } else if (type == 'g') {
+        this.globalPaxHeaders.putAll(parsePaxHeaders(this.readEntryContent(size)));
+      } else if (type == 'L') {
+        longName = parseString(this.readEntryContent(size), 0, (int) size);
+      } else if (type == 'K') {
+        longLinkName = parseString(this.readEntryContent(size), 0, (int) size);
+      } else {
+        final Map<String, String> headers = new HashMap<>(this.globalPaxHeaders);
+        if (paxHeaders != null) {
+          headers.putAll(paxHeaders);
+        }
+
+        String name = parseString(header, 0, 100);
+        final String magic = parseString(header, 257, 6);
+        if ("ustar".equals(magic)) {
+          final String prefix = parseString(header, 345, 155);
+          if (!prefix.isEmpty()) {
+            name = prefix + '/' + name;
+          }
+        }
+        if (longName != null) {
+          name = longName;
+        }
+        name = headers.getOrDefault("path", name);
+
+        String linkName = parseString(header, 157, 100);
+        if (longLinkName != null) {
+          linkName = longLinkName;
+        }
+        linkName = headers.getOrDefault("linkpath", linkName);
+
+        long entrySize = size;
+        final String paxSize = headers.get("size");
+        if (paxSize != null) {
+          try {
+            entrySize = Long.parseLong(paxSize.trim());
+          } catch (NumberFormatException ex) {
+            throw new IOException("Wrong PAX size: " + paxSize);
+          }
+        }
+
+        final int mode = (int) parseNumber(header, 100, 8);
+        final long modificationTime = parseNumber(header, 136, 12);
+
+        final TarEntry entry =
+            new TarEntry(name, entrySize, mode, modificationTime * 1000L, type, linkName);
+        // links and folders don't have data in archive
+        final long dataSize = entry.isFile() ? entrySize : 0L;
+        this.currentEntry = entry;
+        this.entryRemaining = dataSize;
+        this.entryPadding = padding(dataSize);
+        return entry;
+      }
+    }
+  }
+
+  @Override
+  public boolean canReadEntryData(@Nonnull final ArchiveEntry archiveEntry) {
+    return archiveEntry instanceof TarEntry;
+  }
+
+  @Override
+  public int read(@Nonnull final byte[] array, final int offset, final int length)
+      throws IOException {
+    if (this.currentEntry == null || this.entryRemaining <= 0L) {
+      return -1;
+    }
+    final int toRead = (int) Math.min(length, this.entryRemaining);
+    final int read = this.readRaw(array, offset, toRead);
+    if (read < 0) {
+      throw new EOFException("Unexpected end of TAR entry data: " + this.currentEntry.getName());
+    }
+    this.entryRemaining -= read;
+    this.count(read);
+    return read;
+  }
+
+  @Override
+  public long skip(final long length) throws IOException {
+    if (this.currentEntry == null || length <= 0L) {
+      return 0L;
+    }
+    final long toSkip = Math.min(length, this.entryRemaining);
+    this.skipRaw(toSkip);
+    this.entryRemaining -= toSkip;
+    return toSkip;
+  }
+
+  @Override
+  public int available() {
+    return (int) Math.min(Integer.MAX_VALUE, this.entryRemaining);
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  public static final class TarEntry implements ArchiveEntry {
+    private final String name;
+    private final long size;
+    private final int mode;
+    private final long modificationTime;
+    private final byte type;
+    private final String linkName;
+
+    private TarEntry(
+        @Nonnull final String name,
+        final long size,
+        final int mode,
+        final long modificationTime,
+        final byte type,
+        @Nonnull final String linkName
+    ) {
+      this.name = name;
+      this.size = size;
+      this.mode = mode;
+      this.modificationTime = modificationTime;
+      this.type = type;
+      this.linkName = linkName;
+    }
+
+    @Nonnull
+    @Override
+    public String getName() {
+      return this.name;
+    }
+
+    @Override
+    public long getSize() {
+      return this.isFile() ? this.size : 0L;
+    }
+
+    /**
+     * Get POSIX mode bits.
+     *
+     * @return mode bits
+     */
+    public int getMode() {
+      return this.mode;
+    }
+
+    @Nonnull
+    @Override
+    public Date getLastModifiedDate() {
+      return new Date(this.modificationTime);
+    }
+
+    @Override
+    public boolean isDirectory() {
+      return this.type == '5' || (this.isFile() && this.name.endsWith("/"));
+    }
+
+    public boolean isFile() {
+      return this.type == '0' || this.type == 0 || this.type == '7';
+    }
+
+    public boolean isSymbolicLink() {
+      return this.type == '2';
+    }
+
+    public boolean isHardLink() {
+      return this.type == '1';
+    }
+
+    /**
+     * Get target of symbolic or hard link.
+     *
+     * @return link target, empty if not link
+     */
+    @Nonnull
+    public String getLinkName() {
+      return this.linkName;
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+      return "TarEntry{name=" + this.name + ", size=" + this.size + ", mode="
+          + Integer.toOctalString(this.mode) + ", type=" + (char) this.type + '}';
+    }
+  }
+}
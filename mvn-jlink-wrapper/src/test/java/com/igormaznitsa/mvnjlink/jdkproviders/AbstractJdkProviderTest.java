@@ -0,0 +1,52 @@
+package com.igormaznitsa.mvnjlink.jdkproviders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class AbstractJdkProviderTest {
+
+  @Test
+  void testFindLastPage() {
+    assertEquals(1, AbstractJdkProvider.findLastPage(null, 1));
+    assertEquals(7, AbstractJdkProvider.findLastPage(
+        "<https://api.github.com/repositories/1/releases?per_page=40&page=2>; rel=\"next\", "
+            + "<https://api.github.com/repositories/1/releases?per_page=40&page=7>; rel=\"last\"",
+        1));
+    assertEquals(Integer.MAX_VALUE, AbstractJdkProvider.findLastPage(
+        "<https://api.github.com/repositories/1/releases?page=3>; rel=\"next\"", 2));
+    assertEquals(5, AbstractJdkProvider.findLastPage(
+        "<https://api.github.com/repositories/1/releases?per_page=40&page=4>; rel=\"prev\", "
+            + "<https://api.github.com/repositories/1/releases?per_page=40&page=1>; rel=\"first\"",
+        5));
+  }
+
+  @Test
+  void testFindMirrorLinks() {
+    final Map<String, String> config = new HashMap<>();
+    assertEquals(Collections.singletonList("https://main/jdk.zip"),
+        AbstractJdkProvider.findMirrorLinks(config, " https://main/jdk.zip "));
+    config.put(AbstractJdkProvider.CONFIG_MIRRORS,
+        "\n  https://nexus/jdk.zip,\n https://main/jdk.zip  https://artifactory/jdk.zip\n");
+    assertEquals(
+        Arrays.asList("https://main/jdk.zip", "https://nexus/jdk.zip", "https://artifactory/jdk.zip"),
+        AbstractJdkProvider.findMirrorLinks(config, "https://main/jdk.zip"));
+  }
+
+  @Test
+  void testFindMirrorMode() {
+    final Map<String, String> config = new HashMap<>();
+    assertEquals(AbstractJdkProvider.MirrorMode.FAILOVER,
+        AbstractJdkProvider.findMirrorMode(config));
+    config.put(AbstractJdkProvider.CONFIG_MIRROR_MODE, " race");
+    assertEquals(AbstractJdkProvider.MirrorMode.RACE, AbstractJdkProvider.findMirrorMode(config));
+    config.put(AbstractJdkProvider.CONFIG_MIRROR_MODE, "fastest");
+    assertThrows(IllegalArgumentException.class,
+        () -> AbstractJdkProvider.findMirrorMode(config));
+  }
+}
@@ -0,0 +1,177 @@
+package com.igormaznitsa.mvnjlink.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ArchUtilsTest {
+
+  private static final String[] FILES = new String[] {
+      "jdk-11/bin/java", "jdk-11/release", "jdk-11/lib/modules"
+  };
+
+  private static Path makeTarGz(final Path file, final String... names) throws IOException {
+    try (final OutputStream out = Files.newOutputStream(file);
+         final TarArchiveOutputStream tar = new TarArchiveOutputStream(new GZIPOutputStream(out))) {
+      for (final String name : names) {
+        final byte[] data = name.getBytes(StandardCharsets.UTF_8);
+        final TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setSize(data.length);
+        entry.setMode(0100755);
+        tar.putArchiveEntry(entry);
+        tar.write(data);
+        tar.closeArchiveEntry();
+      }
+    }
+    return file;
+  }
+
+  private static TarArchiveEntry makeLinkEntry(final String name, final String target,
+                                               final byte type) {
+    final TarArchiveEntry entry = new TarArchiveEntry(name, type);
+    entry.setLinkName(target);
+    return entry;
+  }
+
+  private static Path makeTarGz(final Path file, final TarArchiveEntry... entries)
+      throws IOException {
+    try (final OutputStream out = Files.newOutputStream(file);
+         final TarArchiveOutputStream tar = new TarArchiveOutputStream(new GZIPOutputStream(out))) {
+      for (final TarArchiveEntry entry : entries) {
+        final byte[] data = entry.getName().getBytes(StandardCharsets.UTF_8);
+        final boolean regular = !entry.isSymbolicLink() && !entry.isLink();
+        if (regular) {
+          entry.setSize(data.length);
+        }
+        tar.putArchiveEntry(entry);
+        if (regular) {
+          tar.write(data);
+        }
+        tar.closeArchiveEntry();
+      }
+    }
+    return file;
+  }
+
+  private static Path makeZip(final Path file, final String... names) throws IOException {
+    try (final ZipArchiveOutputStream zip = new ZipArchiveOutputStream(file.toFile())) {
+      for (final String name : names) {
+        final byte[] data = name.getBytes(StandardCharsets.UTF_8);
+        final ZipArchiveEntry entry = new ZipArchiveEntry(name);
+        entry.setUnixMode(0100644);
+        zip.putArchiveEntry(entry);
+        zip.write(data);
+        zip.closeArchiveEntry();
+      }
+    }
+    return file;
+  }
+
+  @Test
+  void testFindArchiveTypeBySignature(@TempDir final Path folder) throws IOException {
+    assertEquals("tar.gz", ArchUtils.findArchiveType(makeTarGz(folder.resolve("a.bin"), FILES)));
+    assertEquals("zip", ArchUtils.findArchiveType(makeZip(folder.resolve("b.arch"), FILES)));
+    final Path unknown = folder.resolve("c.zip");
+    Files.write(unknown, new byte[] {1, 2, 3});
+    assertEquals("zip", ArchUtils.findArchiveType(unknown));
+    final Path unknown2 = folder.resolve("c.bin");
+    Files.write(unknown2, new byte[] {1, 2, 3});
+    assertEquals("unknown", ArchUtils.findArchiveType(unknown2));
+  }
+
+  @Test
+  void testInspectArchive(@TempDir final Path folder) throws IOException {
+    final ArchiveIndex tarIndex =
+        ArchUtils.inspectArchive(makeTarGz(folder.resolve("a.tar.gz"), FILES));
+    assertEquals("tar.gz", tarIndex.getType());
+    assertEquals("jdk-11", tarIndex.getRootFolder());
+    assertEquals(3, tarIndex.getFileCount());
+    assertEquals(0755, tarIndex.getEntries().get(0).getMode());
+
+    final ArchiveIndex zipIndex = ArchUtils.inspectArchive(makeZip(folder.resolve("a.zip"),
+        "./jdk/bin/java", "other/release"));
+    assertEquals("zip", zipIndex.getType());
+    assertNull(zipIndex.getRootFolder());
+    assertEquals("jdk/bin/java", zipIndex.getEntries().get(0).getName());
+    assertEquals(0644, zipIndex.getEntries().get(0).getMode());
+  }
+
+  @Test
+  void testUnpackArchive(@TempDir final Path folder) throws IOException {
+    final Log log = mock(Log.class);
+    for (final Path archive : Arrays.asList(makeTarGz(folder.resolve("a.tar.gz"), FILES),
+        makeZip(folder.resolve("a.zip"), FILES))) {
+      final Path target = folder.resolve("unpacked_" + archive.getFileName());
+      final ArchiveIndex index = ArchUtils.unpackArchive(log, true, archive, target);
+      assertEquals("jdk-11", index.getRootFolder());
+      assertTrue(Files.isRegularFile(target.resolve("bin/java")));
+      assertTrue(Files.isRegularFile(target.resolve("lib/modules")));
+      assertEquals("jdk-11/release",
+          new String(Files.readAllBytes(target.resolve("release")), StandardCharsets.UTF_8));
+      assertFalse(Files.exists(target.resolve("jdk-11")));
+    }
+  }
+
+  @Test
+  void testUnpackZipInParallel(@TempDir final Path folder) throws IOException {
+    final String[] names = new String[64];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = "jdk/lib/folder" + (i % 7) + "/file" + i + ".txt";
+    }
+    final Path archive = makeZip(folder.resolve("a.zip"), names);
+    final Path target = folder.resolve("unpacked");
+    final ArchiveIndex index = ArchUtils.unpackArchive(mock(Log.class), true, archive, target, 4);
+    assertEquals(names.length, index.getFileCount());
+    for (final String name : names) {
+      assertEquals(name, new String(Files.readAllBytes(target.resolve(name.substring(4))),
+          StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  void testLinksCantEscapeUnpackFolder(@TempDir final Path folder) throws IOException {
+    final Log log = mock(Log.class);
+    final Path escape = makeTarGz(folder.resolve("escape.tar.gz"),
+        makeLinkEntry("d", ".", TarConstants.LF_SYMLINK),
+        makeLinkEntry("d/e", "../x", TarConstants.LF_SYMLINK),
+        new TarArchiveEntry("e"));
+    final Path target = folder.resolve("unpacked");
+    assertThrows(IOException.class, () -> ArchUtils.unpackArchive(log, true, escape, target));
+    assertFalse(Files.exists(folder.resolve("x")));
+    assertFalse(Files.exists(target.resolve("e")));
+
+    final Path doubleLink = makeTarGz(folder.resolve("double.tar.gz"),
+        makeLinkEntry("d", ".", TarConstants.LF_SYMLINK),
+        makeLinkEntry("up", "d/..", TarConstants.LF_SYMLINK),
+        makeLinkEntry("a", "x", TarConstants.LF_SYMLINK),
+        new TarArchiveEntry("a"),
+        makeLinkEntry("h", "d/a", TarConstants.LF_LINK));
+    final Path target2 = folder.resolve("unpacked2");
+    ArchUtils.unpackArchive(log, true, doubleLink, target2);
+    assertTrue(Files.isSymbolicLink(target2.resolve("d")));
+    assertFalse(Files.exists(target2.resolve("up"), LinkOption.NOFOLLOW_LINKS));
+    assertTrue(Files.isRegularFile(target2.resolve("a"), LinkOption.NOFOLLOW_LINKS));
+    assertFalse(Files.exists(target2.resolve("x")));
+    assertFalse(Files.exists(target2.resolve("h")));
+  }
+}
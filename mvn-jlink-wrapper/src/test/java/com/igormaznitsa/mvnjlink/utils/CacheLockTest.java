@@ -0,0 +1,170 @@
+package com.igormaznitsa.mvnjlink.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CacheLockTest {
+
+  private final Log log = mock(Log.class);
+
+  @Test
+  void testExclusiveLockTimeout(@TempDir final Path folder) throws Exception {
+    final Path lockFile = folder.resolve(".jdk.lock");
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (final CacheLock lock = CacheLock.acquire(this.log, lockFile, false, 1000L)) {
+      assertFalse(lock.isShared());
+      assertNotNull(lock.getOwner());
+      assertTrue(lock.getOwner().contains("@"));
+      final Future<?> other = executor.submit(() -> {
+        CacheLock.acquire(this.log, lockFile, true, 200L).close();
+        return null;
+      });
+      final Exception ex = assertThrows(Exception.class, () -> other.get(5, TimeUnit.SECONDS));
+      assertTrue(ex.getCause() instanceof IOException);
+    } finally {
+      executor.shutdownNow();
+    }
+    CacheLock.acquire(this.log, lockFile, false, 200L).close();
+  }
+
+  @Test
+  void testSharedLocks(@TempDir final Path folder) throws Exception {
+    final Path lockFile = folder.resolve(".jdk.lock");
+    final CountDownLatch allLocked = new CountDownLatch(4);
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        futures.add(executor.submit(() -> {
+          try (final CacheLock lock = CacheLock.acquire(this.log, lockFile, true, 5000L)) {
+            assertTrue(lock.isShared());
+            allLocked.countDown();
+            assertTrue(allLocked.await(5, TimeUnit.SECONDS));
+          }
+          return null;
+        }));
+      }
+      for (final Future<?> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    CacheLock.acquire(this.log, lockFile, false, 200L).close();
+  }
+
+  @Test
+  void testSharedWaiterKeepsItsTimeout(@TempDir final Path folder) throws Exception {
+    final Path lockFile = folder.resolve(".jdk.lock");
+    final Process process = new ProcessBuilder(
+        Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+        "-cp", System.getProperty("java.class.path"),
+        ExternalLockHolder.class.getName(), lockFile.toString())
+        .redirectErrorStream(true)
+        .start();
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final BufferedReader reader = new BufferedReader(
+          new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+      assertEquals("locked", reader.readLine());
+
+      final Future<?> first = executor.submit(() -> {
+        CacheLock.acquire(this.log, lockFile, true, 10000L).close();
+        return null;
+      });
+      Thread.sleep(300L);
+      final long start = System.currentTimeMillis();
+      final Future<?> second = executor.submit(() -> {
+        CacheLock.acquire(this.log, lockFile, true, 200L).close();
+        return null;
+      });
+      final Exception ex = assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS));
+      assertTrue(ex.getCause() instanceof IOException);
+      assertTrue(System.currentTimeMillis() - start < 3000L);
+
+      process.getOutputStream().close();
+      assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+      first.get(10, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+      process.destroyForcibly();
+    }
+  }
+
+  @Test
+  void testParallelInstallers(@TempDir final Path folder) throws Exception {
+    final Path lockFile = folder.resolve(".jdk.lock");
+    final AtomicInteger inside = new AtomicInteger();
+    final AtomicInteger maxInside = new AtomicInteger();
+    final AtomicInteger installed = new AtomicInteger();
+    final ExecutorService executor = Executors.newFixedThreadPool(20);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        final boolean shared = i % 2 == 0;
+        futures.add(executor.submit(() -> {
+          try (final CacheLock ignored = CacheLock.acquire(this.log, lockFile, shared, 0L)) {
+            final int now = inside.incrementAndGet();
+            if (!shared) {
+              maxInside.accumulateAndGet(now, Math::max);
+              installed.incrementAndGet();
+            }
+            Thread.sleep(5L);
+            inside.decrementAndGet();
+          }
+          return null;
+        }));
+      }
+      for (final Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, maxInside.get());
+    assertEquals(10, installed.get());
+  }
+
+  /**
+   * Holds exclusive file lock in separated process till its standard input is closed.
+   */
+  public static final class ExternalLockHolder {
+    public static void main(final String... args) throws IOException {
+      try (final FileChannel channel = FileChannel.open(new File(args[0]).toPath(),
+          StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+           final FileLock ignored = channel.lock()) {
+        System.out.println("locked");
+        System.out.flush();
+        while (System.in.read() >= 0) {
+          // wait for end of stream
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package com.igormaznitsa.mvnjlink.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DedupObjectStoreTest {
+
+  private static Path makeJdk(final Path folder, final String release) throws IOException {
+    Files.createDirectories(folder.resolve("legal"));
+    Files.createDirectories(folder.resolve("bin"));
+    Files.write(folder.resolve("legal/LICENSE"), "license".getBytes(StandardCharsets.UTF_8));
+    Files.write(folder.resolve("release"), release.getBytes(StandardCharsets.UTF_8));
+    Files.write(folder.resolve("bin/java"), "java".getBytes(StandardCharsets.UTF_8));
+    assertTrue(folder.resolve("bin/java").toFile().setExecutable(true));
+    Files.write(folder.resolve("empty"), new byte[0]);
+    return folder;
+  }
+
+  @Test
+  void testDeduplicate(@TempDir final Path cache) throws IOException {
+    final DedupObjectStore store = new DedupObjectStore(mock(Log.class), cache);
+    final Path jdk1 = makeJdk(cache.resolve("jdk1"), "1");
+    final Path jdk2 = makeJdk(cache.resolve("jdk2"), "2");
+
+    final DedupObjectStore.Stats stats1 = store.deduplicate(jdk1);
+    assumeTrue(stats1.getCopied() == 0, "Hard links are not supported");
+    assertEquals(3, stats1.getFiles());
+    assertEquals(3, stats1.getStored());
+    assertEquals(0, stats1.getLinked());
+
+    final DedupObjectStore.Stats stats2 = store.deduplicate(jdk2);
+    assertEquals(3, stats2.getFiles());
+    assertEquals(1, stats2.getStored());
+    assertEquals(2, stats2.getLinked());
+    assertEquals("license".length() + "java".length(), stats2.getSavedBytes());
+
+    assertTrue(Files.isSameFile(jdk1.resolve("legal/LICENSE"), jdk2.resolve("legal/LICENSE")));
+    assertFalse(Files.isSameFile(jdk1.resolve("release"), jdk2.resolve("release")));
+    assertTrue(Files.isExecutable(jdk2.resolve("bin/java")));
+    assertArrayEquals("2".getBytes(StandardCharsets.UTF_8),
+        Files.readAllBytes(jdk2.resolve("release")));
+    assertEquals(4L, store.countObjects());
+    if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+      final Set<PosixFilePermission> permissions =
+          Files.getPosixFilePermissions(jdk2.resolve("legal/LICENSE"));
+      assertFalse(permissions.contains(PosixFilePermission.OWNER_WRITE));
+      assertFalse(permissions.contains(PosixFilePermission.GROUP_WRITE));
+      assertFalse(permissions.contains(PosixFilePermission.OTHERS_WRITE));
+    }
+
+    assertEquals(0, store.deduplicate(jdk2).getStored());
+    assertEquals(0, store.prune());
+
+    FileUtils.deleteDirectory(jdk1.toFile());
+    assertEquals(1, store.prune());
+    FileUtils.deleteDirectory(jdk2.toFile());
+    assertEquals(3, store.prune());
+    assertEquals(0L, store.countObjects());
+  }
+}
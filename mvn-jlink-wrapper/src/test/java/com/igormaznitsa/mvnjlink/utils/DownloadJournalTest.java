@@ -0,0 +1,50 @@
+package com.igormaznitsa.mvnjlink.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DownloadJournalTest {
+
+  @Test
+  void testSaveLoad(@TempDir final Path folder) throws IOException {
+    final Path file = folder.resolve("some.part.journal");
+    assertNull(DownloadJournal.load(file));
+
+    final DownloadJournal journal = new DownloadJournal("https://some.host/jdk.tar.gz");
+    journal.setEtag("\"abc\"");
+    journal.setLastModified("Wed, 21 Oct 2015 07:28:00 GMT");
+    journal.setSize(1234L);
+    journal.setBytes(512L);
+    journal.save(file);
+
+    final DownloadJournal loaded = DownloadJournal.load(file);
+    assertNotNull(loaded);
+    assertEquals("https://some.host/jdk.tar.gz", loaded.getUrl());
+    assertEquals("\"abc\"", loaded.getEtag());
+    assertEquals("Wed, 21 Oct 2015 07:28:00 GMT", loaded.getLastModified());
+    assertEquals(1234L, loaded.getSize());
+    assertEquals(512L, loaded.getBytes());
+
+    Files.write(file, "bytes=huhu".getBytes());
+    assertNull(DownloadJournal.load(file));
+  }
+
+  @Test
+  void testFindRangeValidator() {
+    final DownloadJournal journal = new DownloadJournal("http://some");
+    assertNull(journal.findRangeValidator());
+    journal.setLastModified("Wed, 21 Oct 2015 07:28:00 GMT");
+    assertEquals("Wed, 21 Oct 2015 07:28:00 GMT", journal.findRangeValidator());
+    journal.setEtag("W/\"weak\"");
+    assertEquals("Wed, 21 Oct 2015 07:28:00 GMT", journal.findRangeValidator());
+    journal.setEtag("\"strong\"");
+    assertEquals("\"strong\"", journal.findRangeValidator());
+  }
+}
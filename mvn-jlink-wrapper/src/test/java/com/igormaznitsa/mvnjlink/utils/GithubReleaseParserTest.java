@@ -0,0 +1,87 @@
+package com.igormaznitsa.mvnjlink.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class GithubReleaseParserTest {
+
+  private static final String PAGE = "[\n"
+      + " {\"url\":\"https://api/1\",\"author\":{\"login\":\"bot\",\"id\":1,\"site_admin\":false},"
+      + "  \"tag_name\":\"jdk-21+35\",\"draft\":false,\"prerelease\":false,"
+      + "  \"body\":\"Notes with \\\"quotes\\\", \\\\ slash, \\u0442\\u0435\\u0441\\u0442 and [brackets] {}\","
+      + "  \"reactions\":{\"+1\":10,\"total\":1.5e2,\"nested\":[[],{},[null,true,-1]]},"
+      + "  \"assets\":[\n"
+      + "   {\"name\":\"OpenJDK21U-jdk_x64_linux_hotspot_21_35.tar.gz\",\"size\":195000000,"
+      + "    \"uploader\":{\"login\":\"x\"},\"content_type\":\"application/x-compressed-tar\","
+      + "    \"digest\":\"sha256:abcd\","
+      + "    \"browser_download_url\":\"https://github.com/x/OpenJDK21U.tar.gz\"},\n"
+      + "   {\"browser_download_url\":\"https://github.com/x/OpenJDK21U.zip\",\"digest\":null,"
+      + "    \"name\":\"OpenJDK21U-jdk_x64_windows_hotspot_21_35.zip\",\"size\":1,"
+      + "    \"content_type\":\"application/zip\"}\n"
+      + "  ]},\n"
+      + " {\"assets\":[{\"name\":\"draft.zip\",\"size\":1,\"content_type\":\"a\","
+      + "  \"browser_download_url\":\"b\"}],\"tag_name\":\"draft\",\"draft\":true},\n"
+      + " {\"name\":\"no tag\",\"assets\":[{\"name\":\"untagged.zip\",\"size\":1,"
+      + "  \"content_type\":\"a\",\"browser_download_url\":\"b\"}]},\n"
+      + " {\"tag_name\":\"jdk-22-ea\",\"prerelease\":true,\"draft\":false,\"assets\":[],"
+      + "  \"body\":null},\n"
+      + " {\"tag_name\":\"jdk-22\",\"assets\":[{\"name\":\"late.tar.gz\",\"size\":5,"
+      + "  \"content_type\":\"application/gzip\",\"browser_download_url\":\"c\"}],"
+      + "  \"prerelease\":true}\n"
+      + "]\n";
+
+  @Test
+  void testParse() throws IOException {
+    final List<ReleaseIndex.Asset> assets = new ArrayList<>();
+    assertEquals(5, GithubReleaseParser.parse(new StringReader(PAGE), assets::add));
+    assertEquals(3, assets.size());
+
+    final ReleaseIndex.Asset tarGz = assets.get(0);
+    assertEquals("OpenJDK21U-jdk_x64_linux_hotspot_21_35.tar.gz", tarGz.getFileName());
+    assertEquals("https://github.com/x/OpenJDK21U.tar.gz", tarGz.getLink());
+    assertEquals("application/x-compressed-tar", tarGz.getMime());
+    assertEquals(195000000L, tarGz.getSize());
+    assertEquals("sha256:abcd", tarGz.getDigest());
+    assertFalse(tarGz.isPrerelease());
+
+    final ReleaseIndex.Asset zip = assets.get(1);
+    assertEquals("OpenJDK21U-jdk_x64_windows_hotspot_21_35.zip", zip.getFileName());
+    assertNull(zip.getDigest());
+
+    final ReleaseIndex.Asset late = assets.get(2);
+    assertEquals("late.tar.gz", late.getFileName());
+    assertTrue(late.isPrerelease());
+  }
+
+  @Test
+  void testEmptyPage() throws IOException {
+    assertEquals(0, GithubReleaseParser.parse(new StringReader(" [ ] "), x -> {
+      throw new AssertionError("Unexpected asset");
+    }));
+  }
+
+  @Test
+  void testWrongJson() {
+    assertThrows(IOException.class, () -> GithubReleaseParser.parse(
+        new StringReader("{\"message\":\"API rate limit exceeded\"}"), x -> {
+        }));
+    assertThrows(IOException.class,
+        () -> GithubReleaseParser.parse(new StringReader("[{\"tag_name\":\"a"), x -> {
+        }));
+    assertThrows(IOException.class,
+        () -> GithubReleaseParser.parse(new StringReader("[{\"size\":}]"), x -> {
+        }));
+    assertThrows(IOException.class,
+        () -> GithubReleaseParser.parse(new StringReader("[] []"), x -> {
+        }));
+  }
+}
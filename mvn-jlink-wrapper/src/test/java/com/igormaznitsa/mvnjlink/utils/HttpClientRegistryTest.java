@@ -0,0 +1,97 @@
+package com.igormaznitsa.mvnjlink.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Test;
+
+class HttpClientRegistryTest {
+
+  @Test
+  void testClientsAreSharedForSameSettings() throws IOException {
+    final Log log = mock(Log.class);
+    final ProxySettings proxy = new ProxySettings();
+    proxy.host = "proxy.local";
+    proxy.port = 3128;
+
+    try (final HttpClientRegistry registry = new HttpClientRegistry()) {
+      final CloseableHttpClient direct = registry.getClient(log, null, false, null, null);
+      assertSame(direct, registry.getClient(log, null, false, "", null));
+      assertNotSame(direct, registry.getClient(log, null, true, null, null));
+      assertNotSame(direct, registry.getClient(log, proxy, false, null, null));
+      assertNotSame(direct, registry.getClient(log, null, false, "token abc", null));
+      assertSame(registry.getClient(log, proxy, false, null, null),
+          registry.getClient(log, proxy, false, null, null));
+      assertEquals(4, registry.size());
+    }
+  }
+
+  @Test
+  void testKeyHidesSecrets() {
+    final ProxySettings proxy = new ProxySettings();
+    proxy.username = "user";
+    proxy.password = "secret-password";
+    final String key = HttpClientRegistry.makeKey(proxy, false, "Bearer secret-token");
+    assertEquals(-1, key.indexOf("secret"));
+    assertNotEquals(key, HttpClientRegistry.makeKey(proxy, false, "Bearer other-token"));
+  }
+
+  @Test
+  void testClosedRegistry() {
+    final HttpClientRegistry registry = new HttpClientRegistry();
+    registry.close();
+    assertThrows(IOException.class,
+        () -> registry.getClient(mock(Log.class), null, false, null, null));
+    assertThrows(IOException.class, registry::getAsyncExecutor);
+  }
+
+  @Test
+  void testAsyncExecutorIsShutDownOnClose() throws Exception {
+    final HttpClientRegistry registry = new HttpClientRegistry();
+    final Executor executor = registry.getAsyncExecutor();
+    assertSame(executor, registry.getAsyncExecutor());
+    final CompletableFuture<String> name = new CompletableFuture<>();
+    executor.execute(() -> name.complete(Thread.currentThread().getName()));
+    assertTrue(name.get(5, TimeUnit.SECONDS).startsWith("mvn-jlink-http-async-"));
+
+    registry.close();
+    assertTrue(((ExecutorService) executor).isShutdown());
+    assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+    }));
+  }
+
+  @Test
+  void testRegistryPerSession() throws IOException {
+    final MavenExecutionRequest request = mock(MavenExecutionRequest.class);
+    final MavenSession session = mock(MavenSession.class);
+    final MavenSession clonedSession = mock(MavenSession.class);
+    when(session.getRequest()).thenReturn(request);
+    when(clonedSession.getRequest()).thenReturn(request);
+
+    final HttpClientRegistry registry = HttpClientRegistry.forSession(session);
+    registry.getClient(mock(Log.class), null, false, null, null);
+    assertSame(registry, HttpClientRegistry.forSession(clonedSession));
+
+    final HttpClientRegistry next = HttpClientRegistry.forSession(mock(MavenSession.class));
+    assertNotSame(registry, next);
+    assertEquals(0, registry.size());
+    assertThrows(IOException.class,
+        () -> registry.getClient(mock(Log.class), null, false, null, null));
+  }
+}
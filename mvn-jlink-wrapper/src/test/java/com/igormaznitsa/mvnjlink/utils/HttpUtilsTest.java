@@ -1,8 +1,29 @@
 package com.igormaznitsa.mvnjlink.utils;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.SocketException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.http.Header;
+import org.apache.http.util.EntityUtils;
 import org.junit.jupiter.api.Test;
 
 class HttpUtilsTest {
@@ -18,4 +39,157 @@ class HttpUtilsTest {
     assertNotEquals(new ContentTypeParsed("text/json"), new ContentTypeParsed("text/ddd+fff"));
   }
 
+  @Test
+  void testParseContentRange() {
+    assertArrayEquals(new long[] {0L, 0L, 146515L},
+        HttpUtils.parseContentRange("bytes 0-0/146515"));
+    assertArrayEquals(new long[] {1024L, 2047L, -1L},
+        HttpUtils.parseContentRange(" Bytes 1024-2047/*"));
+    assertNull(HttpUtils.parseContentRange(null));
+    assertNull(HttpUtils.parseContentRange("bytes */146515"));
+    assertNull(HttpUtils.parseContentRange("items 0-1/2"));
+  }
+
+  private static HttpTransport.Response makeResponse(
+      final int code,
+      final String reason,
+      final Map<String, List<String>> headers,
+      final String body
+  ) {
+    return new HttpTransport.Response() {
+      @Override
+      public int getStatusCode() {
+        return code;
+      }
+
+      @Override
+      public String getReasonPhrase() {
+        return reason;
+      }
+
+      @Override
+      public Map<String, List<String>> getHeaders() {
+        return headers;
+      }
+
+      @Override
+      public long getContentLength() {
+        return body == null ? -1L : body.length();
+      }
+
+      @Override
+      public InputStream getBody() {
+        return body == null ? null
+            : new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+  }
+
+  private static Map<String, List<String>> headers(final String... nameValues) {
+    final Map<String, List<String>> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    for (int i = 0; i < nameValues.length; i += 2) {
+      result.computeIfAbsent(nameValues[i], x -> new ArrayList<>()).add(nameValues[i + 1]);
+    }
+    return result;
+  }
+
+  @Test
+  void testDoGetRequestAsync() throws Exception {
+    final List<HttpTransport.Request> requests = new ArrayList<>();
+    final HttpTransport transport = request -> {
+      requests.add(request);
+      final String path = URI.create(request.getUrl()).getPath();
+      return makeResponse(path.endsWith("missing") ? 404 : 200, "",
+          headers("ETag", "\"1\"", "Content-Type", "text/plain"), "text of " + path);
+    };
+
+    final AtomicReference<String> body = new AtomicReference<>();
+    final CompletableFuture<Header[]> found = HttpUtils.doGetRequestAsync(transport,
+        RetryPolicy.NONE, null, Runnable::run, x -> {
+          x.addHeader("Range", "bytes=0-");
+          return x;
+        }, "http://localhost/file", null, null, x -> {
+          try {
+            body.set(EntityUtils.toString(x));
+          } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+          }
+        }, 1000, false, "text/plain");
+    assertEquals("\"1\"", found.get()[1].getValue());
+    assertEquals("text of /file", body.get());
+    assertEquals("bytes=0-", requests.get(0).getHeaders().get("Range"));
+    assertEquals("text/plain", requests.get(0).getHeaders().get("Accept"));
+    assertEquals(1000, requests.get(0).getTimeout());
+
+    try (final HttpClientRegistry registry = new HttpClientRegistry()) {
+      final CompletableFuture<Header[]> missing = HttpUtils.doGetRequestAsync(transport,
+          RetryPolicy.DEFAULT, null, registry.getAsyncExecutor(), null, "http://localhost/missing",
+          null, null, x -> {
+          }, 1000, false, "text/plain");
+      final ExecutionException error = assertThrows(ExecutionException.class, missing::get);
+      assertTrue(error.getCause() instanceof HttpResponseException);
+    }
+  }
+
+  @Test
+  void testAbortOfAsyncRequest() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch aborted = new CountDownLatch(1);
+    final HttpTransport transport = request -> {
+      request.setAbortAction(aborted::countDown);
+      started.countDown();
+      try {
+        aborted.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      throw new SocketException("Socket closed");
+    };
+
+    try (final HttpClientRegistry registry = new HttpClientRegistry()) {
+      final CompletableFuture<Header[]> future = HttpUtils.doGetRequestAsync(transport,
+          RetryPolicy.DEFAULT, null, registry.getAsyncExecutor(), null, "http://localhost/file",
+          null, null, x -> {
+          }, 1000, false);
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+      assertTrue(future.cancel(true));
+      assertTrue(aborted.await(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  void testRetryOnServiceUnavailableAndIoError() throws Exception {
+    final AtomicInteger attempts = new AtomicInteger();
+    final HttpTransport transport = request -> {
+      switch (attempts.incrementAndGet()) {
+        case 1:
+          throw new SocketException("Connection reset");
+        case 2:
+          return makeResponse(503, "Unavailable", headers("Retry-After", "0"), null);
+        default:
+          return makeResponse(200, "", headers("Content-Type", "text/plain"), "done");
+      }
+    };
+    final AtomicReference<String> body = new AtomicReference<>();
+    HttpUtils.doGetRequest(transport, new RetryPolicy(3, 1L, 10L), null, null,
+        "http://localhost/file", null, null, x -> {
+          try {
+            body.set(EntityUtils.toString(x));
+          } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+          }
+        }, 1000, false, "text/plain");
+    assertEquals(3, attempts.get());
+    assertEquals("done", body.get());
+
+    attempts.set(0);
+    assertThrows(SocketException.class, () -> HttpUtils.doGetRequest(transport,
+        RetryPolicy.NONE, null, null, "http://localhost/file", null, null, x -> {
+        }, 1000, false, "text/plain"));
+    assertEquals(1, attempts.get());
+  }
 }
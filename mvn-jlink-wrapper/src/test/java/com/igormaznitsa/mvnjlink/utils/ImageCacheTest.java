@@ -0,0 +1,72 @@
+package com.igormaznitsa.mvnjlink.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ImageCacheTest {
+
+  private static Path makeImage(final Path folder, final String release) throws IOException {
+    Files.createDirectories(folder.resolve("bin"));
+    Files.createDirectories(folder.resolve("lib"));
+    Files.write(folder.resolve("release"), release.getBytes(StandardCharsets.UTF_8));
+    Files.write(folder.resolve("bin/java"), "java".getBytes(StandardCharsets.UTF_8));
+    assertTrue(folder.resolve("bin/java").toFile().setExecutable(true));
+    Files.write(folder.resolve("lib/modules"), new byte[1000]);
+    return folder;
+  }
+
+  @Test
+  void testStoreAndMaterialize(@TempDir final Path folder) throws IOException {
+    final ImageCache cache = new ImageCache(mock(Log.class), folder.resolve("cache"), 0L);
+    final Path output = folder.resolve("output");
+    assertFalse(cache.materialize("key1", output, false));
+    assertFalse(Files.exists(output));
+
+    cache.store("key1", makeImage(folder.resolve("image"), "1"));
+    assertTrue(Files.isDirectory(cache.getRoot().resolve("key1")));
+
+    assertTrue(cache.materialize("key1", output, false));
+    assertArrayEquals("1".getBytes(StandardCharsets.UTF_8),
+        Files.readAllBytes(output.resolve("release")));
+    assertTrue(Files.isExecutable(output.resolve("bin/java")));
+    assertEquals(1000L, Files.size(output.resolve("lib/modules")));
+
+    final Path linked = folder.resolve("linked");
+    assertTrue(cache.materialize("key1", linked, true));
+    assertArrayEquals("1".getBytes(StandardCharsets.UTF_8),
+        Files.readAllBytes(linked.resolve("release")));
+  }
+
+  @Test
+  void testPruneLeastRecentlyUsed(@TempDir final Path folder) throws IOException {
+    final ImageCache cache = new ImageCache(mock(Log.class), folder.resolve("cache"), 0L);
+    for (int i = 0; i < 3; i++) {
+      cache.store("key" + i, makeImage(folder.resolve("image" + i), Integer.toString(i)));
+      Files.setLastModifiedTime(cache.getRoot().resolve("key" + i).resolve("used"),
+          FileTime.fromMillis(1000L * (i + 1)));
+    }
+    assertTrue(cache.materialize("key0", folder.resolve("output"), false));
+
+    assertEquals(0, cache.prune(10000L, null));
+    assertEquals(1, cache.prune(2500L, "key1"));
+    assertTrue(Files.isDirectory(cache.getRoot().resolve("key0")));
+    assertTrue(Files.isDirectory(cache.getRoot().resolve("key1")));
+    assertFalse(Files.exists(cache.getRoot().resolve("key2")));
+
+    assertEquals(1, cache.prune(1500L, "key1"));
+    assertFalse(Files.exists(cache.getRoot().resolve("key0")));
+    assertTrue(Files.isDirectory(cache.getRoot().resolve("key1")));
+  }
+}
@@ -0,0 +1,70 @@
+package com.igormaznitsa.mvnjlink.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InputFingerprintTest {
+
+  @Test
+  void testHashContent(@TempDir final Path folder) throws IOException {
+    final Path modules = Files.createDirectories(folder.resolve("jmods"));
+    Files.write(modules.resolve("java.base.jmod"), "base".getBytes(StandardCharsets.UTF_8));
+    Files.write(modules.resolve("java.sql.jmod"), "sql".getBytes(StandardCharsets.UTF_8));
+
+    final String hash = InputFingerprint.hashContent(modules);
+    assertEquals(64, hash.length());
+    assertEquals(hash, InputFingerprint.hashContent(modules));
+    assertEquals("none", InputFingerprint.hashContent(folder.resolve("unknown")));
+
+    Files.move(modules.resolve("java.sql.jmod"), modules.resolve("java.xml.jmod"));
+    final String renamed = InputFingerprint.hashContent(modules);
+    assertNotEquals(hash, renamed);
+
+    Files.write(modules.resolve("java.xml.jmod"), "xml".getBytes(StandardCharsets.UTF_8));
+    assertNotEquals(renamed, InputFingerprint.hashContent(modules));
+  }
+
+  @Test
+  void testSaveAndMatch(@TempDir final Path folder) throws IOException {
+    final Path manifest = folder.resolve("image.fingerprint");
+    final InputFingerprint fingerprint = new InputFingerprint()
+        .put("jlink.version", "21.0.2")
+        .put("modules", "java.base,java.logging")
+        .put("cli", null);
+
+    assertFalse(fingerprint.matches(manifest));
+    fingerprint.save(manifest);
+    assertTrue(fingerprint.matches(manifest));
+
+    assertTrue(new InputFingerprint()
+        .put("cli", "")
+        .put("modules", "java.base,java.logging")
+        .put("jlink.version", "21.0.2")
+        .matches(manifest));
+    assertFalse(new InputFingerprint()
+        .put("jlink.version", "21.0.2")
+        .put("modules", "java.base")
+        .put("cli", "")
+        .matches(manifest));
+    assertFalse(new InputFingerprint()
+        .put("jlink.version", "21.0.2")
+        .put("modules", "java.base,java.logging")
+        .matches(manifest));
+  }
+
+  @Test
+  void testHashDependsOnValues() {
+    final InputFingerprint first = new InputFingerprint().put("a", "bc");
+    assertEquals(first.getHash(), new InputFingerprint().put("a", "bc").getHash());
+    assertNotEquals(first.getHash(), new InputFingerprint().put("ab", "c").getHash());
+  }
+}
@@ -0,0 +1,81 @@
+package com.igormaznitsa.mvnjlink.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MetadataCacheTest {
+
+  private static final String URL = "https://api.github.com/repos/some/releases?page=1";
+
+  @Test
+  void testSaveLoad(@TempDir final Path folder) throws IOException {
+    final MetadataCache cache = new MetadataCache(folder);
+    assertNull(cache.load(URL));
+
+    cache.save(URL, new MetadataCache.Record("[{\"name\":\"тест\"}]", "\"abc\"", null,
+        "<https://x?page=2>; rel=\"next\"", 1000L));
+    final MetadataCache.Record loaded = cache.load(URL);
+    assertNotNull(loaded);
+    assertEquals("[{\"name\":\"тест\"}]", loaded.getBody());
+    assertEquals("\"abc\"", loaded.getEtag());
+    assertNull(loaded.getLastModified());
+    assertEquals("<https://x?page=2>; rel=\"next\"", loaded.getLink());
+    assertEquals(1000L, loaded.getTimestamp());
+    assertNull(cache.load(URL + "0"));
+
+    cache.save(URL, loaded.withTimestamp(5000L));
+    final MetadataCache.Record updated = cache.load(URL);
+    assertNotNull(updated);
+    assertEquals(5000L, updated.getTimestamp());
+  }
+
+  @Test
+  void testConcurrentSaveKeepsBodyWithItsValidators(@TempDir final Path folder)
+      throws Exception {
+    final MetadataCache cache = new MetadataCache(folder);
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        final int writer = i;
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < 200; j++) {
+            final String id = writer + "-" + j;
+            cache.save(URL, new MetadataCache.Record("body" + id, id, null, null, j));
+            final MetadataCache.Record loaded = cache.load(URL);
+            assertNotNull(loaded);
+            assertEquals("body" + loaded.getEtag(), loaded.getBody());
+          }
+          return null;
+        }));
+      }
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testFresh() {
+    final MetadataCache.Record record = new MetadataCache.Record("", null, null, null, 1000L);
+    assertTrue(record.isFresh(500L, 1200L));
+    assertFalse(record.isFresh(500L, 1600L));
+    assertFalse(record.isFresh(0L, 1000L));
+    assertFalse(record.isFresh(500L, 900L));
+  }
+}
@@ -0,0 +1,148 @@
+package com.igormaznitsa.mvnjlink.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+class ParallelGzipInputStreamTest {
+
+  private static byte[] makeData(final int size) {
+    final byte[] result = new byte[size];
+    final Random random = new Random(12345L);
+    for (int i = 0; i < size; i++) {
+      result[i] = (byte) (random.nextInt(16) + 'a');
+    }
+    return result;
+  }
+
+  private static byte[] gzip(final byte[] data, final int from, final int length)
+      throws IOException {
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (final GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+      out.write(data, from, length);
+    }
+    return buffer.toByteArray();
+  }
+
+  private static void writeShort(final ByteArrayOutputStream out, final int value) {
+    out.write(value & 0xFF);
+    out.write((value >>> 8) & 0xFF);
+  }
+
+  private static void writeInt(final ByteArrayOutputStream out, final int value) {
+    writeShort(out, value);
+    writeShort(out, value >>> 16);
+  }
+
+  private static void writeBgzfBlock(final ByteArrayOutputStream out, final byte[] data,
+                                     final int from, final int length) {
+    final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    deflater.setInput(data, from, length);
+    deflater.finish();
+    final byte[] compressed = new byte[length + 1024];
+    final int compressedLength = deflater.deflate(compressed);
+    deflater.end();
+
+    final CRC32 crc = new CRC32();
+    crc.update(data, from, length);
+
+    out.write(0x1F);
+    out.write(0x8B);
+    out.write(8);
+    out.write(4);
+    writeInt(out, 0);
+    out.write(0);
+    out.write(0xFF);
+    writeShort(out, 6);
+    out.write('B');
+    out.write('C');
+    writeShort(out, 2);
+    writeShort(out, 18 + compressedLength + 8 - 1);
+    out.write(compressed, 0, compressedLength);
+    writeInt(out, (int) crc.getValue());
+    writeInt(out, length);
+  }
+
+  private static byte[] bgzf(final byte[] data) {
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    for (int i = 0; i < data.length; i += 65280) {
+      writeBgzfBlock(buffer, data, i, Math.min(65280, data.length - i));
+    }
+    writeBgzfBlock(buffer, data, 0, 0);
+    return buffer.toByteArray();
+  }
+
+  @Test
+  void testPipelinedSingleMember() throws IOException {
+    final byte[] data = makeData(1_000_000);
+    try (final ParallelGzipInputStream in =
+             new ParallelGzipInputStream(new ByteArrayInputStream(gzip(data, 0, data.length)), 4,
+                 4)) {
+      assertEquals(ParallelGzipInputStream.Mode.PIPELINED, in.getMode());
+      assertArrayEquals(data, IOUtils.toByteArray(in));
+      assertEquals(data.length, in.getInflatedBytes());
+    }
+  }
+
+  @Test
+  void testPipelinedMultiMember() throws IOException {
+    final byte[] data = makeData(300_000);
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    buffer.write(gzip(data, 0, 100_000));
+    buffer.write(gzip(data, 100_000, 200_000));
+    try (final ParallelGzipInputStream in =
+             new ParallelGzipInputStream(new ByteArrayInputStream(buffer.toByteArray()), 1, 2)) {
+      assertEquals(ParallelGzipInputStream.Mode.PIPELINED, in.getMode());
+      assertArrayEquals(data, IOUtils.toByteArray(in));
+    }
+  }
+
+  @Test
+  void testParallelBgzf() throws IOException {
+    final byte[] data = makeData(3_000_000);
+    final byte[] compressed = bgzf(data);
+    try (final ParallelGzipInputStream in =
+             new ParallelGzipInputStream(new ByteArrayInputStream(compressed), 4, 3)) {
+      assertEquals(ParallelGzipInputStream.Mode.PARALLEL_BGZF, in.getMode());
+      assertArrayEquals(data, IOUtils.toByteArray(in));
+      assertEquals((data.length + 65279) / 65280 + 1, in.getMembers());
+    }
+    try (final ParallelGzipInputStream in =
+             new ParallelGzipInputStream(new ByteArrayInputStream(compressed), 1, 3)) {
+      assertEquals(ParallelGzipInputStream.Mode.PIPELINED, in.getMode());
+      assertArrayEquals(data, IOUtils.toByteArray(in));
+    }
+  }
+
+  @Test
+  void testWrongBgzfCrc() throws IOException {
+    final byte[] compressed = bgzf(makeData(200_000));
+    final int blockSize = ((compressed[16] & 0xFF) | (compressed[17] & 0xFF) << 8) + 1;
+    compressed[blockSize - 8] ^= 0x11;
+    try (final ParallelGzipInputStream in =
+             new ParallelGzipInputStream(new ByteArrayInputStream(compressed), 2, 4)) {
+      assertThrows(IOException.class, () -> IOUtils.toByteArray(in));
+    }
+  }
+
+  @Test
+  void testCloseBeforeEnd() throws IOException {
+    final byte[] data = makeData(2_000_000);
+    final ParallelGzipInputStream in =
+        new ParallelGzipInputStream(new ByteArrayInputStream(bgzf(data)), 4, 2);
+    final byte[] buffer = new byte[1000];
+    assertEquals(1000, IOUtils.read(in, buffer));
+    in.close();
+    in.close();
+  }
+}
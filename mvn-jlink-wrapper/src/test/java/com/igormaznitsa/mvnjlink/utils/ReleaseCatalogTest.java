@@ -0,0 +1,69 @@
+package com.igormaznitsa.mvnjlink.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+class ReleaseCatalogTest {
+
+  private static ReleaseCatalog<String> makeCatalog() {
+    final ReleaseCatalog<String> catalog = new ReleaseCatalog<>();
+    final String key = ReleaseCatalog.makeKey("jdk", "linux", "x64");
+    for (final String version : Arrays.asList("17.0.2+8", "21.0.1+12", "17.0.10+7", "21+35",
+        "17.0.9+9", "21.0.2+13", "22-ea+3", "22+36", "8u392b08", "17.0.10+7")) {
+      catalog.add(key, version, version);
+    }
+    catalog.add(ReleaseCatalog.makeKey("jre", "linux", "x64"), "21.0.2+13", "jre");
+    return catalog;
+  }
+
+  @Test
+  void testOrderAndAny() {
+    final ReleaseCatalog<String> catalog = makeCatalog();
+    assertEquals(11, catalog.size());
+    assertEquals(Arrays.asList("22+36", "22-ea+3", "21.0.2+13", "21.0.1+12", "21+35",
+            "17.0.10+7", "17.0.10+7", "17.0.9+9", "17.0.2+8", "8u392b08"),
+        catalog.find(ReleaseCatalog.makeKey("JDK", "Linux", "X64"), "*"));
+    assertEquals(Collections.singletonList("jre"),
+        catalog.find(ReleaseCatalog.makeKey("jre", "linux", "x64"), "*"));
+    assertTrue(catalog.find(ReleaseCatalog.makeKey("jdk", "mac", "x64"), "*").isEmpty());
+  }
+
+  @Test
+  void testPrefix() {
+    final ReleaseCatalog<String> catalog = makeCatalog();
+    final String key = ReleaseCatalog.makeKey("jdk", "linux", "x64");
+    assertEquals(Arrays.asList("21.0.2+13", "21.0.1+12", "21+35"), catalog.find(key, "21.+"));
+    assertEquals(Arrays.asList("21.0.2+13", "21.0.1+12", "21+35"), catalog.find(key, "21*"));
+    assertEquals("17.0.10+7", catalog.find(key, "17.0.*").get(0));
+    assertEquals(Arrays.asList("17.0.10+7", "17.0.10+7"), catalog.find(key, "17.0.10.+"));
+    assertEquals(Collections.singletonList("8u392b08"), catalog.find(key, "8*"));
+    assertTrue(catalog.find(key, "11.+").isEmpty());
+
+    final ReleaseCatalog<String> globCatalog = new ReleaseCatalog<>();
+    for (final String version : Arrays.asList("17.0.1", "17.0.2", "17.0.10", "17.0.11",
+        "11.0.2")) {
+      globCatalog.add(key, version, version);
+    }
+    assertEquals(Arrays.asList("17.0.11", "17.0.10", "17.0.1"),
+        globCatalog.find(key, "17.0.1*"));
+    assertEquals(Arrays.asList("17.0.11", "17.0.10", "17.0.2", "17.0.1", "11.0.2"),
+        globCatalog.find(key, "1*"));
+    assertEquals(Arrays.asList("17.0.11", "17.0.10", "17.0.2", "17.0.1"),
+        globCatalog.find(key, "17.*"));
+  }
+
+  @Test
+  void testExactAndWildcard() {
+    final ReleaseCatalog<String> catalog = makeCatalog();
+    final String key = ReleaseCatalog.makeKey("jdk", "linux", "x64");
+    assertEquals(Collections.singletonList("17.0.9+9"), catalog.find(key, "17.0.9+9"));
+    assertEquals(Collections.singletonList("8u392b08"), catalog.find(key, "8U392B08"));
+    assertTrue(catalog.find(key, "17.0.9+10").isEmpty());
+    assertEquals(Arrays.asList("17.0.10+7", "17.0.10+7", "17.0.9+9", "17.0.2+8"),
+        catalog.find(key, "17.0.?*+*"));
+  }
+}
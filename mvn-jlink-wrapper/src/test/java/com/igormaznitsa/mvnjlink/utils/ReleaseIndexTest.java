@@ -0,0 +1,60 @@
+package com.igormaznitsa.mvnjlink.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReleaseIndexTest {
+
+  @Test
+  void testSaveLoad(@TempDir final Path folder) throws IOException {
+    final Path file = ReleaseIndex.findIndexFile(folder, "ADOPTIUM_temurin21-binaries");
+    assertEquals(folder.resolve(ReleaseIndex.FOLDER_NAME), file.getParent());
+    assertNull(ReleaseIndex.load(file));
+
+    new ReleaseIndex("https://api.github.com/repos/some/releases", 1234L, Arrays.asList(
+        new ReleaseIndex.Asset("jdk-21_linux.tar.gz", "https://some/jdk-21_linux.tar.gz",
+            "application/x-gzip", 100L, "sha256:0011", false),
+        new ReleaseIndex.Asset("jdk-22_linux.zip", "https://some/jdk-22_linux.zip",
+            "application/zip", 200L, null, true)
+    )).save(file);
+
+    final ReleaseIndex loaded = ReleaseIndex.load(file);
+    assertNotNull(loaded);
+    assertEquals("https://api.github.com/repos/some/releases", loaded.getSource());
+    assertEquals(1234L, loaded.getTimestamp());
+    assertEquals(2, loaded.getAssets().size());
+
+    final ReleaseIndex.Asset first = loaded.getAssets().get(0);
+    assertEquals("jdk-21_linux.tar.gz", first.getFileName());
+    assertEquals("https://some/jdk-21_linux.tar.gz", first.getLink());
+    assertEquals("application/x-gzip", first.getMime());
+    assertEquals(100L, first.getSize());
+    assertEquals("sha256:0011", first.getDigest());
+    assertFalse(first.isPrerelease());
+
+    final ReleaseIndex.Asset second = loaded.getAssets().get(1);
+    assertNull(second.getDigest());
+    assertTrue(second.isPrerelease());
+  }
+
+  @Test
+  void testWrongFormat(@TempDir final Path folder) throws IOException {
+    final Path file = folder.resolve("wrong.jsonl");
+    Files.write(file, "{\"format\":999}".getBytes(StandardCharsets.UTF_8));
+    assertThrows(IOException.class, () -> ReleaseIndex.load(file));
+    Files.write(file, "not json".getBytes(StandardCharsets.UTF_8));
+    assertThrows(IOException.class, () -> ReleaseIndex.load(file));
+  }
+}
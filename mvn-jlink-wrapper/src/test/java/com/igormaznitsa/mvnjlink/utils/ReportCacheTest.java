@@ -0,0 +1,49 @@
+package com.igormaznitsa.mvnjlink.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReportCacheTest {
+
+  @Test
+  void testSaveLoad(@TempDir final Path folder) throws IOException {
+    final ReportCache cache = new ReportCache(folder);
+    assertNull(cache.load("abc"));
+
+    final byte[] report = "app.jar -> java.base\napp.jar -> java.sql\n"
+        .getBytes(StandardCharsets.UTF_8);
+    cache.save("abc", report);
+    assertArrayEquals(report, cache.load("abc"));
+    assertNull(cache.load("abd"));
+
+    cache.save("abc", new byte[0]);
+    assertArrayEquals(new byte[0], cache.load("abc"));
+  }
+
+  @Test
+  void testPruneLeastRecentlyUsed(@TempDir final Path folder) throws IOException {
+    final ReportCache cache = new ReportCache(folder);
+    for (int i = 0; i < 3; i++) {
+      cache.save("key" + i, new byte[100]);
+      Files.setLastModifiedTime(cache.getFolder().resolve("key" + i + ".report"),
+          FileTime.fromMillis(1000L * (i + 1)));
+    }
+    assertNotNull(cache.load("key0"));
+
+    assertEquals(0, cache.prune(1000L, null));
+    assertEquals(1, cache.prune(250L, "key1"));
+    assertNotNull(cache.load("key0"));
+    assertNotNull(cache.load("key1"));
+    assertNull(cache.load("key2"));
+  }
+}
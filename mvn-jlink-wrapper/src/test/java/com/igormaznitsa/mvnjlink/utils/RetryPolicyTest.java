@@ -0,0 +1,72 @@
+package com.igormaznitsa.mvnjlink.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.jupiter.api.Test;
+
+class RetryPolicyTest {
+
+  private static HttpResponse response(final int code, final String... headers) {
+    final BasicHttpResponse result = new BasicHttpResponse(HttpVersion.HTTP_1_1, code, "");
+    for (int i = 0; i < headers.length; i += 2) {
+      result.setHeader(headers[i], headers[i + 1]);
+    }
+    return result;
+  }
+
+  @Test
+  void testAttempts() {
+    final RetryPolicy policy = new RetryPolicy(3, 100L, 1000L);
+    assertTrue(policy.hasNextAttempt(1));
+    assertTrue(policy.hasNextAttempt(2));
+    assertFalse(policy.hasNextAttempt(3));
+    assertFalse(RetryPolicy.NONE.hasNextAttempt(1));
+    assertEquals(1, new RetryPolicy(-5, 0L, 0L).getMaxAttempts());
+  }
+
+  @Test
+  void testRetryableResponses() {
+    final RetryPolicy policy = RetryPolicy.DEFAULT;
+    assertTrue(policy.isRetryable(response(429)));
+    assertTrue(policy.isRetryable(response(502)));
+    assertTrue(policy.isRetryable(response(503)));
+    assertTrue(policy.isRetryable(response(504)));
+    assertTrue(policy.isRetryable(response(403, "X-RateLimit-Remaining", "0")));
+    assertFalse(policy.isRetryable(response(403, "X-RateLimit-Remaining", "10")));
+    assertFalse(policy.isRetryable(response(403)));
+    assertFalse(policy.isRetryable(response(404)));
+    assertFalse(policy.isRetryable(response(200)));
+  }
+
+  @Test
+  void testExponentialBackoffWithJitter() {
+    final RetryPolicy policy = new RetryPolicy(10, 1000L, 5000L);
+    assertEquals(1000L, policy.findDelay(1, null, 0L, 0.0d));
+    assertEquals(2000L, policy.findDelay(2, null, 0L, 0.0d));
+    assertEquals(4000L, policy.findDelay(3, null, 0L, 0.0d));
+    assertEquals(5000L, policy.findDelay(4, null, 0L, 0.0d));
+    assertEquals(5000L, policy.findDelay(40, null, 0L, 0.0d));
+    assertEquals(2000L, policy.findDelay(3, null, 0L, 1.0d));
+    assertEquals(3000L, policy.findDelay(3, null, 0L, 0.5d));
+  }
+
+  @Test
+  void testServerRequestedDelay() {
+    final RetryPolicy policy = new RetryPolicy(5, 1000L, 60000L);
+    final long now = 1700000000000L;
+    assertEquals(7000L, policy.findDelay(1, response(503, "Retry-After", "7"), now, 0.5d));
+    assertEquals(15000L, policy.findDelay(1,
+        response(503, "Retry-After", DateUtils.formatDate(new Date(now + 15000L))), now, 0.5d));
+    assertEquals(20000L, policy.findDelay(1, response(403, "X-RateLimit-Remaining", "0",
+        "X-RateLimit-Reset", Long.toString(now / 1000L + 20L)), now, 0.5d));
+    assertEquals(-1L, policy.findDelay(1, response(429, "Retry-After", "3600"), now, 0.5d));
+    assertEquals(750L, policy.findDelay(1, response(503, "Retry-After", "soon"), now, 0.5d));
+  }
+}
@@ -21,7 +21,9 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Test;
 
@@ -62,4 +64,18 @@ class StringUtilsTest {
             "jdk.unsupported"
         }, modules.toArray());
   }
-}
\ No newline at end of file
+
+  @Test
+  void testMergeJdepsReports() {
+    final Map<String, String> reports = new LinkedHashMap<>();
+    reports.put("app.jar", "app.jar -> java.sql\napp.jar -> java.base\n"
+        + "   com.app -> java.sql   java.sql\n");
+    reports.put("lib.jar", "lib.jar -> java.base\nlib.jar -> not found\nlib.jar -> java.base\n");
+    reports.put("empty.jar", "");
+
+    final String merged = StringUtils.mergeJdepsReports(reports);
+    assertEquals("app.jar -> java.base\napp.jar -> java.sql\nlib.jar -> java.base\n", merged);
+    assertArrayEquals(new String[] {"java.base", "java.sql", "java.base"},
+        StringUtils.extractJdepsModuleNames(merged).toArray());
+  }
+}
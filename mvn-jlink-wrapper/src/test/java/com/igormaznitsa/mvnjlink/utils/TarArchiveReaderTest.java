@@ -0,0 +1,132 @@
+package com.igormaznitsa.mvnjlink.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+class TarArchiveReaderTest {
+
+  private static final String LONG_NAME =
+      "jdk-11/" + String.join("/", Collections.nCopies(20, "very-long-folder-name"))
+          + "/file.txt";
+
+  private static byte[] makeTar(final int longFileMode) throws IOException {
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (final TarArchiveOutputStream tar = new TarArchiveOutputStream(buffer)) {
+      tar.setLongFileMode(longFileMode);
+
+      final TarArchiveEntry folder = new TarArchiveEntry("jdk-11/bin/");
+      tar.putArchiveEntry(folder);
+      tar.closeArchiveEntry();
+
+      final byte[] big = new byte[100_000];
+      Arrays.fill(big, (byte) 7);
+      final TarArchiveEntry java = new TarArchiveEntry("jdk-11/bin/java");
+      java.setSize(big.length);
+      java.setMode(0100755);
+      tar.putArchiveEntry(java);
+      tar.write(big);
+      tar.closeArchiveEntry();
+
+      final byte[] text = "hello".getBytes(StandardCharsets.UTF_8);
+      final TarArchiveEntry longEntry = new TarArchiveEntry(LONG_NAME);
+      longEntry.setSize(text.length);
+      longEntry.setMode(0100640);
+      tar.putArchiveEntry(longEntry);
+      tar.write(text);
+      tar.closeArchiveEntry();
+
+      final TarArchiveEntry link =
+          new TarArchiveEntry("jdk-11/bin/link", TarConstants.LF_SYMLINK);
+      link.setLinkName("java");
+      tar.putArchiveEntry(link);
+      tar.closeArchiveEntry();
+    }
+    return buffer.toByteArray();
+  }
+
+  private static void assertArchive(final byte[] tar, final boolean readData) throws IOException {
+    try (final TarArchiveReader reader = new TarArchiveReader(new ByteArrayInputStream(tar))) {
+      final TarArchiveReader.TarEntry folder = reader.getNextEntry();
+      assertNotNull(folder);
+      assertTrue(folder.isDirectory());
+      assertEquals("jdk-11/bin/", folder.getName());
+
+      final TarArchiveReader.TarEntry java = reader.getNextEntry();
+      assertNotNull(java);
+      assertEquals("jdk-11/bin/java", java.getName());
+      assertEquals(100_000L, java.getSize());
+      assertEquals(0755, java.getMode() & 07777);
+      if (readData) {
+        final byte[] data = IOUtils.toByteArray(reader);
+        assertEquals(100_000, data.length);
+        assertEquals(7, data[99_999]);
+      }
+
+      final TarArchiveReader.TarEntry longEntry = reader.getNextEntry();
+      assertNotNull(longEntry);
+      assertEquals(LONG_NAME, longEntry.getName());
+      assertEquals(0640, longEntry.getMode() & 07777);
+      assertArrayEquals("hello".getBytes(StandardCharsets.UTF_8), IOUtils.toByteArray(reader));
+
+      final TarArchiveReader.TarEntry link = reader.getNextEntry();
+      assertNotNull(link);
+      assertTrue(link.isSymbolicLink());
+      assertFalse(link.isFile());
+      assertEquals("java", link.getLinkName());
+      assertEquals(0L, link.getSize());
+
+      assertNull(reader.getNextEntry());
+    }
+  }
+
+  @Test
+  void testPaxLongNames() throws IOException {
+    assertArchive(makeTar(TarArchiveOutputStream.LONGFILE_POSIX), true);
+  }
+
+  @Test
+  void testGnuLongNames() throws IOException {
+    assertArchive(makeTar(TarArchiveOutputStream.LONGFILE_GNU), true);
+  }
+
+  @Test
+  void testSkipUnreadData() throws IOException {
+    assertArchive(makeTar(TarArchiveOutputStream.LONGFILE_POSIX), false);
+  }
+
+  @Test
+  void testWrongChecksum() throws IOException {
+    final byte[] tar = makeTar(TarArchiveOutputStream.LONGFILE_GNU);
+    tar[10] ^= 0x55;
+    try (final TarArchiveReader reader = new TarArchiveReader(new ByteArrayInputStream(tar))) {
+      assertThrows(IOException.class, reader::getNextEntry);
+    }
+  }
+
+  @Test
+  void testTruncatedArchive() throws IOException {
+    final byte[] tar = Arrays.copyOf(makeTar(TarArchiveOutputStream.LONGFILE_GNU), 50_000);
+    try (final TarArchiveReader reader = new TarArchiveReader(new ByteArrayInputStream(tar))) {
+      assertNotNull(reader.getNextEntry());
+      assertNotNull(reader.getNextEntry());
+      assertThrows(IOException.class, reader::getNextEntry);
+    }
+  }
+}